@@ -0,0 +1,62 @@
+package com.maybank.bankapp.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.maybank.bankapp.service.AccountNumberGenerator;
+
+/**
+ * Benchmarks of {@link AccountNumberGenerator} against the in-memory H2 database, so the cost of
+ * reserving a block every block-size numbers is included. The "Contended" variant draws numbers
+ * from several threads at once, as concurrent account openings do.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class AccountNumberBenchmark {
+
+    private static final int CONTENDED_THREADS = 8;
+
+    private ConfigurableApplicationContext context;
+
+    private AccountNumberGenerator generator;
+
+    @Setup(Level.Trial)
+    public void start() {
+        context = BenchmarkContext.start();
+        generator = context.getBean(AccountNumberGenerator.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() {
+        context.close();
+    }
+
+    @Benchmark
+    public long nextAccountNumber() {
+        return generator.nextAccountNumber();
+    }
+
+    @Benchmark
+    @Threads(CONTENDED_THREADS)
+    public long nextAccountNumberContended() {
+        return generator.nextAccountNumber();
+    }
+}
@@ -0,0 +1,139 @@
+package com.maybank.bankapp.benchmark;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.maybank.bankapp.entity.Account;
+import com.maybank.bankapp.exception.ResourceNotFoundException;
+import com.maybank.bankapp.money.Money;
+import com.maybank.bankapp.service.AccountService;
+import com.maybank.bankapp.service.CustomerService;
+
+/**
+ * Benchmarks of {@link AccountService} deposits, withdrawals and lookups against the in-memory
+ * H2 database, called through the Spring proxies so caching and transactions are included.
+ * <p>
+ * The single-threaded benchmarks and the "Parallel" variants give every thread an account of its
+ * own; the "Contended" variants make all threads use the same account.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AccountServiceBenchmark {
+
+    private static final int CONTENDED_THREADS = 8;
+
+    private static final Money OPENING_BALANCE = Money.valueOf("10000000.00");
+
+    private static final Money AMOUNT = Money.valueOf("0.01");
+
+    /**
+     * The running application and one account per benchmark thread plus a shared one.
+     */
+    @State(Scope.Benchmark)
+    public static class Bank {
+
+        ConfigurableApplicationContext context;
+
+        AccountService accountService;
+
+        long[] accountIds;
+
+        long sharedAccountId;
+
+        final AtomicInteger nextAccount = new AtomicInteger();
+
+        @Setup(Level.Trial)
+        public void start() throws ResourceNotFoundException {
+            context = BenchmarkContext.start();
+            accountService = context.getBean(AccountService.class);
+            Long customerId = context.getBean(CustomerService.class).createCustomer("Benchmark").getId();
+            accountIds = new long[CONTENDED_THREADS];
+            for (int i = 0; i < accountIds.length; i++) {
+                accountIds[i] = openAccount(customerId);
+            }
+            sharedAccountId = openAccount(customerId);
+        }
+
+        private long openAccount(Long customerId) throws ResourceNotFoundException {
+            Account account = accountService.createAccount("Savings", customerId);
+            accountService.deposit(account.getId(), OPENING_BALANCE);
+            return account.getId();
+        }
+
+        @TearDown(Level.Trial)
+        public void stop() {
+            context.close();
+        }
+    }
+
+    /**
+     * The account of the current benchmark thread.
+     */
+    @State(Scope.Thread)
+    public static class OwnAccount {
+
+        long accountId;
+
+        @Setup(Level.Trial)
+        public void pick(Bank bank) {
+            accountId = bank.accountIds[bank.nextAccount.getAndIncrement() % bank.accountIds.length];
+        }
+    }
+
+    @Benchmark
+    public Account deposit(Bank bank, OwnAccount own) throws ResourceNotFoundException {
+        return bank.accountService.deposit(own.accountId, AMOUNT);
+    }
+
+    @Benchmark
+    public Account withdraw(Bank bank, OwnAccount own) throws ResourceNotFoundException {
+        return bank.accountService.withdraw(own.accountId, AMOUNT);
+    }
+
+    @Benchmark
+    public Account getAccountById(Bank bank, OwnAccount own) throws ResourceNotFoundException {
+        return bank.accountService.getAccountById(own.accountId);
+    }
+
+    @Benchmark
+    @Threads(CONTENDED_THREADS)
+    public Account depositParallel(Bank bank, OwnAccount own) throws ResourceNotFoundException {
+        return bank.accountService.deposit(own.accountId, AMOUNT);
+    }
+
+    @Benchmark
+    @Threads(CONTENDED_THREADS)
+    public Account depositContended(Bank bank) throws ResourceNotFoundException {
+        return bank.accountService.deposit(bank.sharedAccountId, AMOUNT);
+    }
+
+    @Benchmark
+    @Threads(CONTENDED_THREADS)
+    public Account withdrawContended(Bank bank) throws ResourceNotFoundException {
+        return bank.accountService.withdraw(bank.sharedAccountId, AMOUNT);
+    }
+
+    @Benchmark
+    @Threads(CONTENDED_THREADS)
+    public Account getAccountByIdContended(Bank bank) throws ResourceNotFoundException {
+        return bank.accountService.getAccountById(bank.sharedAccountId);
+    }
+}
@@ -0,0 +1,49 @@
+package com.maybank.bankapp.benchmark;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.util.UUID;
+
+import org.springframework.boot.Banner;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.maybank.bankapp.BankingApplication;
+
+/**
+ * BenchmarkContext starts the application without a web server for benchmarks that call beans
+ * directly.
+ * <p>
+ * Every context gets its own in-memory H2 database, and a journal and keystore in temporary
+ * directories. Application logging is limited to warnings, so the per-request INFO lines do not
+ * dominate the measurements.
+ */
+final class BenchmarkContext {
+
+    private BenchmarkContext() {
+    }
+
+    static ConfigurableApplicationContext start() {
+        System.setProperty("spring.devtools.restart.enabled", "false");
+        String journalDirectory;
+        String keyDirectory;
+        try {
+            journalDirectory = Files.createTempDirectory("bank-benchmark-journal").toString();
+            keyDirectory = Files.createTempDirectory("bank-benchmark-keys").toString();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return new SpringApplicationBuilder(BankingApplication.class)
+                .web(WebApplicationType.NONE)
+                .bannerMode(Banner.Mode.OFF)
+                .logStartupInfo(false)
+                .properties("spring.datasource.url=jdbc:h2:mem:benchmark-" + UUID.randomUUID()
+                        + ";DB_CLOSE_ON_EXIT=FALSE",
+                        "bank.journal.directory=" + journalDirectory,
+                        "bank.encryption.keystore=" + keyDirectory + "/keystore.p12",
+                        "logging.level.com.maybank=WARN")
+                .run();
+    }
+}
@@ -0,0 +1,86 @@
+package com.maybank.bankapp.benchmark;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+import javax.crypto.KeyGenerator;
+import javax.crypto.SecretKey;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.maybank.bankapp.crypto.FieldEncryptor;
+import com.maybank.bankapp.util.EncryptionUtils;
+
+/**
+ * Benchmarks of {@link EncryptionUtils} and {@link FieldEncryptor}. The "raw" benchmarks measure
+ * AES-GCM on its own, so the field benchmarks show the cost of the header and Base64 on top. The
+ * "Contended" variants call them from several threads at once, which exposes contention on shared
+ * state such as the random number generator.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class EncryptionBenchmark {
+
+    private static final int CONTENDED_THREADS = 4;
+
+    private final byte[] plaintext = "Benchmark Customer".getBytes(StandardCharsets.UTF_8);
+
+    private SecretKey key;
+
+    private byte[] ciphertext;
+
+    private FieldEncryptor fieldEncryptor;
+
+    private String encryptedField;
+
+    @Setup
+    public void setUp() throws Exception {
+        KeyGenerator generator = KeyGenerator.getInstance("AES");
+        generator.init(256);
+        key = generator.generateKey();
+        ciphertext = EncryptionUtils.encrypt(plaintext, key);
+        fieldEncryptor = new FieldEncryptor(Collections.singletonMap("benchmark", key), "benchmark");
+        encryptedField = fieldEncryptor.encrypt("Benchmark Customer");
+    }
+
+    @Benchmark
+    public byte[] rawEncrypt() throws Exception {
+        return EncryptionUtils.encrypt(plaintext, key);
+    }
+
+    @Benchmark
+    public byte[] rawDecrypt() throws Exception {
+        return EncryptionUtils.decrypt(ciphertext, key);
+    }
+
+    @Benchmark
+    public String fieldEncrypt() {
+        return fieldEncryptor.encrypt("Benchmark Customer");
+    }
+
+    @Benchmark
+    public String fieldDecrypt() {
+        return fieldEncryptor.decrypt(encryptedField);
+    }
+
+    @Benchmark
+    @Threads(CONTENDED_THREADS)
+    public String fieldEncryptContended() {
+        return fieldEncryptor.encrypt("Benchmark Customer");
+    }
+}
@@ -0,0 +1,73 @@
+package com.maybank.bankapp.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.maybank.bankapp.entity.Account;
+import com.maybank.bankapp.entity.Customer;
+import com.maybank.bankapp.money.Money;
+
+/**
+ * Benchmarks of the Jackson serialization of the Account and Customer responses, using an
+ * ObjectMapper configured the way Spring MVC configures its own. The "Contended" variants share
+ * the mapper between threads, as the web server does.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SerializationBenchmark {
+
+    private static final int CONTENDED_THREADS = 4;
+
+    private ObjectMapper objectMapper;
+
+    private Account account;
+
+    private Customer customer;
+
+    @Setup
+    public void setUp() {
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        customer = new Customer(1L, "Benchmark Customer");
+        account = new Account(1000000008L, "Savings", Money.valueOf("1234.56").getMinorUnits(), "Active", customer);
+    }
+
+    @Benchmark
+    public byte[] serializeAccount() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(account);
+    }
+
+    @Benchmark
+    public byte[] serializeCustomer() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(customer);
+    }
+
+    @Benchmark
+    @Threads(CONTENDED_THREADS)
+    public byte[] serializeAccountContended() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(account);
+    }
+
+    @Benchmark
+    @Threads(CONTENDED_THREADS)
+    public byte[] serializeCustomerContended() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(customer);
+    }
+}
@@ -0,0 +1,48 @@
+package com.maybank.bankapp.loadtest;
+
+/**
+ * The requests the load generator sends. Paths are relative to the /bank-api context path.
+ */
+enum Endpoint {
+
+    CREATE_CUSTOMER("createCustomer"),
+
+    CREATE_ACCOUNT("createAccount"),
+
+    GET_ACCOUNT("getAccount"),
+
+    DEPOSIT("deposit"),
+
+    WITHDRAW("withdraw");
+
+    private final String label;
+
+    Endpoint(String label) {
+        this.label = label;
+    }
+
+    /**
+     * Retrieves the name of the endpoint used in the mix option and the report.
+     *
+     * @return The name of the endpoint.
+     */
+    String getLabel() {
+        return label;
+    }
+
+    /**
+     * Finds an endpoint by its name.
+     *
+     * @param label The name of the endpoint, e.g. "deposit".
+     * @return The endpoint.
+     * @throws IllegalArgumentException if there is no endpoint with that name.
+     */
+    static Endpoint fromLabel(String label) {
+        for (Endpoint endpoint : values()) {
+            if (endpoint.label.equals(label)) {
+                return endpoint;
+            }
+        }
+        throw new IllegalArgumentException("Unknown endpoint: " + label);
+    }
+}
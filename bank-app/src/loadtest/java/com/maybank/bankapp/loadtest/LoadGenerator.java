@@ -0,0 +1,277 @@
+package com.maybank.bankapp.loadtest;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+import org.springframework.boot.Banner;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.maybank.bankapp.BankingApplication;
+
+/**
+ * LoadGenerator starts the application on a random port and sends a mix of requests to it at a
+ * fixed rate, then reports latency percentiles and throughput per endpoint.
+ * <p>
+ * The generator follows an open model: request i is due at start + i / rate whether or not earlier
+ * requests have completed, and its latency is measured from that due time. A slow response
+ * therefore delays, and is charged to, every request queued behind it, instead of silently
+ * lowering the offered load (coordinated omission). Requests are sent by a pool of at most
+ * concurrency threads over keep-alive connections.
+ * <p>
+ * Run with {@code mvn -Ploadtest test-compile exec:exec -Dloadtest.args="rate=1000 duration=30"};
+ * see {@link LoadOptions} for the options.
+ */
+public final class LoadGenerator {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private final LoadOptions options;
+
+    private final String baseUrl;
+
+    private final Endpoint[] schedule;
+
+    private final long[] accountIds;
+
+    private final Map<Endpoint, EndpointStats> stats = new EnumMap<>(Endpoint.class);
+
+    private final AtomicLong customerIds = new AtomicLong();
+
+    private final AtomicLong lastCustomerId = new AtomicLong();
+
+    private LoadGenerator(LoadOptions options, String baseUrl) {
+        this.options = options;
+        this.baseUrl = baseUrl;
+        this.schedule = buildSchedule(options.mix);
+        this.accountIds = new long[options.accounts];
+        for (Endpoint endpoint : options.mix.keySet()) {
+            stats.put(endpoint, new EndpointStats());
+        }
+    }
+
+    /**
+     * Runs a load test.
+     *
+     * @param args The options, as key=value pairs.
+     * @throws Exception if the application cannot be started or seeded.
+     */
+    public static void main(String[] args) throws Exception {
+        LoadOptions options = LoadOptions.parse(args);
+        System.setProperty("http.maxConnections", String.valueOf(options.concurrency));
+        System.setProperty("spring.devtools.restart.enabled", "false");
+        try (ConfigurableApplicationContext context = start()) {
+            String port = context.getEnvironment().getProperty("local.server.port");
+            String contextPath = context.getEnvironment().getProperty("server.servlet.context-path", "");
+            LoadGenerator generator = new LoadGenerator(options, "http://localhost:" + port + contextPath);
+            generator.seed();
+            generator.run();
+            generator.report();
+        }
+    }
+
+    private static ConfigurableApplicationContext start() throws IOException {
+        String journalDirectory = Files.createTempDirectory("bank-loadtest-journal").toString();
+        String keyDirectory = Files.createTempDirectory("bank-loadtest-keys").toString();
+        return new SpringApplicationBuilder(BankingApplication.class)
+                .bannerMode(Banner.Mode.OFF)
+                .logStartupInfo(false)
+                .properties("server.port=0",
+                        "spring.datasource.url=jdbc:h2:mem:loadtest-" + UUID.randomUUID() + ";DB_CLOSE_ON_EXIT=FALSE",
+                        "bank.journal.directory=" + journalDirectory,
+                        "bank.encryption.keystore=" + keyDirectory + "/keystore.p12",
+                        "bank.rate-limit.enabled=false",
+                        "logging.level.com.maybank=WARN")
+                .run();
+    }
+
+    /**
+     * Spreads the endpoints over a cycle of 100 slots in proportion to their weights and shuffles
+     * the cycle, so every request picks its endpoint with one array lookup.
+     */
+    private static Endpoint[] buildSchedule(Map<Endpoint, Integer> mix) {
+        int total = 0;
+        for (int weight : mix.values()) {
+            total += weight;
+        }
+        List<Endpoint> slots = new ArrayList<>();
+        for (Map.Entry<Endpoint, Integer> entry : mix.entrySet()) {
+            long count = Math.max(1, Math.round(100.0 * entry.getValue() / total));
+            for (int i = 0; i < count; i++) {
+                slots.add(entry.getKey());
+            }
+        }
+        Collections.shuffle(slots, new Random(42));
+        return slots.toArray(new Endpoint[0]);
+    }
+
+    private void seed() throws IOException {
+        long customerId = createCustomer();
+        for (int i = 0; i < accountIds.length; i++) {
+            Response account = send("POST", "/accounts/createAccount?type=Savings&customerId=" + customerId, null);
+            accountIds[i] = MAPPER.readTree(account.body).get("id").asLong();
+            send("POST", "/accounts/" + accountIds[i] + "/deposit?amount=1000000.00", null);
+        }
+        System.out.printf(Locale.ROOT, "Seeded %d accounts for customer %d%n", accountIds.length, customerId);
+    }
+
+    private long createCustomer() throws IOException {
+        Response response = send("POST", "/customers/createCustomer", "LoadCustomer" + customerIds.incrementAndGet());
+        JsonNode id = response.code < 300 ? MAPPER.readTree(response.body).get("id") : null;
+        if (id != null) {
+            lastCustomerId.set(id.asLong());
+        }
+        return lastCustomerId.get();
+    }
+
+    private void run() throws InterruptedException {
+        ExecutorService executor = new ThreadPoolExecutor(options.concurrency, options.concurrency, 0,
+                TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>());
+        long intervalNanos = TimeUnit.SECONDS.toNanos(1) / options.rate;
+        long start = System.nanoTime();
+        long measureFrom = start + TimeUnit.SECONDS.toNanos(options.warmupSeconds);
+        long end = measureFrom + TimeUnit.SECONDS.toNanos(options.durationSeconds);
+        System.out.printf(Locale.ROOT, "Sending %d requests/s for %ds after a %ds warmup%n", options.rate,
+                options.durationSeconds, options.warmupSeconds);
+        for (long i = 0;; i++) {
+            long due = start + i * intervalNanos;
+            if (due >= end) {
+                break;
+            }
+            long wait = due - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            Endpoint endpoint = schedule[(int) (i % schedule.length)];
+            boolean measured = due >= measureFrom;
+            executor.execute(() -> call(endpoint, due, measured));
+        }
+        executor.shutdown();
+        executor.awaitTermination(5, TimeUnit.MINUTES);
+    }
+
+    private void call(Endpoint endpoint, long due, boolean measured) {
+        boolean success;
+        try {
+            success = send(endpoint).code < 300;
+        } catch (IOException e) {
+            success = false;
+        }
+        if (measured) {
+            stats.get(endpoint).record(System.nanoTime() - due, success);
+        }
+    }
+
+    private Response send(Endpoint endpoint) throws IOException {
+        long accountId = accountIds[ThreadLocalRandom.current().nextInt(accountIds.length)];
+        switch (endpoint) {
+        case CREATE_CUSTOMER:
+            return send("POST", "/customers/createCustomer", "LoadCustomer" + customerIds.incrementAndGet());
+        case CREATE_ACCOUNT:
+            return send("POST", "/accounts/createAccount?type=Savings&customerId=" + lastCustomerId.get(), null);
+        case GET_ACCOUNT:
+            return send("GET", "/accounts/" + accountId, null);
+        case DEPOSIT:
+            return send("POST", "/accounts/" + accountId + "/deposit?amount=1.00", null);
+        case WITHDRAW:
+            return send("POST", "/accounts/" + accountId + "/withdraw?amount=0.01", null);
+        default:
+            throw new IllegalStateException("Unsupported endpoint: " + endpoint);
+        }
+    }
+
+    private Response send(String method, String path, String body) throws IOException {
+        HttpURLConnection connection = (HttpURLConnection) new URL(baseUrl + path).openConnection();
+        connection.setRequestMethod(method);
+        if (body != null) {
+            connection.setDoOutput(true);
+            connection.setRequestProperty("Content-Type", "text/plain");
+            try (OutputStream output = connection.getOutputStream()) {
+                output.write(body.getBytes(StandardCharsets.UTF_8));
+            }
+        }
+        int code = connection.getResponseCode();
+        // Read the whole body, even of an error, so the connection goes back to the keep-alive pool
+        try (InputStream input = code < 400 ? connection.getInputStream() : connection.getErrorStream()) {
+            ByteArrayOutputStream content = new ByteArrayOutputStream();
+            if (input != null) {
+                byte[] buffer = new byte[4096];
+                for (int read; (read = input.read(buffer)) > 0;) {
+                    content.write(buffer, 0, read);
+                }
+            }
+            return new Response(code, content.toByteArray());
+        }
+    }
+
+    private void report() throws IOException {
+        Map<String, Object> results = new LinkedHashMap<>();
+        System.out.printf(Locale.ROOT, "%n%-16s %9s %7s %10s %9s %9s %9s %9s%n", "endpoint", "requests", "errors",
+                "req/s", "p50 ms", "p99 ms", "p99.9 ms", "max ms");
+        for (Map.Entry<Endpoint, EndpointStats> entry : stats.entrySet()) {
+            EndpointStats endpoint = entry.getValue();
+            double throughput = (double) endpoint.getCount() / options.durationSeconds;
+            System.out.printf(Locale.ROOT, "%-16s %9d %7d %10.1f %9.2f %9.2f %9.2f %9.2f%n",
+                    entry.getKey().getLabel(), endpoint.getCount(), endpoint.getErrors(), throughput,
+                    endpoint.getPercentileMillis(50), endpoint.getPercentileMillis(99),
+                    endpoint.getPercentileMillis(99.9), endpoint.getMaxMillis());
+            Map<String, Object> result = new LinkedHashMap<>();
+            result.put("requests", endpoint.getCount());
+            result.put("errors", endpoint.getErrors());
+            result.put("throughputPerSecond", throughput);
+            result.put("p50Millis", endpoint.getPercentileMillis(50));
+            result.put("p99Millis", endpoint.getPercentileMillis(99));
+            result.put("p999Millis", endpoint.getPercentileMillis(99.9));
+            result.put("maxMillis", endpoint.getMaxMillis());
+            results.put(entry.getKey().getLabel(), result);
+        }
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("rate", options.rate);
+        report.put("durationSeconds", options.durationSeconds);
+        report.put("concurrency", options.concurrency);
+        report.put("endpoints", results);
+        File output = new File(options.output);
+        if (output.getParentFile() != null) {
+            output.getParentFile().mkdirs();
+        }
+        MAPPER.writerWithDefaultPrettyPrinter().writeValue(output, report);
+        System.out.printf(Locale.ROOT, "%nReport written to %s%n", output.getPath());
+    }
+
+    private static final class Response {
+
+        private final int code;
+
+        private final byte[] body;
+
+        private Response(int code, byte[] body) {
+            this.code = code;
+            this.body = body;
+        }
+    }
+}
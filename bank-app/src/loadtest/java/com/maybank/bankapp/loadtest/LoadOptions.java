@@ -0,0 +1,79 @@
+package com.maybank.bankapp.loadtest;
+
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Options of a load test, given as key=value arguments. Every option has a default:
+ * <ul>
+ * <li>rate: requests started per second (500)</li>
+ * <li>duration: seconds measured (60)</li>
+ * <li>warmup: seconds run before measuring (10)</li>
+ * <li>concurrency: maximum number of requests in flight (64)</li>
+ * <li>accounts: accounts created before the test and used by getAccount, deposit and withdraw (100)</li>
+ * <li>mix: relative weight of each endpoint
+ * (createCustomer:5,createAccount:5,getAccount:50,deposit:25,withdraw:15)</li>
+ * <li>output: file the JSON report is written to (target/loadtest-result.json)</li>
+ * </ul>
+ */
+final class LoadOptions {
+
+    final int rate;
+
+    final int durationSeconds;
+
+    final int warmupSeconds;
+
+    final int concurrency;
+
+    final int accounts;
+
+    final Map<Endpoint, Integer> mix;
+
+    final String output;
+
+    private LoadOptions(Map<String, String> values) {
+        rate = Integer.parseInt(values.getOrDefault("rate", "500"));
+        durationSeconds = Integer.parseInt(values.getOrDefault("duration", "60"));
+        warmupSeconds = Integer.parseInt(values.getOrDefault("warmup", "10"));
+        concurrency = Integer.parseInt(values.getOrDefault("concurrency", "64"));
+        accounts = Integer.parseInt(values.getOrDefault("accounts", "100"));
+        mix = parseMix(values.getOrDefault("mix",
+                "createCustomer:5,createAccount:5,getAccount:50,deposit:25,withdraw:15"));
+        output = values.getOrDefault("output", "target/loadtest-result.json");
+        if (rate < 1 || durationSeconds < 1 || warmupSeconds < 0 || concurrency < 1 || accounts < 1) {
+            throw new IllegalArgumentException("rate, duration, concurrency and accounts must be positive");
+        }
+    }
+
+    static LoadOptions parse(String[] args) {
+        Map<String, String> values = new HashMap<>();
+        for (String arg : args) {
+            int separator = arg.indexOf('=');
+            if (separator < 1) {
+                throw new IllegalArgumentException("Expected key=value but got: " + arg);
+            }
+            values.put(arg.substring(0, separator).replaceFirst("^--", ""), arg.substring(separator + 1));
+        }
+        return new LoadOptions(values);
+    }
+
+    private static Map<Endpoint, Integer> parseMix(String text) {
+        Map<Endpoint, Integer> weights = new EnumMap<>(Endpoint.class);
+        for (String entry : text.split(",")) {
+            String[] parts = entry.trim().split(":");
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("Expected endpoint:weight but got: " + entry);
+            }
+            int weight = Integer.parseInt(parts[1].trim());
+            if (weight > 0) {
+                weights.put(Endpoint.fromLabel(parts[0].trim()), weight);
+            }
+        }
+        if (weights.isEmpty()) {
+            throw new IllegalArgumentException("The mix must give at least one endpoint a positive weight");
+        }
+        return weights;
+    }
+}
@@ -0,0 +1,68 @@
+package com.maybank.bankapp.config;
+
+import org.springframework.boot.autoconfigure.cache.CacheProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.util.CollectionUtils;
+import org.springframework.util.StringUtils;
+
+/**
+ * CacheConfig class enables the in-process read-through caches for accounts and customers.
+ * The caches are Caffeine caches; their size and expiry are set by spring.cache.caffeine.spec.
+ * The cache is consulted before a transaction is started, so a hit does not take a connection.
+ * The caches are {@link VersionedCaffeineCache}s, so a late put cannot replace an account with an
+ * older snapshot. Requests that read their own writes bypass the read-through lookups.
+ */
+@Configuration
+@EnableCaching(order = Ordered.LOWEST_PRECEDENCE - 1)
+@EnableConfigurationProperties(CacheProperties.class)
+public class CacheConfig {
+
+    /**
+     * Name of the cache holding accounts by account ID.
+     */
+    public static final String ACCOUNTS = "accounts";
+
+    /**
+     * Name of the cache holding customers by customer ID.
+     */
+    public static final String CUSTOMERS = "customers";
+
+    /**
+     * Condition of the read-through lookups. A request that reads its own writes bypasses the
+     * caches, whose entries may have been read from a lagging replica, and reads the primary.
+     */
+    public static final String NOT_READING_OWN_WRITES =
+            "!T(com.maybank.bankapp.datasource.ReplicaRoutingDataSource).isReadYourWrites()";
+
+    /**
+     * Creates the cache manager of the Caffeine caches named by spring.cache.cache-names.
+     *
+     * @param cacheProperties The spring.cache properties.
+     * @return The cache manager.
+     */
+    @Bean
+    public CacheManager cacheManager(CacheProperties cacheProperties) {
+        CaffeineCacheManager cacheManager = new CaffeineCacheManager() {
+            @Override
+            protected Cache adaptCaffeineCache(String name,
+                    com.github.benmanes.caffeine.cache.Cache<Object, Object> cache) {
+                return new VersionedCaffeineCache(name, cache, isAllowNullValues());
+            }
+        };
+        String spec = cacheProperties.getCaffeine().getSpec();
+        if (StringUtils.hasText(spec)) {
+            cacheManager.setCacheSpecification(spec);
+        }
+        if (!CollectionUtils.isEmpty(cacheProperties.getCacheNames())) {
+            cacheManager.setCacheNames(cacheProperties.getCacheNames());
+        }
+        return cacheManager;
+    }
+}
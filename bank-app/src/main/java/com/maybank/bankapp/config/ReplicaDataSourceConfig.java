@@ -0,0 +1,95 @@
+package com.maybank.bankapp.config;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.NoneNestedConditions;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Conditional;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+
+import com.maybank.bankapp.datasource.ReplicaRoutingDataSource;
+import com.zaxxer.hikari.HikariDataSource;
+
+/**
+ * ReplicaDataSourceConfig replaces the single data source with a primary and a replica pool when
+ * bank.datasource.replica.url is set. The primary is configured by spring.datasource as before;
+ * the application uses the {@link ReplicaRoutingDataSource} in front of both. It steps aside when
+ * bank.sharding.shard-urls is set, so that {@link ShardingDataSourceConfig} can report the
+ * combination instead of two data sources clashing.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "bank.datasource.replica", name = "url")
+@Conditional(ReplicaDataSourceConfig.NotSharded.class)
+public class ReplicaDataSourceConfig {
+
+    /**
+     * Matches when bank.sharding.shard-urls is not set.
+     */
+    static class NotSharded extends NoneNestedConditions {
+
+        NotSharded() {
+            super(ConfigurationPhase.PARSE_CONFIGURATION);
+        }
+
+        @ConditionalOnProperty(prefix = "bank.sharding", name = "shard-urls")
+        static class Sharded {
+        }
+    }
+
+    /**
+     * Creates the connection pool of the primary.
+     *
+     * @param properties The spring.datasource properties.
+     * @return The pool of the primary, further configured by spring.datasource.hikari.
+     */
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName("primary");
+        return dataSource;
+    }
+
+    /**
+     * Creates the connection pool of the replica.
+     *
+     * @param url      The JDBC URL of the replica.
+     * @param username The user name of the replica.
+     * @param password The password of the replica.
+     * @param poolSize The maximum number of connections to the replica.
+     * @return The pool of the replica, with read-only connections.
+     */
+    @Bean
+    public HikariDataSource replicaDataSource(@Value("${bank.datasource.replica.url}") String url,
+            @Value("${bank.datasource.replica.username:sa}") String username,
+            @Value("${bank.datasource.replica.password:}") String password,
+            @Value("${bank.datasource.replica.maximum-pool-size:10}") int poolSize) {
+        HikariDataSource dataSource = DataSourceBuilder.create().type(HikariDataSource.class).url(url)
+                .username(username).password(password).build();
+        dataSource.setPoolName("replica");
+        dataSource.setMaximumPoolSize(poolSize);
+        dataSource.setReadOnly(true);
+        return dataSource;
+    }
+
+    /**
+     * Creates the data source used by the application.
+     *
+     * @param primary The pool of the primary.
+     * @param replica The pool of the replica.
+     * @return The data source routing read-only service transactions to the replica.
+     */
+    @Bean
+    @Primary
+    public DataSource dataSource(@Qualifier("primaryDataSource") DataSource primary,
+            @Qualifier("replicaDataSource") DataSource replica) {
+        return ReplicaRoutingDataSource.create(primary, replica);
+    }
+}
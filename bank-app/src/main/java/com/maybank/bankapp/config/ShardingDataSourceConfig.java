@@ -0,0 +1,105 @@
+package com.maybank.bankapp.config;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.annotation.PreDestroy;
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+
+import com.maybank.bankapp.datasource.ShardRoutingDataSource;
+import com.maybank.bankapp.datasource.Shards;
+import com.zaxxer.hikari.HikariDataSource;
+
+/**
+ * ShardingDataSourceConfig replaces the single data source with one pool per shard when
+ * bank.sharding.shard-urls is set. Shard 0 is configured by spring.datasource as before; the other
+ * shards share its user name and password unless bank.sharding.username and password are set. The
+ * application uses the {@link ShardRoutingDataSource} in front of all pools. Sharding cannot be
+ * combined with a read replica; the application does not start if bank.datasource.replica.url is
+ * set as well.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "bank.sharding", name = "shard-urls")
+public class ShardingDataSourceConfig {
+
+    private final List<HikariDataSource> shardPools = new ArrayList<>();
+
+    /**
+     * Constructs a new ShardingDataSourceConfig.
+     *
+     * @param replicaUrl The JDBC URL of the read replica, which must not be set.
+     */
+    public ShardingDataSourceConfig(@Value("${bank.datasource.replica.url:}") String replicaUrl) {
+        if (!replicaUrl.isEmpty()) {
+            throw new IllegalStateException("bank.sharding.shard-urls and bank.datasource.replica.url cannot both be"
+                    + " set: sharding does not support a read replica");
+        }
+    }
+
+    /**
+     * Creates the connection pool of shard 0.
+     *
+     * @param properties The spring.datasource properties.
+     * @return The pool of shard 0, further configured by spring.datasource.hikari.
+     */
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource shard0DataSource(DataSourceProperties properties) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName("shard-0");
+        return dataSource;
+    }
+
+    /**
+     * Creates the data source used by the application.
+     *
+     * @param shard0     The pool of shard 0.
+     * @param properties The spring.datasource properties.
+     * @param shardUrls  The JDBC URLs of the other shards.
+     * @param username   The user name of the other shards, or empty for that of shard 0.
+     * @param password   The password of the other shards, or empty for that of shard 0.
+     * @param poolSize   The maximum number of connections to each of the other shards.
+     * @return The data source routing to the shard selected by {@link Shards}.
+     */
+    @Bean
+    @Primary
+    public DataSource dataSource(@Qualifier("shard0DataSource") HikariDataSource shard0, DataSourceProperties properties,
+            @Value("${bank.sharding.shard-urls}") String[] shardUrls,
+            @Value("${bank.sharding.username:}") String username,
+            @Value("${bank.sharding.password:}") String password,
+            @Value("${bank.sharding.maximum-pool-size:10}") int poolSize) {
+        List<DataSource> shards = new ArrayList<>();
+        shards.add(shard0);
+        for (String url : shardUrls) {
+            if (url.trim().isEmpty()) {
+                continue;
+            }
+            HikariDataSource dataSource = DataSourceBuilder.create().type(HikariDataSource.class).url(url.trim())
+                    .username(username.isEmpty() ? properties.determineUsername() : username)
+                    .password(username.isEmpty() ? properties.determinePassword() : password).build();
+            dataSource.setPoolName("shard-" + shards.size());
+            dataSource.setMaximumPoolSize(poolSize);
+            shards.add(dataSource);
+            shardPools.add(dataSource);
+        }
+        return ShardRoutingDataSource.create(shards);
+    }
+
+    /**
+     * Closes the pools of the shards after shard 0, which are not beans themselves.
+     */
+    @PreDestroy
+    public void closeShardPools() {
+        shardPools.forEach(HikariDataSource::close);
+    }
+}
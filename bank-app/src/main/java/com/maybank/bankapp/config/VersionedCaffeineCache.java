@@ -0,0 +1,60 @@
+package com.maybank.bankapp.config;
+
+import org.springframework.cache.caffeine.CaffeineCache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.maybank.bankapp.entity.Account;
+import com.maybank.bankapp.entity.Customer;
+
+/**
+ * VersionedCaffeineCache is a {@link CaffeineCache} that never replaces an account or customer
+ * with an older version of it.
+ * <p>
+ * Accounts are put into the cache after the stripe lock of the change has been released, and read
+ * misses are filled after their transaction has ended, so two threads can put snapshots of the same
+ * entity in either order. The put is an atomic merge that keeps the snapshot with the higher
+ * version. Account snapshots without a version ({@link Account#NO_VERSION}) are not cached at all.
+ * Other values are put as usual.
+ */
+public class VersionedCaffeineCache extends CaffeineCache {
+
+    private static final long UNVERSIONED = Long.MIN_VALUE;
+
+    /**
+     * Constructs a new VersionedCaffeineCache.
+     *
+     * @param name            The name of the cache.
+     * @param cache           The Caffeine cache holding the entries.
+     * @param allowNullValues Whether null values are cached.
+     */
+    public VersionedCaffeineCache(String name, Cache<Object, Object> cache, boolean allowNullValues) {
+        super(name, cache, allowNullValues);
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        long version = versionOf(value);
+        if (version == UNVERSIONED) {
+            super.put(key, value);
+            return;
+        }
+        if (version == Account.NO_VERSION && value instanceof Account) {
+            return;
+        }
+        getNativeCache().asMap().merge(key, value, VersionedCaffeineCache::newer);
+    }
+
+    private static Object newer(Object cached, Object offered) {
+        return versionOf(cached) > versionOf(offered) ? cached : offered;
+    }
+
+    private static long versionOf(Object value) {
+        if (value instanceof Account) {
+            return ((Account) value).getVersion();
+        }
+        if (value instanceof Customer) {
+            return ((Customer) value).getVersion();
+        }
+        return UNVERSIONED;
+    }
+}
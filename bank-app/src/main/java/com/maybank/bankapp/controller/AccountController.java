@@ -1,22 +1,43 @@
 package com.maybank.bankapp.controller;
 
+import java.util.List;
+import java.util.OptionalLong;
+import java.util.concurrent.CompletableFuture;
+
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import com.maybank.bankapp.dto.AccountView;
+import com.maybank.bankapp.dto.BatchOperation;
+import com.maybank.bankapp.dto.BatchOperationResult;
+import com.maybank.bankapp.dto.OperationType;
+import com.maybank.bankapp.dto.TransferResult;
+import com.maybank.bankapp.dto.TransferView;
 import com.maybank.bankapp.entity.Account;
 import com.maybank.bankapp.entity.Customer;
+import com.maybank.bankapp.entity.IdempotencyRecord;
+import com.maybank.bankapp.exception.ErrorCode;
 import com.maybank.bankapp.exception.ErrorResponse;
+import com.maybank.bankapp.exception.IdempotencyKeyReusedException;
 import com.maybank.bankapp.exception.ResourceNotFoundException;
+import com.maybank.bankapp.executor.DatabaseExecutor;
+import com.maybank.bankapp.money.Money;
 import com.maybank.bankapp.service.AccountService;
+import com.maybank.bankapp.service.CustomerService;
+import com.maybank.bankapp.service.IdempotencyService;
 
 import io.swagger.annotations.Api;
 import io.swagger.annotations.ApiOperation;
@@ -24,7 +45,13 @@ import io.swagger.annotations.ApiResponse;
 import io.swagger.annotations.ApiResponses;
 
 /**
- * Controller class for handling account-related REST endpoints.
+ * Controller class for handling account-related REST endpoints. The endpoints return a
+ * CompletableFuture; their service calls run on the {@link DatabaseExecutor}, so a slow database
+ * does not hold on to the servlet threads. Accounts are returned as {@link AccountView}s, with the
+ * customer taken from the customer cache rather than loaded with the account. Responses with a
+ * single account carry its version as a strong ETag, and a GET whose If-None-Match matches the
+ * version in the accounts cache is answered with 304 without a database read. Business failures
+ * are answered with the pre-built response of their {@link ErrorCode}.
  */
 
 @RestController
@@ -37,6 +64,18 @@ public class AccountController {
     @Autowired
     private AccountService accountService;
 
+    @Autowired
+    private IdempotencyService idempotencyService;
+
+    @Autowired
+    private CustomerService customerService;
+
+    @Autowired
+    private DatabaseExecutor databaseExecutor;
+
+    @Value("${bank.batch.max-operations:1000}")
+    private int maxBatchOperations;
+
     
     /**
      * Endpoint to create an account for a customer.
@@ -50,98 +89,138 @@ public class AccountController {
     @ApiOperation(value = "Create an account", notes = "Create an account for a customer")
     @ApiResponses(value = { @ApiResponse(code = 200, message = "Success"),
             @ApiResponse(code = 400, message = "Bad Request"),
+            @ApiResponse(code = 404, message = "Customer not found"),
             @ApiResponse(code = 500, message = "Internal Server Error") })
-    public ResponseEntity<Account> createAccount(@RequestParam String type, @RequestParam Long customerId) {
+    public CompletableFuture<ResponseEntity<?>> createAccount(@RequestParam String type,
+            @RequestParam Long customerId) {
         LOGGER.info("Received request to create an account. Type: {}, CustomerId: {}", type, customerId);
-        Account createdAccount = null;
-        try {
-            createdAccount = accountService.createAccount(type, customerId);
-            LOGGER.info("Account created successfully with ID: {}", createdAccount.getId());
-        } catch (ResourceNotFoundException e) {
-            LOGGER.error("Error occurred while creating account: {}", e.getMessage());
-        }
-        return new ResponseEntity<>(createdAccount, HttpStatus.CREATED);
+        return databaseExecutor.submit(() -> {
+            Account createdAccount = null;
+            try {
+                createdAccount = accountService.createAccount(type, customerId);
+                LOGGER.info("Account created successfully with ID: {}", createdAccount.getId());
+            } catch (ResourceNotFoundException e) {
+                LOGGER.error("Error occurred while creating account: {}", e.getMessage());
+                return e.getErrorCode().toResponse();
+            }
+            return withETag(HttpStatus.CREATED, createdAccount);
+        });
     }
 
     
     /**
-     * Endpoint to retrieve account details by ID.
+     * Endpoint to retrieve account details by ID. If the If-None-Match header holds the ETag of the
+     * current version, the response is 304 Not Modified without a body.
      *
-     * @param id  The ID of the account to retrieve.
-     * @return    ResponseEntity with the account details and HTTP status code.
+     * @param id           The ID of the account to retrieve.
+     * @param ifNoneMatch  The ETags the client holds, if any.
+     * @return             ResponseEntity with the account details and HTTP status code.
      */
     @GetMapping(path = "/{id}")
     @ApiOperation(value = "Get account details", notes = "Get account details by account Id.")
     @ApiResponses(value = {
-            @ApiResponse(code = 200, message = "Success", response = Customer.class, responseContainer = "Object"),
+            @ApiResponse(code = 200, message = "Success", response = AccountView.class, responseContainer = "Object"),
+            @ApiResponse(code = 304, message = "Not Modified"),
             @ApiResponse(code = 400, message = "Bad Request"),
             @ApiResponse(code = 500, message = "Internal Server Error") })
-    public ResponseEntity<?> getAccount(@PathVariable Long id) {
+    public CompletableFuture<ResponseEntity<?>> getAccount(@PathVariable Long id,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
         LOGGER.info("Received request to get account details for ID: {}", id);
-        Account account = null;
-        try {
-            account = accountService.getAccountById(id);
-            LOGGER.info("Retrieved account details successfully for ID: {}", id);
-        } catch (ResourceNotFoundException e) {
-            LOGGER.error("Error occurred while getting account details for ID {}: {}", id, e.getMessage());
-            ErrorResponse errorResponse = new ErrorResponse(404, "Account not found with id: " +id);
-            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(errorResponse);
+        OptionalLong cachedVersion = accountService.findCachedVersion(id);
+        if (cachedVersion.isPresent() && ETags.matches(ifNoneMatch, ETags.of(cachedVersion.getAsLong()))) {
+            return CompletableFuture.completedFuture(ETags.notModified(ETags.of(cachedVersion.getAsLong())));
         }
-        return ResponseEntity.ok(account);
+        return databaseExecutor.submit(() -> {
+            Account account = null;
+            try {
+                account = accountService.getAccountById(id);
+                LOGGER.info("Retrieved account details successfully for ID: {}", id);
+            } catch (ResourceNotFoundException e) {
+                LOGGER.error("Error occurred while getting account details for ID {}: {}", id, e.getMessage());
+                return e.getErrorCode().toResponse();
+            }
+            return withETag(HttpStatus.OK, account);
+        });
     }
 
     /**
-     * Endpoint to deposit an amount into the specified account.
+     * Endpoint to deposit an amount into the specified account. A request with an Idempotency-Key
+     * header is applied at most once; retries with the same key return the original response.
      *
-     * @param id      The ID of the account to deposit the amount into.
-     * @param amount  The amount to deposit.
-     * @return        ResponseEntity with the updated account details and HTTP status code.
+     * @param id              The ID of the account to deposit the amount into.
+     * @param amount          The amount to deposit.
+     * @param idempotencyKey  The idempotency key of the request, if any.
+     * @return                ResponseEntity with the updated account details and HTTP status code.
      */
     
     @PostMapping("/{id}/deposit")
     @ApiOperation(value = "Deposit an amount", notes = "Deposit an amount of a customer")
     @ApiResponses(value = { @ApiResponse(code = 200, message = "Success"),
             @ApiResponse(code = 400, message = "Bad Request"),
+            @ApiResponse(code = 422, message = "Idempotency key reused for a different request"),
             @ApiResponse(code = 500, message = "Internal Server Error") })
-    public ResponseEntity<?> deposit(@PathVariable Long id, @RequestParam double amount) {
+    public CompletableFuture<ResponseEntity<?>> deposit(@PathVariable Long id, @RequestParam Money amount,
+            @RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey) {
         LOGGER.info("Received request to deposit {} amount for account ID: {}", amount, id);
-        Account account = null;
-        try {
-        	account = accountService.deposit(id, amount);
-            LOGGER.info("Amount {} deposited successfully for account ID: {}", amount, id);
-        } catch (ResourceNotFoundException e) {
-            LOGGER.error("Error occurred while depositing amount {} for account ID {}: {}", amount, id, e.getMessage());
-            ErrorResponse errorResponse = new ErrorResponse(404, "Account not found with id: " +id);
-            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(errorResponse);
+        if (!amount.isPositive()) {
+            return CompletableFuture.completedFuture(nonPositiveAmount());
         }
-        return ResponseEntity.ok(account);
+        if (!isValidIdempotencyKey(idempotencyKey)) {
+            return CompletableFuture.completedFuture(invalidIdempotencyKey());
+        }
+        return databaseExecutor.submit(() -> {
+            Account account = null;
+            try {
+                account = idempotencyKey == null ? accountService.deposit(id, amount)
+                        : idempotencyService.execute(idempotencyKey, id, OperationType.DEPOSIT, amount,
+                                () -> accountService.deposit(id, amount, idempotencyKey));
+                LOGGER.info("Amount {} deposited successfully for account ID: {}", amount, id);
+            } catch (ResourceNotFoundException | IdempotencyKeyReusedException e) {
+                LOGGER.error("Error occurred while depositing amount {} for account ID {}: {}", amount, id, e.getMessage());
+                return e.getErrorCode().toResponse();
+            }
+            return withETag(HttpStatus.OK, account);
+        });
     }
 
     
     /**
-     * Endpoint to withdraw an amount from the specified account.
+     * Endpoint to withdraw an amount from the specified account. A request with an Idempotency-Key
+     * header is applied at most once; retries with the same key return the original response.
      *
-     * @param id      The ID of the account to withdraw the amount from.
-     * @param amount  The amount to withdraw.
-     * @return        ResponseEntity with the updated account details and HTTP status code.
+     * @param id              The ID of the account to withdraw the amount from.
+     * @param amount          The amount to withdraw.
+     * @param idempotencyKey  The idempotency key of the request, if any.
+     * @return                ResponseEntity with the updated account details and HTTP status code.
      */
     @PostMapping("/{id}/withdraw")
     @ApiOperation(value = "Withdraw an amount", notes = "Withdraw an amount of a customer")
     @ApiResponses(value = { @ApiResponse(code = 200, message = "Success"),
             @ApiResponse(code = 400, message = "Bad Request"),
+            @ApiResponse(code = 422, message = "Insufficient funds, or idempotency key reused for a different request"),
             @ApiResponse(code = 500, message = "Internal Server Error") })
-    public ResponseEntity<?> withdraw(@PathVariable Long id, @RequestParam double amount) {
+    public CompletableFuture<ResponseEntity<?>> withdraw(@PathVariable Long id, @RequestParam Money amount,
+            @RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey) {
         LOGGER.info("Received request to withdraw {} amount for account ID: {}", amount, id);
-        Account account = null;
-        try {
-        	account = accountService.withdraw(id, amount);
-            LOGGER.info("Amount {} withdrawn successfully for account ID: {}", amount, id);
-        } catch (ResourceNotFoundException e) {
-            LOGGER.error("Error occurred while withdrawing amount {} for account ID {}: {}", amount, id, e.getMessage());
-            ErrorResponse errorResponse = new ErrorResponse(404, "Account not found with id: " +id);
-            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(errorResponse);
+        if (!amount.isPositive()) {
+            return CompletableFuture.completedFuture(nonPositiveAmount());
+        }
+        if (!isValidIdempotencyKey(idempotencyKey)) {
+            return CompletableFuture.completedFuture(invalidIdempotencyKey());
         }
-        return ResponseEntity.ok(account);
+        return databaseExecutor.submit(() -> {
+            Account account = null;
+            try {
+                account = idempotencyKey == null ? accountService.withdraw(id, amount)
+                        : idempotencyService.execute(idempotencyKey, id, OperationType.WITHDRAW, amount,
+                                () -> accountService.withdraw(id, amount, idempotencyKey));
+                LOGGER.info("Amount {} withdrawn successfully for account ID: {}", amount, id);
+            } catch (ResourceNotFoundException | IdempotencyKeyReusedException e) {
+                LOGGER.error("Error occurred while withdrawing amount {} for account ID {}: {}", amount, id, e.getMessage());
+                return e.getErrorCode().toResponse();
+            }
+            return withETag(HttpStatus.OK, account);
+        });
     }
 
     
@@ -157,18 +236,129 @@ public class AccountController {
     @ApiResponses(value = { @ApiResponse(code = 200, message = "Success"),
             @ApiResponse(code = 400, message = "Bad Request"),
             @ApiResponse(code = 500, message = "Internal Server Error") })
-    public ResponseEntity<?> closeAccount(@PathVariable Long id) {
+    public CompletableFuture<ResponseEntity<?>> closeAccount(@PathVariable Long id) {
         LOGGER.info("Received request to close account for ID:", id);
-        Account account = null;
-        try {
-        	account = accountService.closeAccount(id);
-            LOGGER.info("Account closed successfully for ID: {}", id);
-        } catch (ResourceNotFoundException e) {
-            LOGGER.error("Error occurred while closing account for ID {}: {}", id, e.getMessage());
-            ErrorResponse errorResponse = new ErrorResponse(404, "Account not found with id: " +id);
-            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(errorResponse);
+        return databaseExecutor.submit(() -> {
+            Account account = null;
+            try {
+                account = accountService.closeAccount(id);
+                LOGGER.info("Account closed successfully for ID: {}", id);
+            } catch (ResourceNotFoundException e) {
+                LOGGER.error("Error occurred while closing account for ID {}: {}", id, e.getMessage());
+                return e.getErrorCode().toResponse();
+            }
+            return withETag(HttpStatus.OK, account);
+        });
+    }
+
+    /**
+     * Endpoint to transfer an amount from one account to another in a single transaction. The
+     * response holds two accounts, so it has no ETag.
+     *
+     * @param fromAccountId  The ID of the account to withdraw the amount from.
+     * @param toAccountId    The ID of the account to deposit the amount into.
+     * @param amount         The amount to transfer.
+     * @return               ResponseEntity with both accounts after the transfer and HTTP status code.
+     */
+    @PostMapping("/transfer")
+    @ApiOperation(value = "Transfer an amount", notes = "Transfer an amount from one account to another")
+    @ApiResponses(value = { @ApiResponse(code = 200, message = "Success"),
+            @ApiResponse(code = 400, message = "Bad Request"),
+            @ApiResponse(code = 422, message = "Insufficient funds"),
+            @ApiResponse(code = 500, message = "Internal Server Error") })
+    public CompletableFuture<ResponseEntity<?>> transfer(@RequestParam Long fromAccountId,
+            @RequestParam Long toAccountId, @RequestParam Money amount) {
+        LOGGER.info("Received request to transfer {} amount from account ID {} to account ID {}", amount, fromAccountId,
+                toAccountId);
+        if (fromAccountId.equals(toAccountId) || !amount.isPositive()) {
+            ErrorResponse errorResponse = new ErrorResponse(400,
+                    "Transfer requires two different accounts and a positive amount");
+            return CompletableFuture.completedFuture(ResponseEntity.status(HttpStatus.BAD_REQUEST).body(errorResponse));
         }
-        return ResponseEntity.ok(account);
+        return databaseExecutor.submit(() -> {
+            TransferResult result = null;
+            try {
+                result = accountService.transfer(fromAccountId, toAccountId, amount);
+                LOGGER.info("Amount {} transferred successfully from account ID {} to account ID {}", amount,
+                        fromAccountId, toAccountId);
+            } catch (ResourceNotFoundException e) {
+                LOGGER.error("Error occurred while transferring amount {} from account ID {} to account ID {}: {}",
+                        amount, fromAccountId, toAccountId, e.getMessage());
+                return e.getErrorCode().toResponse();
+            }
+            return ResponseEntity.ok(
+                    new TransferView(view(result.getFromAccount()), view(result.getToAccount()), result.getAmount()));
+        });
+    }
+
+    /**
+     * Endpoint to apply a batch of deposits and withdrawals in a single transaction.
+     *
+     * @param operations  The operations to apply, in order.
+     * @return            ResponseEntity with the result of each operation and HTTP status code.
+     */
+    @PostMapping("/batch")
+    @ApiOperation(value = "Apply a batch of operations", notes = "Apply a list of deposits and withdrawals in a single transaction")
+    @ApiResponses(value = { @ApiResponse(code = 200, message = "Success"),
+            @ApiResponse(code = 400, message = "Bad Request"),
+            @ApiResponse(code = 500, message = "Internal Server Error") })
+    public CompletableFuture<ResponseEntity<?>> applyBatch(@RequestBody List<BatchOperation> operations) {
+        LOGGER.info("Received request to apply a batch of {} operations", operations.size());
+        if (operations.isEmpty() || operations.size() > maxBatchOperations) {
+            ErrorResponse errorResponse = new ErrorResponse(400,
+                    "Batch must contain between 1 and " + maxBatchOperations + " operations");
+            return CompletableFuture.completedFuture(ResponseEntity.status(HttpStatus.BAD_REQUEST).body(errorResponse));
+        }
+        return databaseExecutor.submit(() -> {
+            List<BatchOperationResult> results = accountService.applyBatch(operations);
+            LOGGER.info("Batch of {} operations applied", operations.size());
+            return ResponseEntity.ok(results);
+        });
     }
-}
 
+    /**
+     * Builds the response of an account with its version as ETag. Snapshots without a version, such
+     * as replayed idempotent responses, are returned without one.
+     */
+    private ResponseEntity<AccountView> withETag(HttpStatus status, Account account) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.status(status);
+        if (account != null && account.getVersion() != Account.NO_VERSION) {
+            response.eTag(ETags.of(account.getVersion()));
+        }
+        return response.body(view(account));
+    }
+
+    /**
+     * Builds the response body of an account, taking its customer from the customer cache.
+     */
+    private AccountView view(Account account) {
+        if (account == null) {
+            return null;
+        }
+        Customer customer = null;
+        if (account.getCustomerId() != null) {
+            try {
+                customer = customerService.getCustomerById(account.getCustomerId());
+            } catch (ResourceNotFoundException e) {
+                LOGGER.warn("Customer {} of account {} not found", account.getCustomerId(), account.getId());
+            }
+        }
+        return AccountView.of(account, customer);
+    }
+
+    private static boolean isValidIdempotencyKey(String idempotencyKey) {
+        return idempotencyKey == null || (!idempotencyKey.trim().isEmpty()
+                && idempotencyKey.length() <= IdempotencyRecord.MAX_KEY_LENGTH);
+    }
+
+    private static ResponseEntity<ErrorResponse> nonPositiveAmount() {
+        ErrorResponse errorResponse = new ErrorResponse(400, "Amount must be positive");
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(errorResponse);
+    }
+
+    private static ResponseEntity<ErrorResponse> invalidIdempotencyKey() {
+        ErrorResponse errorResponse = new ErrorResponse(400,
+                IdempotencyService.HEADER + " must be between 1 and " + IdempotencyRecord.MAX_KEY_LENGTH + " characters");
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(errorResponse);
+    }
+}
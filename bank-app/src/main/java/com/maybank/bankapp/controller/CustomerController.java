@@ -1,8 +1,15 @@
 package com.maybank.bankapp.controller;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.OptionalLong;
+import java.util.concurrent.CompletableFuture;
+
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.CrossOrigin;
@@ -10,12 +17,20 @@ import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import com.maybank.bankapp.dto.AccountPage;
+import com.maybank.bankapp.dto.DataFormat;
+import com.maybank.bankapp.dto.ImportSummary;
 import com.maybank.bankapp.entity.Customer;
 import com.maybank.bankapp.exception.ErrorResponse;
 import com.maybank.bankapp.exception.ResourceNotFoundException;
+import com.maybank.bankapp.executor.DatabaseExecutor;
+import com.maybank.bankapp.service.AccountService;
+import com.maybank.bankapp.service.CustomerImportService;
 import com.maybank.bankapp.service.CustomerService;
 
 import io.micrometer.core.instrument.util.StringUtils;
@@ -26,7 +41,10 @@ import io.swagger.annotations.ApiResponses;
 
 /**
  * Controller class for handling HTTP requests related to customers.
- * Provides REST endpoints for creating and retrieving customer details.
+ * Provides REST endpoints for creating and retrieving customer details. Their service calls run
+ * on the {@link DatabaseExecutor}; the streamed import stays on the request thread. Customers
+ * carry a strong ETag, and a GET whose If-None-Match matches a cached customer is answered with 304
+ * without a database read.
  */
 @RestController
 @RequestMapping("customers")
@@ -38,13 +56,29 @@ public class CustomerController {
 
     private final CustomerService customerService;
 
+    private final CustomerImportService customerImportService;
+
+    private final AccountService accountService;
+
+    private final DatabaseExecutor databaseExecutor;
+
+    @Value("${bank.pagination.max-page-size:200}")
+    private int maxPageSize;
+
     /**
      * Constructs a new CustomerController with the specified CustomerService.
      * @param customerService The CustomerService used to handle customer-related operations.
+     * @param customerImportService The CustomerImportService used to import customers in bulk.
+     * @param accountService The AccountService used to list the accounts of a customer.
+     * @param databaseExecutor The DatabaseExecutor the service calls run on.
      */
     @Autowired
-    public CustomerController(CustomerService customerService) {
+    public CustomerController(CustomerService customerService, CustomerImportService customerImportService,
+            AccountService accountService, DatabaseExecutor databaseExecutor) {
         this.customerService = customerService;
+        this.customerImportService = customerImportService;
+        this.accountService = accountService;
+        this.databaseExecutor = databaseExecutor;
     }
 
     /**
@@ -59,21 +93,26 @@ public class CustomerController {
     @ApiResponses(value = { @ApiResponse(code = 200, message = "Success"),
             @ApiResponse(code = 400, message = "Bad Request"),
             @ApiResponse(code = 500, message = "Internal Server Error") })
-    public ResponseEntity<?> createCustomer(@RequestBody String customerName) {
+    public CompletableFuture<ResponseEntity<?>> createCustomer(@RequestBody String customerName) {
     	if(StringUtils.isEmpty(customerName.replaceAll("[^\\p{L}\\p{N}]", "")) || customerName.length() == 0){
     		 ErrorResponse errorResponse = new ErrorResponse(400, "Customer Name Should Not be empty");
-	         return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(errorResponse);
+	         return CompletableFuture.completedFuture(ResponseEntity.status(HttpStatus.BAD_REQUEST).body(errorResponse));
     	}
         LOGGER.info("Received request to create a customer with name: {}", customerName);
-        Customer createdCustomer = customerService.createCustomer(customerName);
-        LOGGER.info("Customer created successfully with ID: {}", createdCustomer.getId());
-        return new ResponseEntity<>(createdCustomer, HttpStatus.CREATED);
+        return databaseExecutor.submit(() -> {
+            Customer createdCustomer = customerService.createCustomer(customerName);
+            LOGGER.info("Customer created successfully with ID: {}", createdCustomer.getId());
+            return ResponseEntity.status(HttpStatus.CREATED).eTag(ETags.of(createdCustomer.getVersion()))
+                    .body(createdCustomer);
+        });
     }
 
     /**
-     * Endpoint to retrieve customer details by customer ID.
+     * Endpoint to retrieve customer details by customer ID. If the If-None-Match header holds the
+     * ETag of the customer, the response is 304 Not Modified without a body.
      *
      * @param customerId The ID of the customer to retrieve details for.
+     * @param ifNoneMatch The ETags the client holds, if any.
      * @return ResponseEntity with the retrieved customer details and HTTP status code.
      */
     
@@ -81,20 +120,89 @@ public class CustomerController {
     @ApiOperation(value = "Get customer details", notes = "Get Customer details by customer Id.")
     @ApiResponses(value = {
             @ApiResponse(code = 200, message = "Success", response = Customer.class, responseContainer = "Object"),
+            @ApiResponse(code = 304, message = "Not Modified"),
             @ApiResponse(code = 400, message = "Bad Request"),
             @ApiResponse(code = 500, message = "Internal Server Error") })
-    public ResponseEntity<?> getCustomer(@PathVariable Long customerId) {
+    public CompletableFuture<ResponseEntity<?>> getCustomer(@PathVariable Long customerId,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
         LOGGER.info("Received request to get customer details for ID: {}", customerId);
-        Customer customer = null;
-		try {
-			customer = customerService.getCustomerById(customerId);
-		} catch (ResourceNotFoundException e) {
-			LOGGER.error("Error occurred while getting the customer for ID {}: {}", customerId, e.getMessage());
-			 ErrorResponse errorResponse = new ErrorResponse(404, "Account not found with id: " +customerId);
-	         return ResponseEntity.status(HttpStatus.NOT_FOUND).body(errorResponse);
-		}
-        LOGGER.info("Retrieved customer details successfully for ID: {}", customerId);
-        return ResponseEntity.ok(customer);
+        OptionalLong cachedVersion = customerService.findCachedVersion(customerId);
+        if (cachedVersion.isPresent() && ETags.matches(ifNoneMatch, ETags.of(cachedVersion.getAsLong()))) {
+            return CompletableFuture.completedFuture(ETags.notModified(ETags.of(cachedVersion.getAsLong())));
+        }
+        return databaseExecutor.submit(() -> {
+            Customer customer = null;
+            try {
+                customer = customerService.getCustomerById(customerId);
+            } catch (ResourceNotFoundException e) {
+                LOGGER.error("Error occurred while getting the customer for ID {}: {}", customerId, e.getMessage());
+                return e.getErrorCode().toResponse();
+            }
+            LOGGER.info("Retrieved customer details successfully for ID: {}", customerId);
+            return ResponseEntity.ok().eTag(ETags.of(customer.getVersion())).body(customer);
+        });
+    }
+
+    /**
+     * Endpoint to list the accounts of a customer, one page at a time in account ID order. Each
+     * response carries the cursor of the next page, so deep pages cost the same as the first one.
+     *
+     * @param customerId The ID of the customer whose accounts are listed.
+     * @param cursor     The nextCursor of the previous page, or absent for the first page.
+     * @param type       Only list accounts of this type, if given.
+     * @param status     Only list accounts with this status, if given.
+     * @param limit      The maximum number of accounts on the page.
+     * @return ResponseEntity with the page of accounts and HTTP status code.
+     */
+    @GetMapping(path = "/{customerId}/accounts")
+    @ApiOperation(value = "List customer accounts", notes = "List the accounts of a customer with cursor pagination")
+    @ApiResponses(value = { @ApiResponse(code = 200, message = "Success"),
+            @ApiResponse(code = 400, message = "Bad Request"),
+            @ApiResponse(code = 404, message = "Not Found"),
+            @ApiResponse(code = 500, message = "Internal Server Error") })
+    public CompletableFuture<ResponseEntity<?>> getCustomerAccounts(@PathVariable Long customerId,
+            @RequestParam(required = false) Long cursor, @RequestParam(required = false) String type,
+            @RequestParam(required = false) String status, @RequestParam(defaultValue = "50") int limit) {
+        if (limit < 1 || limit > maxPageSize) {
+            ErrorResponse errorResponse = new ErrorResponse(400, "Limit must be between 1 and " + maxPageSize);
+            return CompletableFuture.completedFuture(ResponseEntity.status(HttpStatus.BAD_REQUEST).body(errorResponse));
+        }
+        LOGGER.info("Received request to list accounts of customer {} after {}", customerId, cursor);
+        return databaseExecutor.submit(() -> {
+            try {
+                AccountPage page = accountService.getAccountsByCustomer(customerId, cursor, type, status, limit);
+                return ResponseEntity.ok(page);
+            } catch (ResourceNotFoundException e) {
+                LOGGER.error("Error occurred while listing accounts of customer {}: {}", customerId, e.getMessage());
+                return e.getErrorCode().toResponse();
+            }
+        });
     }
-}
 
+    /**
+     * Endpoint to import customers, and optionally their accounts, from an NDJSON or CSV upload.
+     * The upload is streamed and inserted in chunks, so it may be arbitrarily large.
+     *
+     * @param contentType The content type of the upload, which selects the format.
+     * @param body        The upload.
+     * @return ResponseEntity with the import summary and HTTP status code.
+     * @throws IOException if the upload cannot be read.
+     */
+    @PostMapping(path = "/import", consumes = { DataFormat.NDJSON_VALUE, DataFormat.CSV_VALUE })
+    @ApiOperation(value = "Import customers", notes = "Import customers and their accounts from NDJSON or CSV")
+    @ApiResponses(value = { @ApiResponse(code = 200, message = "Success"),
+            @ApiResponse(code = 400, message = "Bad Request"),
+            @ApiResponse(code = 500, message = "Internal Server Error") })
+    public ResponseEntity<?> importCustomers(@RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType,
+            InputStream body) throws IOException {
+        LOGGER.info("Received request to import customers from {}", contentType);
+        try {
+            ImportSummary summary = customerImportService.importCustomers(body, DataFormat.fromContentType(contentType));
+            return ResponseEntity.ok(summary);
+        } catch (IllegalArgumentException e) {
+            LOGGER.error("Rejected customer import: {}", e.getMessage());
+            ErrorResponse errorResponse = new ErrorResponse(400, e.getMessage());
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(errorResponse);
+        }
+    }
+}
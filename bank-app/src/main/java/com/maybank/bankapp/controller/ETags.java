@@ -0,0 +1,61 @@
+package com.maybank.bankapp.controller;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+/**
+ * ETags builds the strong entity tags of versioned resources and evaluates If-None-Match headers
+ * against them, so a conditional GET can be answered before the resource is loaded.
+ */
+final class ETags {
+
+    private static final String WEAK_PREFIX = "W/";
+
+    private ETags() {
+    }
+
+    /**
+     * Returns the strong entity tag of a resource version.
+     *
+     * @param version The version of the resource.
+     * @return The quoted entity tag.
+     */
+    static String of(long version) {
+        return "\"" + version + "\"";
+    }
+
+    /**
+     * Tells whether an If-None-Match header matches an entity tag. As required for GET, the weak
+     * comparison is used, so W/"3" matches "3".
+     *
+     * @param ifNoneMatch The If-None-Match header, or null.
+     * @param etag        The entity tag of the current version of the resource.
+     * @return true if the client already holds the current version.
+     */
+    static boolean matches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            candidate = candidate.trim();
+            if (candidate.startsWith(WEAK_PREFIX)) {
+                candidate = candidate.substring(WEAK_PREFIX.length());
+            }
+            if (candidate.equals("*") || candidate.equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Builds the response telling the client its copy is current.
+     *
+     * @param <T>  The type of the body the response would otherwise have.
+     * @param etag The entity tag of the current version of the resource.
+     * @return A 304 response with the entity tag and no body.
+     */
+    static <T> ResponseEntity<T> notModified(String etag) {
+        return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+    }
+}
@@ -0,0 +1,86 @@
+package com.maybank.bankapp.controller;
+
+import java.time.LocalDate;
+import java.util.Locale;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import com.maybank.bankapp.dto.DataFormat;
+import com.maybank.bankapp.exception.ResourceNotFoundException;
+import com.maybank.bankapp.service.AccountService;
+import com.maybank.bankapp.service.StatementService;
+
+import io.swagger.annotations.Api;
+import io.swagger.annotations.ApiOperation;
+import io.swagger.annotations.ApiResponse;
+import io.swagger.annotations.ApiResponses;
+
+/**
+ * Controller class for exporting account statements.
+ */
+@RestController
+@RequestMapping("accounts")
+@Api(tags = { "Account REST endpoints" })
+public class StatementController {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(StatementController.class);
+
+    @Autowired
+    private AccountService accountService;
+
+    @Autowired
+    private StatementService statementService;
+
+    /**
+     * Endpoint to export the statement of an account over a range of days. The statement is
+     * streamed to the client while it is read from the database.
+     *
+     * @param id      The ID of the account.
+     * @param from    The first day of the statement, e.g. 2024-01-01.
+     * @param to      The last day of the statement, inclusive.
+     * @param format  The format of the statement, ndjson or csv.
+     * @return        ResponseEntity streaming the statement.
+     * @throws ResourceNotFoundException if the account with the given ID is not found.
+     */
+    @GetMapping("/{id}/statement")
+    @ApiOperation(value = "Export a statement", notes = "Stream the transactions of an account over a range of days")
+    @ApiResponses(value = { @ApiResponse(code = 200, message = "Success"),
+            @ApiResponse(code = 400, message = "Bad Request"),
+            @ApiResponse(code = 404, message = "Not Found"),
+            @ApiResponse(code = 500, message = "Internal Server Error") })
+    public ResponseEntity<StreamingResponseBody> exportStatement(@PathVariable Long id,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(defaultValue = "ndjson") String format) throws ResourceNotFoundException {
+        LOGGER.info("Received request to export the statement of account {} from {} to {}", id, from, to);
+        if (to.isBefore(from)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "The statement must not end before it starts");
+        }
+        DataFormat dataFormat;
+        try {
+            dataFormat = DataFormat.fromName(format);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+        accountService.getAccountById(id);
+        String filename = "statement-" + id + "-" + from + "-" + to + "." + dataFormat.name().toLowerCase(Locale.ROOT);
+        StreamingResponseBody body = output -> statementService.writeStatement(id, from, to, dataFormat, output);
+        ContentDisposition disposition = ContentDisposition.attachment().filename(filename).build();
+        return ResponseEntity.ok().contentType(dataFormat.getMediaType())
+                .header(HttpHeaders.CONTENT_DISPOSITION, disposition.toString()).body(body);
+    }
+}
@@ -0,0 +1,39 @@
+package com.maybank.bankapp.crypto;
+
+import javax.persistence.AttributeConverter;
+import javax.persistence.Converter;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+/**
+ * EncryptedStringConverter stores String attributes encrypted with the {@link FieldEncryptor}.
+ * Apply it to a column with {@code @Convert(converter = EncryptedStringConverter.class)}. The
+ * column holds Base64 text, so encrypted columns cannot be searched or sorted by value.
+ */
+@Component
+@Converter
+public class EncryptedStringConverter implements AttributeConverter<String, String> {
+
+    private final FieldEncryptor fieldEncryptor;
+
+    /**
+     * Constructs a new EncryptedStringConverter.
+     *
+     * @param fieldEncryptor The encryptor used for the column values.
+     */
+    @Autowired
+    public EncryptedStringConverter(FieldEncryptor fieldEncryptor) {
+        this.fieldEncryptor = fieldEncryptor;
+    }
+
+    @Override
+    public String convertToDatabaseColumn(String attribute) {
+        return fieldEncryptor.encrypt(attribute);
+    }
+
+    @Override
+    public String convertToEntityAttribute(String dbData) {
+        return fieldEncryptor.decrypt(dbData);
+    }
+}
@@ -0,0 +1,184 @@
+package com.maybank.bankapp.crypto;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.security.GeneralSecurityException;
+import java.security.KeyStore;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.Map;
+
+import javax.crypto.KeyGenerator;
+import javax.crypto.SecretKey;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.maybank.bankapp.util.EncryptionUtils;
+
+/**
+ * FieldEncryptor encrypts individual column values with AES-GCM.
+ * <p>
+ * The AES keys are loaded once from a PKCS12 keystore. New values are encrypted with the key of
+ * the configured alias, and the alias is stored with every value, so values written with an older
+ * key can still be read after the active key is rotated. An encrypted value is the Base64 encoding
+ * of a format byte, the alias length and alias, the IV and the ciphertext with its tag.
+ */
+@Component
+public class FieldEncryptor {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(FieldEncryptor.class);
+
+    private static final byte FORMAT_VERSION = 1;
+
+    private static final int KEY_SIZE = 256;
+
+    private final Map<String, SecretKey> keys;
+
+    private final SecretKey activeKey;
+
+    private final byte[] activeHeader;
+
+    /**
+     * Constructs a new FieldEncryptor with the keys of a keystore.
+     *
+     * @param keystore        The path of the PKCS12 keystore.
+     * @param password        The password of the keystore and its keys.
+     * @param activeAlias     The alias of the key new values are encrypted with.
+     * @param createIfMissing Whether to create the keystore with a new key if it does not exist.
+     */
+    @Autowired
+    public FieldEncryptor(@Value("${bank.encryption.keystore:data/keystore.p12}") String keystore,
+            @Value("${bank.encryption.keystore-password:changeit}") String password,
+            @Value("${bank.encryption.key-alias:field-key-1}") String activeAlias,
+            @Value("${bank.encryption.create-if-missing:true}") boolean createIfMissing) {
+        this(loadKeys(Paths.get(keystore), password.toCharArray(), activeAlias, createIfMissing), activeAlias);
+    }
+
+    /**
+     * Constructs a new FieldEncryptor with the given keys.
+     *
+     * @param keys        The keys by alias.
+     * @param activeAlias The alias of the key new values are encrypted with.
+     */
+    public FieldEncryptor(Map<String, SecretKey> keys, String activeAlias) {
+        byte[] alias = activeAlias.getBytes(StandardCharsets.UTF_8);
+        if (!keys.containsKey(activeAlias)) {
+            throw new IllegalStateException("No encryption key with alias " + activeAlias);
+        }
+        if (alias.length > 255) {
+            throw new IllegalStateException("Encryption key alias is too long: " + activeAlias);
+        }
+        this.keys = Collections.unmodifiableMap(new HashMap<>(keys));
+        this.activeKey = keys.get(activeAlias);
+        this.activeHeader = new byte[2 + alias.length];
+        this.activeHeader[0] = FORMAT_VERSION;
+        this.activeHeader[1] = (byte) alias.length;
+        System.arraycopy(alias, 0, this.activeHeader, 2, alias.length);
+    }
+
+    /**
+     * Encrypts a value with the active key.
+     *
+     * @param plaintext The value to encrypt, may be null.
+     * @return The encrypted value, or null if the value is null.
+     */
+    public String encrypt(String plaintext) {
+        if (plaintext == null) {
+            return null;
+        }
+        try {
+            byte[] encrypted = EncryptionUtils.encrypt(plaintext.getBytes(StandardCharsets.UTF_8), activeKey,
+                    activeHeader.length);
+            System.arraycopy(activeHeader, 0, encrypted, 0, activeHeader.length);
+            return Base64.getEncoder().encodeToString(encrypted);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Could not encrypt value", e);
+        }
+    }
+
+    /**
+     * Decrypts a value produced by {@link #encrypt(String)}.
+     *
+     * @param encrypted The encrypted value, may be null.
+     * @return The decrypted value, or null if the value is null.
+     * @throws IllegalStateException if the value is malformed, was tampered with or its key is unknown.
+     */
+    public String decrypt(String encrypted) {
+        if (encrypted == null) {
+            return null;
+        }
+        byte[] data;
+        try {
+            data = Base64.getDecoder().decode(encrypted);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalStateException("Encrypted value is not valid Base64", e);
+        }
+        if (data.length < 2 || data[0] != FORMAT_VERSION || data.length < 2 + (data[1] & 0xff)) {
+            throw new IllegalStateException("Encrypted value has an unknown format");
+        }
+        int aliasLength = data[1] & 0xff;
+        String alias = new String(data, 2, aliasLength, StandardCharsets.UTF_8);
+        SecretKey key = keys.get(alias);
+        if (key == null) {
+            throw new IllegalStateException("No encryption key with alias " + alias);
+        }
+        try {
+            return new String(EncryptionUtils.decrypt(data, 2 + aliasLength, key), StandardCharsets.UTF_8);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Could not decrypt value with key " + alias, e);
+        }
+    }
+
+    private static Map<String, SecretKey> loadKeys(Path path, char[] password, String activeAlias,
+            boolean createIfMissing) {
+        try {
+            KeyStore keyStore = KeyStore.getInstance("PKCS12");
+            if (Files.exists(path)) {
+                try (InputStream in = Files.newInputStream(path)) {
+                    keyStore.load(in, password);
+                }
+            } else if (createIfMissing) {
+                keyStore.load(null, password);
+                KeyGenerator generator = KeyGenerator.getInstance("AES");
+                generator.init(KEY_SIZE);
+                keyStore.setEntry(activeAlias, new KeyStore.SecretKeyEntry(generator.generateKey()),
+                        new KeyStore.PasswordProtection(password));
+                if (path.toAbsolutePath().getParent() != null) {
+                    Files.createDirectories(path.toAbsolutePath().getParent());
+                }
+                try (OutputStream out = Files.newOutputStream(path)) {
+                    keyStore.store(out, password);
+                }
+                LOGGER.warn("Created encryption keystore {} with a new key {}", path, activeAlias);
+            } else {
+                throw new IllegalStateException("Encryption keystore not found: " + path);
+            }
+            Map<String, SecretKey> keys = new HashMap<>();
+            Enumeration<String> aliases = keyStore.aliases();
+            while (aliases.hasMoreElements()) {
+                String alias = aliases.nextElement();
+                if (keyStore.entryInstanceOf(alias, KeyStore.SecretKeyEntry.class)) {
+                    keys.put(alias, (SecretKey) keyStore.getKey(alias, password));
+                }
+            }
+            LOGGER.info("Loaded {} encryption keys from {}", keys.size(), path);
+            return keys;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not read encryption keystore " + path, e);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Could not load encryption keystore " + path, e);
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package com.maybank.bankapp.datasource;
+
+import java.io.IOException;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.task.TaskDecorator;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+/**
+ * ReadYourWritesFilter sends every read of a request with the {@value #HEADER}: true header to the
+ * primary, so a client sees its own writes even while the replica lags behind.
+ * <p>
+ * As a {@link TaskDecorator} it carries the setting over to the
+ * {@link com.maybank.bankapp.executor.DatabaseExecutor} threads that run the request's queries.
+ */
+@Component
+@ConditionalOnProperty(prefix = "bank.datasource.replica", name = "url")
+public class ReadYourWritesFilter extends OncePerRequestFilter implements TaskDecorator {
+
+    /**
+     * Name of the request header that asks for reads from the primary.
+     */
+    public static final String HEADER = "Read-Your-Writes";
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        boolean previous = ReplicaRoutingDataSource.setReadYourWrites(Boolean.parseBoolean(request.getHeader(HEADER)));
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            ReplicaRoutingDataSource.setReadYourWrites(previous);
+        }
+    }
+
+    /**
+     * Binds the read-your-writes setting of the submitting thread to the thread that runs the task.
+     */
+    @Override
+    public Runnable decorate(Runnable task) {
+        boolean readYourWrites = ReplicaRoutingDataSource.isReadYourWrites();
+        if (!readYourWrites) {
+            return task;
+        }
+        return () -> {
+            boolean previous = ReplicaRoutingDataSource.setReadYourWrites(true);
+            try {
+                task.run();
+            } finally {
+                ReplicaRoutingDataSource.setReadYourWrites(previous);
+            }
+        };
+    }
+}
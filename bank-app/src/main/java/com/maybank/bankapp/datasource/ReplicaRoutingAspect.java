@@ -0,0 +1,38 @@
+package com.maybank.bankapp.datasource;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * ReplicaRoutingAspect lets the service methods annotated with
+ * {@code @Transactional(readOnly = true)} read from the replica.
+ * <p>
+ * Replica reads are only allowed when the method starts the transaction. A read-only method
+ * called from within a write transaction joins that transaction and stays on the primary. The
+ * aspect runs before the transaction interceptor so it can tell the two apart.
+ */
+@Aspect
+@Component
+@Order(0)
+@ConditionalOnProperty(prefix = "bank.datasource.replica", name = "url")
+public class ReplicaRoutingAspect {
+
+    @Around("within(com.maybank.bankapp.service..*) && @annotation(transactional)")
+    public Object route(ProceedingJoinPoint joinPoint, Transactional transactional) throws Throwable {
+        if (!transactional.readOnly() || TransactionSynchronizationManager.isActualTransactionActive()) {
+            return joinPoint.proceed();
+        }
+        boolean previous = ReplicaRoutingDataSource.setReplicaReads(true);
+        try {
+            return joinPoint.proceed();
+        } finally {
+            ReplicaRoutingDataSource.setReplicaReads(previous);
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package com.maybank.bankapp.datasource;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import javax.sql.DataSource;
+
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * ReplicaRoutingDataSource sends the queries of read-only service transactions to a replica and
+ * everything else to the primary.
+ * <p>
+ * A connection goes to the replica only if the current transaction is read-only, the transaction
+ * was started by a service method that allows replica reads (see {@link ReplicaRoutingAspect}),
+ * and the current request has not asked to read its own writes. Reads made by repositories on
+ * their own, such as the account lookups of the balance engine, always see the primary.
+ * <p>
+ * The routing data source must be wrapped in a {@link LazyConnectionDataSourceProxy}, which
+ * {@link #create} does: the transaction manager asks for a connection before the read-only flag of
+ * the transaction is set, and the proxy defers the choice until the first statement.
+ */
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource {
+
+    /**
+     * The data source a connection is taken from.
+     */
+    public enum Route {
+
+        PRIMARY,
+
+        REPLICA
+    }
+
+    private static final ThreadLocal<Boolean> REPLICA_READS = ThreadLocal.withInitial(() -> Boolean.FALSE);
+
+    private static final ThreadLocal<Boolean> READ_YOUR_WRITES = ThreadLocal.withInitial(() -> Boolean.FALSE);
+
+    /**
+     * Creates a data source routing between a primary and a replica.
+     *
+     * @param primary The data source of the primary, which takes all writes.
+     * @param replica The data source of the replica.
+     * @return The routing data source, wrapped in a {@link LazyConnectionDataSourceProxy}.
+     */
+    public static DataSource create(DataSource primary, DataSource replica) {
+        ReplicaRoutingDataSource routing = new ReplicaRoutingDataSource();
+        Map<Object, Object> targets = new HashMap<>();
+        targets.put(Route.PRIMARY, primary);
+        targets.put(Route.REPLICA, replica);
+        routing.setTargetDataSources(targets);
+        routing.setDefaultTargetDataSource(primary);
+        routing.afterPropertiesSet();
+        return new LazyConnectionDataSourceProxy(routing);
+    }
+
+    /**
+     * Allows or forbids replica reads for the transactions started on the current thread.
+     *
+     * @param allowed Whether read-only transactions may read from the replica.
+     * @return The previous setting, to be restored afterwards.
+     */
+    public static boolean setReplicaReads(boolean allowed) {
+        boolean previous = REPLICA_READS.get();
+        REPLICA_READS.set(allowed);
+        return previous;
+    }
+
+    /**
+     * Makes the reads of the current thread go to the primary, so they see the writes the client
+     * has just made.
+     *
+     * @param enabled Whether the current thread reads its own writes.
+     * @return The previous setting, to be restored afterwards.
+     */
+    public static boolean setReadYourWrites(boolean enabled) {
+        boolean previous = READ_YOUR_WRITES.get();
+        READ_YOUR_WRITES.set(enabled);
+        return previous;
+    }
+
+    /**
+     * Indicates whether the current thread reads its own writes.
+     *
+     * @return true if all reads of the current thread go to the primary.
+     */
+    public static boolean isReadYourWrites() {
+        return READ_YOUR_WRITES.get();
+    }
+
+    /**
+     * Returns the route a connection taken now would follow.
+     *
+     * @return The route of the current thread.
+     */
+    public static Route currentRoute() {
+        return REPLICA_READS.get() && !READ_YOUR_WRITES.get()
+                && TransactionSynchronizationManager.isCurrentTransactionReadOnly() ? Route.REPLICA : Route.PRIMARY;
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        return currentRoute();
+    }
+}
@@ -0,0 +1,65 @@
+package com.maybank.bankapp.datasource;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.sql.DataSource;
+
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+/**
+ * ShardRoutingDataSource takes connections from the shard selected on the current thread by a
+ * {@link Shards.Scope}, or from shard 0 when none is selected.
+ * <p>
+ * Like {@link ReplicaRoutingDataSource} it is wrapped in a {@link LazyConnectionDataSourceProxy},
+ * so a transaction takes its connection when it runs its first statement and stays on that shard
+ * until it ends. The shard therefore has to be selected before the first statement, not
+ * necessarily before the transaction starts.
+ */
+public class ShardRoutingDataSource extends AbstractRoutingDataSource {
+
+    private static final ThreadLocal<Integer> CURRENT_SHARD = ThreadLocal.withInitial(() -> 0);
+
+    /**
+     * Creates a data source routing between shards.
+     *
+     * @param shards The data sources of the shards, in shard order.
+     * @return The routing data source, wrapped in a {@link LazyConnectionDataSourceProxy}.
+     */
+    public static DataSource create(List<? extends DataSource> shards) {
+        ShardRoutingDataSource routing = new ShardRoutingDataSource();
+        Map<Object, Object> targets = new HashMap<>();
+        for (int i = 0; i < shards.size(); i++) {
+            targets.put(i, shards.get(i));
+        }
+        routing.setTargetDataSources(targets);
+        routing.setDefaultTargetDataSource(shards.get(0));
+        routing.afterPropertiesSet();
+        return new LazyConnectionDataSourceProxy(routing);
+    }
+
+    /**
+     * Returns the shard selected on the current thread.
+     *
+     * @return The index of the shard.
+     */
+    static int currentShard() {
+        return CURRENT_SHARD.get();
+    }
+
+    /**
+     * Selects the shard of the current thread.
+     *
+     * @param shard The index of the shard.
+     */
+    static void setCurrentShard(int shard) {
+        CURRENT_SHARD.set(shard);
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        return CURRENT_SHARD.get();
+    }
+}
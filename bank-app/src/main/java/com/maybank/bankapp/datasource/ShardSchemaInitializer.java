@@ -0,0 +1,85 @@
+package com.maybank.bankapp.datasource;
+
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.Map;
+
+import org.hibernate.boot.Metadata;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.integrator.spi.Integrator;
+import org.hibernate.jpa.boot.spi.IntegratorProvider;
+import org.hibernate.service.spi.SessionFactoryServiceRegistry;
+import org.hibernate.tool.hbm2ddl.SchemaExport;
+import org.hibernate.tool.hbm2ddl.SchemaUpdate;
+import org.hibernate.tool.schema.TargetType;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.stereotype.Component;
+
+/**
+ * ShardSchemaInitializer gives every shard the schema Hibernate creates on shard 0.
+ * <p>
+ * Hibernate only manages the schema of the database its connections come from when the session
+ * factory is built, which is shard 0. This integrator runs the same spring.jpa.hibernate.ddl-auto
+ * action (create, create-drop or update) on the other shards; with none or validate the shards
+ * must already have the schema.
+ */
+@Component
+@ConditionalOnProperty(prefix = "bank.sharding", name = "shard-urls")
+public class ShardSchemaInitializer implements HibernatePropertiesCustomizer, Integrator {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ShardSchemaInitializer.class);
+
+    private static final String DDL_AUTO = "hibernate.hbm2ddl.auto";
+
+    private final Shards shards;
+
+    private String ddlAuto;
+
+    /**
+     * Constructs a new ShardSchemaInitializer.
+     *
+     * @param shards The shards to create the schema on.
+     */
+    public ShardSchemaInitializer(Shards shards) {
+        this.shards = shards;
+    }
+
+    @Override
+    public void customize(Map<String, Object> hibernateProperties) {
+        Object value = hibernateProperties.get(DDL_AUTO);
+        ddlAuto = value == null ? "none" : value.toString();
+        hibernateProperties.put("hibernate.integrator_provider",
+                (IntegratorProvider) () -> Collections.singletonList(this));
+    }
+
+    @Override
+    public void integrate(Metadata metadata, SessionFactoryImplementor sessionFactory,
+            SessionFactoryServiceRegistry serviceRegistry) {
+        for (int shard = 1; shard < shards.count(); shard++) {
+            try (Shards.Scope scope = shards.forShard(shard)) {
+                switch (ddlAuto) {
+                case "create":
+                case "create-drop":
+                    LOGGER.info("Creating the schema of shard {}", shard);
+                    new SchemaExport().execute(EnumSet.of(TargetType.DATABASE), SchemaExport.Action.BOTH, metadata,
+                            serviceRegistry);
+                    break;
+                case "update":
+                    LOGGER.info("Updating the schema of shard {}", shard);
+                    new SchemaUpdate().execute(EnumSet.of(TargetType.DATABASE), metadata, serviceRegistry);
+                    break;
+                default:
+                    return;
+                }
+            }
+        }
+    }
+
+    @Override
+    public void disintegrate(SessionFactoryImplementor sessionFactory, SessionFactoryServiceRegistry serviceRegistry) {
+        // The schema of the other shards is not dropped.
+    }
+}
@@ -0,0 +1,194 @@
+package com.maybank.bankapp.datasource;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import javax.annotation.PreDestroy;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+/**
+ * Shards places accounts on one of several databases and selects the database of the current
+ * thread.
+ * <p>
+ * An account lives on the shard given by a stable hash of its ID, so its balance, history and
+ * idempotency keys are always read and written on the same database. Shard 0 is
+ * spring.datasource; it also holds the tables that are not partitioned, such as the account number
+ * blocks, and is the source of the customers, which are copied to every shard. The other shards
+ * are listed in bank.sharding.shard-urls. With no other shards every method runs its work
+ * directly on the single database.
+ * <p>
+ * Queries that span shards use {@link #gather}, which runs the query on every shard in parallel
+ * and returns the results in shard order.
+ */
+@Component
+public class Shards {
+
+    private static final Scope NO_OP = () -> {
+    };
+
+    private final int count;
+
+    private final ExecutorService gatherExecutor;
+
+    /**
+     * Constructs a new Shards.
+     *
+     * @param shardUrls The JDBC URLs of the shards after shard 0.
+     */
+    @Autowired
+    public Shards(@Value("${bank.sharding.shard-urls:}") String[] shardUrls) {
+        int others = 0;
+        for (String url : shardUrls) {
+            if (StringUtils.hasText(url)) {
+                others++;
+            }
+        }
+        this.count = 1 + others;
+        if (count == 1) {
+            this.gatherExecutor = null;
+        } else {
+            AtomicInteger threads = new AtomicInteger();
+            this.gatherExecutor = Executors.newCachedThreadPool(r -> {
+                Thread thread = new Thread(r, "shard-gather-" + threads.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+
+    /**
+     * Selects the shard of the current thread until the scope is closed.
+     */
+    @FunctionalInterface
+    public interface Scope extends AutoCloseable {
+
+        /**
+         * Restores the shard selected before the scope was opened.
+         */
+        @Override
+        void close();
+    }
+
+    /**
+     * Returns the number of shards.
+     *
+     * @return The number of shards, at least 1.
+     */
+    public int count() {
+        return count;
+    }
+
+    /**
+     * Returns the shard an account lives on.
+     *
+     * @param accountId The ID of the account.
+     * @return The index of the shard.
+     */
+    public int shardOf(long accountId) {
+        return shardOf(accountId, count);
+    }
+
+    /**
+     * Hashes a key to a shard. The hash only depends on the key and the number of shards, so it
+     * stays the same across restarts and instances.
+     *
+     * @param key    The key.
+     * @param shards The number of shards.
+     * @return The index of the shard.
+     */
+    static int shardOf(long key, int shards) {
+        long hash = key * 0x9E3779B97F4A7C15L;
+        return (int) ((hash >>> 33) % shards);
+    }
+
+    /**
+     * Selects the shard of an account for the current thread.
+     *
+     * @param accountId The ID of the account.
+     * @return The scope to close when the work on the shard is done.
+     */
+    public Scope forAccount(long accountId) {
+        return count == 1 ? NO_OP : forShard(shardOf(accountId));
+    }
+
+    /**
+     * Selects a shard for the current thread.
+     *
+     * @param shard The index of the shard.
+     * @return The scope to close when the work on the shard is done.
+     */
+    public Scope forShard(int shard) {
+        if (count == 1) {
+            return NO_OP;
+        }
+        int previous = ShardRoutingDataSource.currentShard();
+        ShardRoutingDataSource.setCurrentShard(shard);
+        return () -> ShardRoutingDataSource.setCurrentShard(previous);
+    }
+
+    /**
+     * Runs a query on every shard, in parallel, and returns the results.
+     *
+     * @param <T>   The type of the result.
+     * @param query The query, which must not depend on a transaction of the calling thread.
+     * @return The result of every shard, in shard order.
+     */
+    public <T> List<T> gather(Supplier<T> query) {
+        if (count == 1) {
+            return Collections.singletonList(query.get());
+        }
+        List<Future<T>> futures = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            int shard = i;
+            futures.add(gatherExecutor.submit(() -> {
+                try (Scope scope = forShard(shard)) {
+                    return query.get();
+                }
+            }));
+        }
+        List<T> results = new ArrayList<>(count);
+        try {
+            for (Future<T> future : futures) {
+                results.add(future.get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while querying the shards", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new IllegalStateException(cause);
+        } finally {
+            for (Future<T> future : futures) {
+                future.cancel(true);
+            }
+        }
+        return results;
+    }
+
+    /**
+     * Stops the threads that query the shards.
+     */
+    @PreDestroy
+    public void shutdown() {
+        if (gatherExecutor != null) {
+            gatherExecutor.shutdownNow();
+        }
+    }
+}
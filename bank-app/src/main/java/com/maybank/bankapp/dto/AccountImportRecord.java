@@ -0,0 +1,60 @@
+package com.maybank.bankapp.dto;
+
+import com.maybank.bankapp.money.Money;
+
+import lombok.AllArgsConstructor;
+import lombok.NoArgsConstructor;
+
+/**
+ * An account to open for an imported customer.
+ */
+@NoArgsConstructor
+@AllArgsConstructor
+public class AccountImportRecord {
+
+    /**
+     * The type of the account.
+     */
+    private String type;
+
+    /**
+     * The opening balance of the account, or null for zero.
+     */
+    private Money balance;
+
+    /**
+     * Retrieves the type of the account.
+     *
+     * @return The type of the account.
+     */
+    public String getType() {
+        return type;
+    }
+
+    /**
+     * Sets the type of the account.
+     *
+     * @param type The type of the account.
+     */
+    public void setType(String type) {
+        this.type = type;
+    }
+
+    /**
+     * Retrieves the opening balance of the account.
+     *
+     * @return The opening balance, or null for zero.
+     */
+    public Money getBalance() {
+        return balance;
+    }
+
+    /**
+     * Sets the opening balance of the account.
+     *
+     * @param balance The opening balance.
+     */
+    public void setBalance(Money balance) {
+        this.balance = balance;
+    }
+}
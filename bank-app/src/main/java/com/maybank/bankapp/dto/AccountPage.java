@@ -0,0 +1,42 @@
+package com.maybank.bankapp.dto;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.NoArgsConstructor;
+
+/**
+ * One page of a customer's accounts, ordered by account ID.
+ */
+@NoArgsConstructor
+@AllArgsConstructor
+public class AccountPage {
+
+    /**
+     * The accounts of the page.
+     */
+    private List<AccountSummary> accounts;
+
+    /**
+     * The cursor to pass to fetch the next page, or null if this is the last page.
+     */
+    private Long nextCursor;
+
+    /**
+     * Retrieves the accounts of the page.
+     *
+     * @return The accounts, ordered by account ID.
+     */
+    public List<AccountSummary> getAccounts() {
+        return accounts;
+    }
+
+    /**
+     * Retrieves the cursor of the next page.
+     *
+     * @return The cursor to pass to fetch the next page, or null if this is the last page.
+     */
+    public Long getNextCursor() {
+        return nextCursor;
+    }
+}
@@ -0,0 +1,69 @@
+package com.maybank.bankapp.dto;
+
+import com.maybank.bankapp.money.Money;
+
+/**
+ * A read-only view of an account for listings. It is selected directly by the query, without
+ * loading the account entity or its customer.
+ */
+public class AccountSummary {
+
+    private final Long id;
+
+    private final String type;
+
+    private final Money balance;
+
+    private final String status;
+
+    /**
+     * Constructs a new AccountSummary.
+     *
+     * @param id      The unique identifier of the account.
+     * @param type    The type of the account.
+     * @param balance The current balance of the account, in minor units.
+     * @param status  The status of the account.
+     */
+    public AccountSummary(Long id, String type, long balance, String status) {
+        this.id = id;
+        this.type = type;
+        this.balance = Money.ofMinor(balance);
+        this.status = status;
+    }
+
+    /**
+     * Retrieves the unique identifier of the account.
+     *
+     * @return The unique identifier of the account.
+     */
+    public Long getId() {
+        return id;
+    }
+
+    /**
+     * Retrieves the type of the account.
+     *
+     * @return The type of the account.
+     */
+    public String getType() {
+        return type;
+    }
+
+    /**
+     * Retrieves the current balance of the account.
+     *
+     * @return The current balance of the account.
+     */
+    public Money getBalance() {
+        return balance;
+    }
+
+    /**
+     * Retrieves the status of the account.
+     *
+     * @return The status of the account.
+     */
+    public String getStatus() {
+        return status;
+    }
+}
@@ -0,0 +1,97 @@
+package com.maybank.bankapp.dto;
+
+import com.maybank.bankapp.entity.Account;
+import com.maybank.bankapp.entity.Customer;
+import com.maybank.bankapp.money.Money;
+
+/**
+ * The response body of a single account. It holds only the values that are returned, so the
+ * account entity, and its lazily loaded customer, are never serialized. The customer is passed in
+ * separately, usually from the customer cache.
+ */
+public class AccountView {
+
+    private final Long id;
+
+    private final String type;
+
+    private final Money balance;
+
+    private final String status;
+
+    private final Customer customer;
+
+    /**
+     * Constructs a new AccountView.
+     *
+     * @param id       The unique identifier of the account.
+     * @param type     The type of the account.
+     * @param balance  The current balance of the account, in minor units.
+     * @param status   The status of the account.
+     * @param customer The customer of the account, or null if unknown.
+     */
+    public AccountView(Long id, String type, long balance, String status, Customer customer) {
+        this.id = id;
+        this.type = type;
+        this.balance = Money.ofMinor(balance);
+        this.status = status;
+        this.customer = customer;
+    }
+
+    /**
+     * Creates the view of an account.
+     *
+     * @param account  The account.
+     * @param customer The customer of the account, or null if unknown.
+     * @return The view of the account.
+     */
+    public static AccountView of(Account account, Customer customer) {
+        return new AccountView(account.getId(), account.getType(), account.getBalanceMinor(), account.getStatus(),
+                customer);
+    }
+
+    /**
+     * Retrieves the unique identifier of the account.
+     *
+     * @return The unique identifier of the account.
+     */
+    public Long getId() {
+        return id;
+    }
+
+    /**
+     * Retrieves the type of the account.
+     *
+     * @return The type of the account.
+     */
+    public String getType() {
+        return type;
+    }
+
+    /**
+     * Retrieves the current balance of the account.
+     *
+     * @return The current balance of the account.
+     */
+    public Money getBalance() {
+        return balance;
+    }
+
+    /**
+     * Retrieves the status of the account.
+     *
+     * @return The status of the account.
+     */
+    public String getStatus() {
+        return status;
+    }
+
+    /**
+     * Retrieves the customer of the account.
+     *
+     * @return The customer of the account, or null if unknown.
+     */
+    public Customer getCustomer() {
+        return customer;
+    }
+}
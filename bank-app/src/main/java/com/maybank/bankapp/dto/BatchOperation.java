@@ -0,0 +1,83 @@
+package com.maybank.bankapp.dto;
+
+import com.maybank.bankapp.money.Money;
+
+import lombok.AllArgsConstructor;
+import lombok.NoArgsConstructor;
+
+/**
+ * A single deposit or withdrawal submitted as part of a batch.
+ */
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchOperation {
+
+    /**
+     * The ID of the account the operation applies to.
+     */
+    private Long accountId;
+
+    /**
+     * The kind of operation.
+     */
+    private OperationType op;
+
+    /**
+     * The amount to deposit or withdraw.
+     */
+    private Money amount;
+
+    /**
+     * Retrieves the ID of the account the operation applies to.
+     *
+     * @return The ID of the account.
+     */
+    public Long getAccountId() {
+        return accountId;
+    }
+
+    /**
+     * Sets the ID of the account the operation applies to.
+     *
+     * @param accountId The ID of the account.
+     */
+    public void setAccountId(Long accountId) {
+        this.accountId = accountId;
+    }
+
+    /**
+     * Retrieves the kind of operation.
+     *
+     * @return The kind of operation.
+     */
+    public OperationType getOp() {
+        return op;
+    }
+
+    /**
+     * Sets the kind of operation.
+     *
+     * @param op The kind of operation.
+     */
+    public void setOp(OperationType op) {
+        this.op = op;
+    }
+
+    /**
+     * Retrieves the amount to deposit or withdraw.
+     *
+     * @return The amount.
+     */
+    public Money getAmount() {
+        return amount;
+    }
+
+    /**
+     * Sets the amount to deposit or withdraw.
+     *
+     * @param amount The amount.
+     */
+    public void setAmount(Money amount) {
+        this.amount = amount;
+    }
+}
@@ -0,0 +1,106 @@
+package com.maybank.bankapp.dto;
+
+import com.maybank.bankapp.money.Money;
+
+import lombok.AllArgsConstructor;
+import lombok.NoArgsConstructor;
+
+/**
+ * The outcome of a single operation of a batch.
+ */
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchOperationResult {
+
+    /**
+     * The ID of the account the operation applied to.
+     */
+    private Long accountId;
+
+    /**
+     * The kind of operation.
+     */
+    private OperationType op;
+
+    /**
+     * Whether the operation was applied.
+     */
+    private boolean success;
+
+    /**
+     * The balance of the account after the operation, or null if it failed.
+     */
+    private Money balance;
+
+    /**
+     * The reason the operation failed, or null if it was applied.
+     */
+    private String errorMessage;
+
+    /**
+     * Creates the result of an operation that was applied.
+     *
+     * @param operation The operation.
+     * @param balance   The balance of the account after the operation.
+     * @return The result.
+     */
+    public static BatchOperationResult applied(BatchOperation operation, Money balance) {
+        return new BatchOperationResult(operation.getAccountId(), operation.getOp(), true, balance, null);
+    }
+
+    /**
+     * Creates the result of an operation that was rejected.
+     *
+     * @param operation    The operation.
+     * @param errorMessage The reason the operation was rejected.
+     * @return The result.
+     */
+    public static BatchOperationResult rejected(BatchOperation operation, String errorMessage) {
+        return new BatchOperationResult(operation.getAccountId(), operation.getOp(), false, null, errorMessage);
+    }
+
+    /**
+     * Retrieves the ID of the account the operation applied to.
+     *
+     * @return The ID of the account.
+     */
+    public Long getAccountId() {
+        return accountId;
+    }
+
+    /**
+     * Retrieves the kind of operation.
+     *
+     * @return The kind of operation.
+     */
+    public OperationType getOp() {
+        return op;
+    }
+
+    /**
+     * Retrieves whether the operation was applied.
+     *
+     * @return true if the operation was applied.
+     */
+    public boolean isSuccess() {
+        return success;
+    }
+
+    /**
+     * Retrieves the balance of the account after the operation.
+     *
+     * @return The balance, or null if the operation failed.
+     */
+    public Money getBalance() {
+        return balance;
+    }
+
+    /**
+     * Retrieves the reason the operation failed.
+     *
+     * @return The error message, or null if the operation was applied.
+     */
+    public String getErrorMessage() {
+        return errorMessage;
+    }
+}
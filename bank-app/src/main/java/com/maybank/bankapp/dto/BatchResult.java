@@ -0,0 +1,44 @@
+package com.maybank.bankapp.dto;
+
+import java.util.List;
+
+import com.maybank.bankapp.entity.Account;
+
+import lombok.AllArgsConstructor;
+import lombok.NoArgsConstructor;
+
+/**
+ * The outcome of a batch of deposits and withdrawals.
+ */
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchResult {
+
+    /**
+     * The result of each operation, in the same order as the operations.
+     */
+    private List<BatchOperationResult> results;
+
+    /**
+     * The accounts changed by the batch, after the batch, with the versions they were committed with.
+     */
+    private List<Account> accounts;
+
+    /**
+     * Retrieves the result of each operation.
+     *
+     * @return The results, in the same order as the operations.
+     */
+    public List<BatchOperationResult> getResults() {
+        return results;
+    }
+
+    /**
+     * Retrieves the accounts changed by the batch.
+     *
+     * @return The changed accounts after the batch.
+     */
+    public List<Account> getAccounts() {
+        return accounts;
+    }
+}
@@ -0,0 +1,60 @@
+package com.maybank.bankapp.dto;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.NoArgsConstructor;
+
+/**
+ * A customer to import, together with the accounts to open for it.
+ */
+@NoArgsConstructor
+@AllArgsConstructor
+public class CustomerImportRecord {
+
+    /**
+     * The name of the customer.
+     */
+    private String name;
+
+    /**
+     * The accounts to open for the customer, or null if there are none.
+     */
+    private List<AccountImportRecord> accounts;
+
+    /**
+     * Retrieves the name of the customer.
+     *
+     * @return The name of the customer.
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Sets the name of the customer.
+     *
+     * @param name The name of the customer.
+     */
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    /**
+     * Retrieves the accounts to open for the customer.
+     *
+     * @return The accounts, or null if there are none.
+     */
+    public List<AccountImportRecord> getAccounts() {
+        return accounts;
+    }
+
+    /**
+     * Sets the accounts to open for the customer.
+     *
+     * @param accounts The accounts.
+     */
+    public void setAccounts(List<AccountImportRecord> accounts) {
+        this.accounts = accounts;
+    }
+}
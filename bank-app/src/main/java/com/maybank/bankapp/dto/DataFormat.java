@@ -0,0 +1,71 @@
+package com.maybank.bankapp.dto;
+
+import org.springframework.http.MediaType;
+
+/**
+ * The line-oriented formats used to import and export records in bulk.
+ */
+public enum DataFormat {
+
+    /**
+     * One JSON object per line.
+     */
+    NDJSON,
+
+    /**
+     * Comma-separated values with a header line naming the columns.
+     */
+    CSV;
+
+    /**
+     * Media type of newline-delimited JSON.
+     */
+    public static final String NDJSON_VALUE = "application/x-ndjson";
+
+    /**
+     * Media type of comma-separated values.
+     */
+    public static final String CSV_VALUE = "text/csv";
+
+    /**
+     * Retrieves the media type of the format.
+     *
+     * @return The media type.
+     */
+    public MediaType getMediaType() {
+        return MediaType.parseMediaType(this == NDJSON ? NDJSON_VALUE : CSV_VALUE);
+    }
+
+    /**
+     * Determines a format from a content type.
+     *
+     * @param contentType The content type.
+     * @return The format.
+     * @throws IllegalArgumentException if the content type is not a supported format.
+     */
+    public static DataFormat fromContentType(String contentType) {
+        MediaType mediaType = MediaType.parseMediaType(contentType);
+        for (DataFormat format : values()) {
+            if (mediaType.isCompatibleWith(format.getMediaType())) {
+                return format;
+            }
+        }
+        throw new IllegalArgumentException("Unsupported format: " + contentType);
+    }
+
+    /**
+     * Determines a format from its name, ignoring case.
+     *
+     * @param name The name of the format, e.g. "csv".
+     * @return The format.
+     * @throws IllegalArgumentException if the name is not a supported format.
+     */
+    public static DataFormat fromName(String name) {
+        for (DataFormat format : values()) {
+            if (format.name().equalsIgnoreCase(name.trim())) {
+                return format;
+            }
+        }
+        throw new IllegalArgumentException("Unsupported format: " + name);
+    }
+}
@@ -0,0 +1,89 @@
+package com.maybank.bankapp.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The outcome of a customer import. Only the first rejected rows are listed; the rejected count
+ * always covers all of them.
+ */
+public class ImportSummary {
+
+    private final int maxRejectedRows;
+
+    private long customersImported;
+
+    private long accountsImported;
+
+    private long rejected;
+
+    private final List<RejectedRow> rejectedRows = new ArrayList<>();
+
+    /**
+     * Constructs a new ImportSummary.
+     *
+     * @param maxRejectedRows The maximum number of rejected rows to list.
+     */
+    public ImportSummary(int maxRejectedRows) {
+        this.maxRejectedRows = maxRejectedRows;
+    }
+
+    /**
+     * Records a customer that was imported.
+     *
+     * @param accounts The number of accounts opened for the customer.
+     */
+    public void imported(int accounts) {
+        customersImported++;
+        accountsImported += accounts;
+    }
+
+    /**
+     * Records a row that was rejected.
+     *
+     * @param line   The line number of the row.
+     * @param reason The reason the row was rejected.
+     */
+    public void rejected(long line, String reason) {
+        rejected++;
+        if (rejectedRows.size() < maxRejectedRows) {
+            rejectedRows.add(new RejectedRow(line, reason));
+        }
+    }
+
+    /**
+     * Retrieves the number of customers imported.
+     *
+     * @return The number of customers imported.
+     */
+    public long getCustomersImported() {
+        return customersImported;
+    }
+
+    /**
+     * Retrieves the number of accounts opened for the imported customers.
+     *
+     * @return The number of accounts imported.
+     */
+    public long getAccountsImported() {
+        return accountsImported;
+    }
+
+    /**
+     * Retrieves the number of rows rejected.
+     *
+     * @return The number of rows rejected.
+     */
+    public long getRejected() {
+        return rejected;
+    }
+
+    /**
+     * Retrieves the first rejected rows.
+     *
+     * @return The rejected rows, in upload order.
+     */
+    public List<RejectedRow> getRejectedRows() {
+        return rejectedRows;
+    }
+}
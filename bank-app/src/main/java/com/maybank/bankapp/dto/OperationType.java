@@ -0,0 +1,17 @@
+package com.maybank.bankapp.dto;
+
+/**
+ * The kinds of balance operations, as submitted in a batch and recorded in the account history.
+ */
+public enum OperationType {
+
+    /**
+     * Credits the amount to the account.
+     */
+    DEPOSIT,
+
+    /**
+     * Debits the amount from the account.
+     */
+    WITHDRAW
+}
@@ -0,0 +1,40 @@
+package com.maybank.bankapp.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.NoArgsConstructor;
+
+/**
+ * A line of an import that was not imported.
+ */
+@NoArgsConstructor
+@AllArgsConstructor
+public class RejectedRow {
+
+    /**
+     * The line number of the row in the upload, starting at 1.
+     */
+    private long line;
+
+    /**
+     * The reason the row was rejected.
+     */
+    private String reason;
+
+    /**
+     * Retrieves the line number of the row in the upload.
+     *
+     * @return The line number, starting at 1.
+     */
+    public long getLine() {
+        return line;
+    }
+
+    /**
+     * Retrieves the reason the row was rejected.
+     *
+     * @return The reason.
+     */
+    public String getReason() {
+        return reason;
+    }
+}
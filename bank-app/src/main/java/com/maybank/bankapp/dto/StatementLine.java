@@ -0,0 +1,84 @@
+package com.maybank.bankapp.dto;
+
+import java.time.Instant;
+
+import com.maybank.bankapp.money.Money;
+
+/**
+ * One line of an account statement. It is selected directly by the query, so statement lines are
+ * never managed by the persistence context.
+ */
+public class StatementLine {
+
+    private final Long id;
+
+    private final Instant time;
+
+    private final OperationType type;
+
+    private final Money amount;
+
+    private final Money balance;
+
+    /**
+     * Constructs a new StatementLine.
+     *
+     * @param id      The unique identifier of the transaction.
+     * @param time    The time of the transaction.
+     * @param type    The kind of transaction.
+     * @param amount  The amount of the transaction, in minor units.
+     * @param balance The balance after the transaction, in minor units.
+     */
+    public StatementLine(Long id, Instant time, OperationType type, long amount, long balance) {
+        this.id = id;
+        this.time = time;
+        this.type = type;
+        this.amount = Money.ofMinor(amount);
+        this.balance = Money.ofMinor(balance);
+    }
+
+    /**
+     * Retrieves the unique identifier of the transaction.
+     *
+     * @return The unique identifier of the transaction.
+     */
+    public Long getId() {
+        return id;
+    }
+
+    /**
+     * Retrieves the time of the transaction.
+     *
+     * @return The time of the transaction.
+     */
+    public Instant getTime() {
+        return time;
+    }
+
+    /**
+     * Retrieves the kind of transaction.
+     *
+     * @return The kind of transaction.
+     */
+    public OperationType getType() {
+        return type;
+    }
+
+    /**
+     * Retrieves the amount of the transaction.
+     *
+     * @return The amount.
+     */
+    public Money getAmount() {
+        return amount;
+    }
+
+    /**
+     * Retrieves the balance of the account after the transaction.
+     *
+     * @return The balance.
+     */
+    public Money getBalance() {
+        return balance;
+    }
+}
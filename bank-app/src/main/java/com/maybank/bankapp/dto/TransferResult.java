@@ -0,0 +1,57 @@
+package com.maybank.bankapp.dto;
+
+import com.maybank.bankapp.entity.Account;
+import com.maybank.bankapp.money.Money;
+
+import lombok.AllArgsConstructor;
+import lombok.NoArgsConstructor;
+
+/**
+ * The outcome of a transfer between two accounts.
+ */
+@NoArgsConstructor
+@AllArgsConstructor
+public class TransferResult {
+
+    /**
+     * The account the amount was withdrawn from, after the transfer.
+     */
+    private Account fromAccount;
+
+    /**
+     * The account the amount was deposited into, after the transfer.
+     */
+    private Account toAccount;
+
+    /**
+     * The amount that was transferred.
+     */
+    private Money amount;
+
+    /**
+     * Retrieves the account the amount was withdrawn from.
+     *
+     * @return The source account after the transfer.
+     */
+    public Account getFromAccount() {
+        return fromAccount;
+    }
+
+    /**
+     * Retrieves the account the amount was deposited into.
+     *
+     * @return The destination account after the transfer.
+     */
+    public Account getToAccount() {
+        return toAccount;
+    }
+
+    /**
+     * Retrieves the amount that was transferred.
+     *
+     * @return The transferred amount.
+     */
+    public Money getAmount() {
+        return amount;
+    }
+}
@@ -0,0 +1,55 @@
+package com.maybank.bankapp.dto;
+
+import com.maybank.bankapp.money.Money;
+
+/**
+ * The response body of a transfer, with both accounts as {@link AccountView}s.
+ */
+public class TransferView {
+
+    private final AccountView fromAccount;
+
+    private final AccountView toAccount;
+
+    private final Money amount;
+
+    /**
+     * Constructs a new TransferView.
+     *
+     * @param fromAccount The account the amount was withdrawn from, after the transfer.
+     * @param toAccount   The account the amount was deposited into, after the transfer.
+     * @param amount      The amount that was transferred.
+     */
+    public TransferView(AccountView fromAccount, AccountView toAccount, Money amount) {
+        this.fromAccount = fromAccount;
+        this.toAccount = toAccount;
+        this.amount = amount;
+    }
+
+    /**
+     * Retrieves the account the amount was withdrawn from.
+     *
+     * @return The source account after the transfer.
+     */
+    public AccountView getFromAccount() {
+        return fromAccount;
+    }
+
+    /**
+     * Retrieves the account the amount was deposited into.
+     *
+     * @return The destination account after the transfer.
+     */
+    public AccountView getToAccount() {
+        return toAccount;
+    }
+
+    /**
+     * Retrieves the amount that was transferred.
+     *
+     * @return The transferred amount.
+     */
+    public Money getAmount() {
+        return amount;
+    }
+}
@@ -1,21 +1,49 @@
 package com.maybank.bankapp.entity;
 
+import javax.persistence.Column;
 import javax.persistence.Entity;
+import javax.persistence.FetchType;
 import javax.persistence.Id;
+import javax.persistence.Index;
 import javax.persistence.ManyToOne;
+import javax.persistence.PostLoad;
+import javax.persistence.PostPersist;
 import javax.persistence.Table;
+import javax.persistence.Transient;
+import javax.persistence.Version;
+
+import org.springframework.data.domain.Persistable;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.maybank.bankapp.money.Money;
 
-import lombok.AllArgsConstructor;
 import lombok.NoArgsConstructor;
 
 /**
  * Account entity represents a bank account.
+ * <p>
+ * The ID is assigned by the application, so the entity tracks whether it has been stored yet.
+ * This lets the repository persist a new account directly instead of merging it, which would
+ * first look the ID up in the database.
+ * <p>
+ * Every update increments the version, and an update made from an outdated version fails with an
+ * optimistic locking exception instead of overwriting the newer row.
+ * <p>
+ * The customer is loaded lazily, so reading an account does not join the customer table. The ID
+ * of the customer is also mapped as a read-only column and can be used without loading the
+ * customer. Accounts are returned to clients as {@link com.maybank.bankapp.dto.AccountView}s,
+ * never serialized directly.
  */
 @Entity
 @NoArgsConstructor
-@AllArgsConstructor
-@Table(name = "accounts")
-public class Account {
+@Table(name = "accounts", indexes = @Index(name = "idx_accounts_customer_id", columnList = "customer_id, id"))
+public class Account implements Persistable<Long> {
+
+    /**
+     * The version of a snapshot that does not match a stored row version, such as the state
+     * between two deposits committed together by a single UPDATE.
+     */
+    public static final long NO_VERSION = -1;
 
     /**
      * Unique identifier for the account.
@@ -29,9 +57,9 @@ public class Account {
     private String type;
 
     /**
-     * Current balance of the account.
+     * Current balance of the account, in minor units.
      */
-    private double balance;
+    private long balance;
 
     /**
      * Status of the account (e.g., Active, Closed).
@@ -41,9 +69,63 @@ public class Account {
     /**
      * Customer associated with the account.
      */
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     private Customer customer;
 
+    /**
+     * ID of the customer associated with the account, read from the same column as the customer.
+     */
+    @Column(name = "customer_id", insertable = false, updatable = false)
+    private Long customerId;
+
+    /**
+     * Version of the account, incremented by every update.
+     */
+    @Version
+    private long version;
+
+    /**
+     * Whether the account has not been stored in the database yet.
+     */
+    @Transient
+    private boolean isNew = true;
+
+    /**
+     * Constructs a new Account with all of its persistent fields.
+     *
+     * @param id       The unique identifier of the account.
+     * @param type     The type of the account.
+     * @param balance  The current balance of the account, in minor units.
+     * @param status   The status of the account.
+     * @param customer The customer associated with the account.
+     */
+    public Account(Long id, String type, long balance, String status, Customer customer) {
+        this.id = id;
+        this.type = type;
+        this.balance = balance;
+        this.status = status;
+        this.customer = customer;
+        this.customerId = customer == null ? null : customer.getId();
+    }
+
+    /**
+     * Constructs a snapshot of a stored account, as selected by a constructor projection. The
+     * snapshot refers to its customer by ID only.
+     *
+     * @param id         The unique identifier of the account.
+     * @param type       The type of the account.
+     * @param balance    The current balance of the account, in minor units.
+     * @param status     The status of the account.
+     * @param customerId The ID of the customer associated with the account.
+     * @param version    The version of the account.
+     */
+    public Account(Long id, String type, long balance, String status, Long customerId, long version) {
+        this(id, type, balance, status, null);
+        this.customerId = customerId;
+        this.version = version;
+        this.isNew = false;
+    }
+
     // Getters and Setters
 
     /**
@@ -51,6 +133,7 @@ public class Account {
      *
      * @return The unique identifier of the account.
      */
+    @Override
     public Long getId() {
         return id;
     }
@@ -87,8 +170,8 @@ public class Account {
      *
      * @return The current balance of the account.
      */
-    public double getBalance() {
-        return balance;
+    public Money getBalance() {
+        return Money.ofMinor(balance);
     }
 
     /**
@@ -96,7 +179,26 @@ public class Account {
      *
      * @param balance The current balance of the account.
      */
-    public void setBalance(double balance) {
+    public void setBalance(Money balance) {
+        this.balance = balance.getMinorUnits();
+    }
+
+    /**
+     * Retrieves the current balance of the account in minor units, without allocating.
+     *
+     * @return The current balance of the account, in minor units.
+     */
+    @JsonIgnore
+    public long getBalanceMinor() {
+        return balance;
+    }
+
+    /**
+     * Sets the current balance of the account in minor units.
+     *
+     * @param balance The current balance of the account, in minor units.
+     */
+    public void setBalanceMinor(long balance) {
         this.balance = balance;
     }
 
@@ -119,10 +221,12 @@ public class Account {
     }
 
     /**
-     * Retrieves the customer associated with the account.
+     * Retrieves the customer associated with the account. Outside the transaction that loaded the
+     * account, the customer may be an uninitialized proxy; use {@link #getCustomerId()} instead.
      *
      * @return The customer associated with the account.
      */
+    @JsonIgnore
     public Customer getCustomer() {
         return customer;
     }
@@ -134,5 +238,65 @@ public class Account {
      */
     public void setCustomer(Customer customer) {
         this.customer = customer;
+        this.customerId = customer == null ? null : customer.getId();
+    }
+
+    /**
+     * Retrieves the ID of the customer associated with the account, without loading the customer.
+     *
+     * @return The ID of the customer, or null if the account has no customer.
+     */
+    @JsonIgnore
+    public Long getCustomerId() {
+        return customerId;
+    }
+
+    /**
+     * Sets the ID of the customer reported for the account, for copies of an account that do not
+     * carry the customer itself. The customer association, not this ID, is what is stored.
+     *
+     * @param customerId The ID of the customer.
+     */
+    public void setCustomerId(Long customerId) {
+        this.customerId = customerId;
+    }
+
+    /**
+     * Retrieves the version of the account.
+     *
+     * @return The version of the account.
+     */
+    @JsonIgnore
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * Sets the version of the account.
+     *
+     * @param version The version of the account.
+     */
+    public void setVersion(long version) {
+        this.version = version;
+    }
+
+    /**
+     * Indicates whether the account has not been stored in the database yet.
+     *
+     * @return true if the account is new.
+     */
+    @Override
+    @JsonIgnore
+    public boolean isNew() {
+        return isNew;
+    }
+
+    /**
+     * Marks the account as stored once it has been persisted or loaded.
+     */
+    @PostLoad
+    @PostPersist
+    void markNotNew() {
+        this.isNew = false;
     }
 }
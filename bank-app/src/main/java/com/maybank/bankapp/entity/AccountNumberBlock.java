@@ -0,0 +1,57 @@
+package com.maybank.bankapp.entity;
+
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.Table;
+
+import lombok.AllArgsConstructor;
+import lombok.NoArgsConstructor;
+
+/**
+ * AccountNumberBlock records the next unreserved account number base of a number range.
+ * Generators reserve a block of bases at a time by advancing nextValue.
+ */
+@Entity
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name = "account_number_block")
+public class AccountNumberBlock {
+
+    /**
+     * Name of the number range.
+     */
+    @Id
+    private String name;
+
+    /**
+     * First base of the range that has not been reserved yet.
+     */
+    private long nextValue;
+
+    /**
+     * Retrieves the name of the number range.
+     *
+     * @return The name of the number range.
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Retrieves the first base that has not been reserved yet.
+     *
+     * @return The next unreserved base.
+     */
+    public long getNextValue() {
+        return nextValue;
+    }
+
+    /**
+     * Sets the first base that has not been reserved yet.
+     *
+     * @param nextValue The next unreserved base.
+     */
+    public void setNextValue(long nextValue) {
+        this.nextValue = nextValue;
+    }
+}
@@ -0,0 +1,141 @@
+package com.maybank.bankapp.entity;
+
+import java.time.Instant;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.EnumType;
+import javax.persistence.Enumerated;
+import javax.persistence.GeneratedValue;
+import javax.persistence.GenerationType;
+import javax.persistence.Id;
+import javax.persistence.Index;
+import javax.persistence.SequenceGenerator;
+import javax.persistence.Table;
+
+import com.maybank.bankapp.dto.OperationType;
+
+import lombok.NoArgsConstructor;
+
+/**
+ * AccountTransaction records one committed change to the balance of an account. Rows are only
+ * ever inserted; together they form the history that statements are produced from.
+ * <p>
+ * The account is referenced by its ID rather than an association, so writing and reading the
+ * history never loads the account.
+ */
+@Entity
+@NoArgsConstructor
+@Table(name = "account_transaction",
+        indexes = @Index(name = "idx_account_transaction_account_time", columnList = "account_id, created_at, id"))
+public class AccountTransaction {
+
+    /**
+     * Unique identifier for the transaction. Identifiers come from a pooled sequence so the
+     * inserts of a batch can be sent together.
+     */
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "account_transaction_seq")
+    @SequenceGenerator(name = "account_transaction_seq", sequenceName = "account_transaction_seq", allocationSize = 50)
+    private Long id;
+
+    /**
+     * ID of the account whose balance changed.
+     */
+    @Column(name = "account_id", nullable = false)
+    private Long accountId;
+
+    /**
+     * Kind of change.
+     */
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private OperationType type;
+
+    /**
+     * Amount of the change, in minor units.
+     */
+    private long amount;
+
+    /**
+     * Balance of the account after the change, in minor units.
+     */
+    private long balance;
+
+    /**
+     * Time the change was made.
+     */
+    @Column(name = "created_at", nullable = false)
+    private Instant createdAt;
+
+    /**
+     * Constructs a new AccountTransaction.
+     *
+     * @param accountId The ID of the account whose balance changed.
+     * @param type      The kind of change.
+     * @param amount    The amount of the change, in minor units.
+     * @param balance   The balance of the account after the change, in minor units.
+     * @param createdAt The time the change was made.
+     */
+    public AccountTransaction(Long accountId, OperationType type, long amount, long balance, Instant createdAt) {
+        this.accountId = accountId;
+        this.type = type;
+        this.amount = amount;
+        this.balance = balance;
+        this.createdAt = createdAt;
+    }
+
+    /**
+     * Retrieves the unique identifier of the transaction.
+     *
+     * @return The unique identifier of the transaction.
+     */
+    public Long getId() {
+        return id;
+    }
+
+    /**
+     * Retrieves the ID of the account whose balance changed.
+     *
+     * @return The ID of the account.
+     */
+    public Long getAccountId() {
+        return accountId;
+    }
+
+    /**
+     * Retrieves the kind of change.
+     *
+     * @return The kind of change.
+     */
+    public OperationType getType() {
+        return type;
+    }
+
+    /**
+     * Retrieves the amount of the change.
+     *
+     * @return The amount, in minor units.
+     */
+    public long getAmount() {
+        return amount;
+    }
+
+    /**
+     * Retrieves the balance of the account after the change.
+     *
+     * @return The balance, in minor units.
+     */
+    public long getBalance() {
+        return balance;
+    }
+
+    /**
+     * Retrieves the time the change was made.
+     *
+     * @return The time of the change.
+     */
+    public Instant getCreatedAt() {
+        return createdAt;
+    }
+}
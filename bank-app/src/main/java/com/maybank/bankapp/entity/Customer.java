@@ -1,12 +1,18 @@
 package com.maybank.bankapp.entity;
 
+import javax.persistence.Column;
+import javax.persistence.Convert;
 import javax.persistence.Entity;
 import javax.persistence.GeneratedValue;
 import javax.persistence.GenerationType;
 import javax.persistence.Id;
+import javax.persistence.SequenceGenerator;
 import javax.persistence.Table;
+import javax.persistence.Version;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.maybank.bankapp.crypto.EncryptedStringConverter;
 
-import lombok.AllArgsConstructor;
 import lombok.NoArgsConstructor;
 
 /**
@@ -14,22 +20,42 @@ import lombok.NoArgsConstructor;
  */
 @Entity
 @NoArgsConstructor
-@AllArgsConstructor
 @Table(name = "customer")
 public class Customer {
 
     /**
-     * Unique identifier for the customer.
+     * Unique identifier for the customer. Identifiers come from a pooled sequence, so Hibernate
+     * can assign them without a round trip per row and group the inserts into JDBC batches.
      */
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "customer_seq")
+    @SequenceGenerator(name = "customer_seq", sequenceName = "customer_seq", allocationSize = 50)
     private Long id;
 
     /**
-     * Name of the customer.
+     * Name of the customer, stored encrypted with AES-GCM.
      */
+    @Convert(converter = EncryptedStringConverter.class)
+    @Column(length = 1024)
     private String name;
 
+    /**
+     * Version of the customer, incremented by every update. It is the entity tag of the customer.
+     */
+    @Version
+    private long version;
+
+    /**
+     * Constructs a new Customer.
+     *
+     * @param id   The unique identifier of the customer.
+     * @param name The name of the customer.
+     */
+    public Customer(Long id, String name) {
+        this.id = id;
+        this.name = name;
+    }
+
     // Getters and Setters
 
     /**
@@ -67,4 +93,23 @@ public class Customer {
     public void setName(String name) {
         this.name = name;
     }
+
+    /**
+     * Retrieves the version of the customer.
+     *
+     * @return The version of the customer.
+     */
+    @JsonIgnore
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * Sets the version of the customer.
+     *
+     * @param version The version of the customer.
+     */
+    public void setVersion(long version) {
+        this.version = version;
+    }
 }
@@ -0,0 +1,264 @@
+package com.maybank.bankapp.entity;
+
+import java.io.Serializable;
+import java.time.Instant;
+import java.util.Objects;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.EnumType;
+import javax.persistence.Enumerated;
+import javax.persistence.Id;
+import javax.persistence.IdClass;
+import javax.persistence.Index;
+import javax.persistence.PostLoad;
+import javax.persistence.PostPersist;
+import javax.persistence.Table;
+import javax.persistence.Transient;
+
+import org.springframework.data.domain.Persistable;
+
+import com.maybank.bankapp.dto.OperationType;
+
+import lombok.NoArgsConstructor;
+
+/**
+ * IdempotencyRecord remembers a deposit or withdrawal submitted with an Idempotency-Key header. It
+ * is inserted in the same transaction as the balance change, so the primary key on the account and
+ * idempotency key guarantees that a key is applied at most once to an account, and it holds enough
+ * of the outcome to answer a retry with the original response. Keys are scoped to their account:
+ * the record lives on the shard of the account, so that is the only place its primary key is
+ * enforced and looked up.
+ */
+@Entity
+@NoArgsConstructor
+@IdClass(IdempotencyRecord.Key.class)
+@Table(name = "idempotency_key", indexes = @Index(name = "idx_idempotency_key_created_at", columnList = "created_at"))
+public class IdempotencyRecord implements Persistable<IdempotencyRecord.Key> {
+
+    /**
+     * Maximum length of an idempotency key.
+     */
+    public static final int MAX_KEY_LENGTH = 128;
+
+    /**
+     * ID of the account the operation was applied to.
+     */
+    @Id
+    @Column(name = "account_id", nullable = false)
+    private Long accountId;
+
+    /**
+     * The idempotency key supplied by the client.
+     */
+    @Id
+    @Column(name = "idempotency_key", length = MAX_KEY_LENGTH)
+    private String key;
+
+    /**
+     * Kind of operation.
+     */
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private OperationType type;
+
+    /**
+     * Amount of the operation, in minor units.
+     */
+    private long amount;
+
+    /**
+     * Balance of the account after the operation, in minor units.
+     */
+    private long balance;
+
+    /**
+     * Status of the account after the operation.
+     */
+    private String status;
+
+    /**
+     * Time the operation was applied.
+     */
+    @Column(name = "created_at", nullable = false)
+    private Instant createdAt;
+
+    /**
+     * Whether the record has not been persisted yet, so saving it inserts without a SELECT.
+     */
+    @Transient
+    private boolean isNew = true;
+
+    /**
+     * Constructs a new IdempotencyRecord.
+     *
+     * @param key       The idempotency key supplied by the client.
+     * @param accountId The ID of the account the operation was applied to.
+     * @param type      The kind of operation.
+     * @param amount    The amount of the operation, in minor units.
+     * @param balance   The balance of the account after the operation, in minor units.
+     * @param status    The status of the account after the operation.
+     * @param createdAt The time the operation was applied.
+     */
+    public IdempotencyRecord(String key, Long accountId, OperationType type, long amount, long balance, String status,
+            Instant createdAt) {
+        this.key = key;
+        this.accountId = accountId;
+        this.type = type;
+        this.amount = amount;
+        this.balance = balance;
+        this.status = status;
+        this.createdAt = createdAt;
+    }
+
+    /**
+     * Retrieves the idempotency key.
+     *
+     * @return The idempotency key.
+     */
+    public String getKey() {
+        return key;
+    }
+
+    /**
+     * Retrieves the ID of the account the operation was applied to.
+     *
+     * @return The account ID.
+     */
+    public Long getAccountId() {
+        return accountId;
+    }
+
+    /**
+     * Retrieves the kind of operation.
+     *
+     * @return The operation type.
+     */
+    public OperationType getType() {
+        return type;
+    }
+
+    /**
+     * Retrieves the amount of the operation.
+     *
+     * @return The amount, in minor units.
+     */
+    public long getAmount() {
+        return amount;
+    }
+
+    /**
+     * Retrieves the balance of the account after the operation.
+     *
+     * @return The balance, in minor units.
+     */
+    public long getBalance() {
+        return balance;
+    }
+
+    /**
+     * Retrieves the status of the account after the operation.
+     *
+     * @return The account status.
+     */
+    public String getStatus() {
+        return status;
+    }
+
+    /**
+     * Retrieves the time the operation was applied.
+     *
+     * @return The time of the operation.
+     */
+    public Instant getCreatedAt() {
+        return createdAt;
+    }
+
+    @Override
+    public Key getId() {
+        return new Key(accountId, key);
+    }
+
+    @Override
+    public boolean isNew() {
+        return isNew;
+    }
+
+    /**
+     * Marks the record as persisted once it has been inserted or loaded.
+     */
+    @PostLoad
+    @PostPersist
+    void markNotNew() {
+        this.isNew = false;
+    }
+
+    /**
+     * The primary key of a record: an idempotency key within one account.
+     */
+    public static class Key implements Serializable {
+
+        private static final long serialVersionUID = 1L;
+
+        private Long accountId;
+
+        private String key;
+
+        /**
+         * Constructs an empty Key, for JPA.
+         */
+        public Key() {
+        }
+
+        /**
+         * Constructs a new Key.
+         *
+         * @param accountId The ID of the account.
+         * @param key       The idempotency key supplied by the client.
+         */
+        public Key(Long accountId, String key) {
+            this.accountId = accountId;
+            this.key = key;
+        }
+
+        /**
+         * Retrieves the ID of the account.
+         *
+         * @return The account ID.
+         */
+        public Long getAccountId() {
+            return accountId;
+        }
+
+        /**
+         * Retrieves the idempotency key supplied by the client.
+         *
+         * @return The idempotency key.
+         */
+        public String getKey() {
+            return key;
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            if (this == other) {
+                return true;
+            }
+            if (!(other instanceof Key)) {
+                return false;
+            }
+            Key that = (Key) other;
+            return Objects.equals(accountId, that.accountId) && Objects.equals(key, that.key);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(accountId, key);
+        }
+
+        @Override
+        public String toString() {
+            return accountId + "/" + key;
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package com.maybank.bankapp.exception;
+
+/**
+ * BusinessException is the base of the expected failures of a request, such as an unknown account
+ * or insufficient funds. These are part of normal traffic rather than faults, so they are created
+ * without a stack trace, which would otherwise dominate the cost of a declined request. Each carries
+ * the {@link ErrorCode} it is answered with.
+ */
+public abstract class BusinessException extends Exception {
+
+    private static final long serialVersionUID = 1L;
+
+    private final ErrorCode errorCode;
+
+    /**
+     * Constructs a new BusinessException with the specified error code and detail message.
+     *
+     * @param errorCode The kind of failure.
+     * @param message   The detail message, for the logs.
+     */
+    protected BusinessException(ErrorCode errorCode, String message) {
+        super(message, null, false, false);
+        this.errorCode = errorCode;
+    }
+
+    /**
+     * Retrieves the kind of failure.
+     *
+     * @return The error code.
+     */
+    public ErrorCode getErrorCode() {
+        return errorCode;
+    }
+}
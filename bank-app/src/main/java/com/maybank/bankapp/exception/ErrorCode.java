@@ -0,0 +1,49 @@
+package com.maybank.bankapp.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+/**
+ * The kinds of business failure, each with the HTTP status it is answered with. The response of
+ * each code is built once, so rejecting a request does not allocate an error body.
+ */
+public enum ErrorCode {
+
+    RESOURCE_NOT_FOUND(HttpStatus.NOT_FOUND, "Resource not found"),
+
+    ACCOUNT_NOT_FOUND(HttpStatus.NOT_FOUND, "Account not found"),
+
+    CUSTOMER_NOT_FOUND(HttpStatus.NOT_FOUND, "Customer not found"),
+
+    INSUFFICIENT_FUNDS(HttpStatus.UNPROCESSABLE_ENTITY, "Insufficient funds"),
+
+    IDEMPOTENCY_KEY_REUSED(HttpStatus.UNPROCESSABLE_ENTITY, "Idempotency key reused for a different request");
+
+    private final HttpStatus status;
+
+    private final ResponseEntity<ErrorResponse> response;
+
+    ErrorCode(HttpStatus status, String message) {
+        this.status = status;
+        this.response = ResponseEntity.status(status).body(new ErrorResponse(status.value(), message));
+    }
+
+    /**
+     * Retrieves the status the failure is answered with.
+     *
+     * @return The HTTP status.
+     */
+    public HttpStatus getStatus() {
+        return status;
+    }
+
+    /**
+     * Retrieves the response the failure is answered with. The response is shared by all
+     * requests; its headers are read-only and its body is immutable.
+     *
+     * @return The pre-built response.
+     */
+    public ResponseEntity<ErrorResponse> toResponse() {
+        return response;
+    }
+}
@@ -1,12 +1,16 @@
 package com.maybank.bankapp.exception;
 
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
 /**
- * Class representing an error response containing an error code and message.
+ * Class representing an error response containing an error code and message. It is immutable, so
+ * the bodies pre-built by {@link ErrorCode} can be shared by all requests.
  */
 public class ErrorResponse {
     
-    private int errorCode;
-    private String errorMessage;
+    private final int errorCode;
+    private final String errorMessage;
 
     /**
      * Constructs a new ErrorResponse object with the specified error code and message.
@@ -14,7 +18,8 @@ public class ErrorResponse {
      * @param errorCode The error code indicating the type of error.
      * @param errorMessage The error message providing information about the error.
      */
-    public ErrorResponse(int errorCode, String errorMessage) {
+    @JsonCreator
+    public ErrorResponse(@JsonProperty("errorCode") int errorCode, @JsonProperty("errorMessage") String errorMessage) {
         this.errorCode = errorCode;
         this.errorMessage = errorMessage;
     }
@@ -28,15 +33,6 @@ public class ErrorResponse {
         return errorCode;
     }
 
-    /**
-     * Sets the error code.
-     *
-     * @param errorCode The error code indicating the type of error.
-     */
-    public void setErrorCode(int errorCode) {
-        this.errorCode = errorCode;
-    }
-
     /**
      * Retrieves the error message.
      *
@@ -45,15 +41,4 @@ public class ErrorResponse {
     public String getErrorMessage() {
         return errorMessage;
     }
-
-    /**
-     * Sets the error message.
-     *
-     * @param errorMessage The error message providing information about the error.
-     */
-    public void setErrorMessage(String errorMessage) {
-        this.errorMessage = errorMessage;
-    }
 }
-
-
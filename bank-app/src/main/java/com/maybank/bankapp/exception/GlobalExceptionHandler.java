@@ -1,31 +1,95 @@
 package com.maybank.bankapp.exception;
 
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.HttpMessageNotReadableException;
 import org.springframework.web.bind.annotation.ControllerAdvice;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.method.annotation.MethodArgumentTypeMismatchException;
+import org.springframework.web.server.ResponseStatusException;
 
 import java.util.Date;
 
 /**
  * GlobalExceptionHandler class provides centralized exception handling for the application.
- * It handles ResourceNotFoundException and other exceptions and returns appropriate error responses.
+ * It handles business failures and other exceptions and returns appropriate error responses.
  */
 @ControllerAdvice
 public class GlobalExceptionHandler {
 
     /**
-     * Handles ResourceNotFoundException and returns a ResponseEntity with a NOT_FOUND status code.
+     * Handles business failures, such as an unknown account or insufficient funds, and returns the
+     * pre-built response of their error code.
      *
-     * @param ex The ResourceNotFoundException to be handled.
+     * @param ex The BusinessException to be handled.
+     * @return The response of the error code of the exception.
+     */
+    @ExceptionHandler(BusinessException.class)
+    public ResponseEntity<ErrorResponse> businessException(BusinessException ex) {
+        return ex.getErrorCode().toResponse();
+    }
+
+    /**
+     * Handles request parameters and bodies that cannot be converted, such as an amount with more
+     * than two decimal places, and returns a ResponseEntity with a BAD_REQUEST status code.
+     *
+     * @param ex The conversion exception to be handled.
+     * @param request The WebRequest object containing details of the request.
+     * @return A ResponseEntity containing error details and a BAD_REQUEST status code.
+     */
+    @ExceptionHandler({ MethodArgumentTypeMismatchException.class, HttpMessageNotReadableException.class })
+    public ResponseEntity<?> badRequestException(Exception ex, WebRequest request) {
+        ErrorDetails errorDetails = new ErrorDetails(new Date(), ex.getMessage(), request.getDescription(false));
+        return new ResponseEntity<>(errorDetails, HttpStatus.BAD_REQUEST);
+    }
+
+    /**
+     * Handles exceptions that carry their own HTTP status, such as an invalid request rejected by
+     * a controller that streams its response, and returns a ResponseEntity with that status.
+     *
+     * @param ex The ResponseStatusException to be handled.
+     * @param request The WebRequest object containing details of the request.
+     * @return A ResponseEntity containing error details and the status of the exception.
+     */
+    @ExceptionHandler(ResponseStatusException.class)
+    public ResponseEntity<?> responseStatusException(ResponseStatusException ex, WebRequest request) {
+        ErrorDetails errorDetails = new ErrorDetails(new Date(), ex.getReason(), request.getDescription(false));
+        return new ResponseEntity<>(errorDetails, ex.getStatus());
+    }
+
+    /**
+     * Handles changes that kept conflicting with concurrent changes of the same account and
+     * returns a ResponseEntity with a CONFLICT status code.
+     *
+     * @param ex The OptimisticLockingFailureException to be handled.
+     * @param request The WebRequest object containing details of the request.
+     * @return A ResponseEntity containing error details and a CONFLICT status code.
+     */
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    public ResponseEntity<?> optimisticLockingFailureException(OptimisticLockingFailureException ex,
+            WebRequest request) {
+        ErrorDetails errorDetails = new ErrorDetails(new Date(), "The account was changed concurrently, please retry",
+                request.getDescription(false));
+        return new ResponseEntity<>(errorDetails, HttpStatus.CONFLICT);
+    }
+
+    /**
+     * Handles requests rejected because the application is saturated and returns a ResponseEntity
+     * with a SERVICE_UNAVAILABLE status code and a Retry-After header.
+     *
+     * @param ex The ServiceUnavailableException to be handled.
      * @param request The WebRequest object containing details of the request.
-     * @return A ResponseEntity containing error details and a NOT_FOUND status code.
+     * @return A ResponseEntity containing error details and a SERVICE_UNAVAILABLE status code.
      */
-    @ExceptionHandler(ResourceNotFoundException.class)
-    public ResponseEntity<?> resourceNotFoundException(ResourceNotFoundException ex, WebRequest request) {
+    @ExceptionHandler(ServiceUnavailableException.class)
+    public ResponseEntity<?> serviceUnavailableException(ServiceUnavailableException ex, WebRequest request) {
         ErrorDetails errorDetails = new ErrorDetails(new Date(), ex.getMessage(), request.getDescription(false));
-        return new ResponseEntity<>(errorDetails, HttpStatus.NOT_FOUND);
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(ex.getRetryAfterSeconds()))
+                .body(errorDetails);
     }
 
     /**
@@ -0,0 +1,20 @@
+package com.maybank.bankapp.exception;
+
+/**
+ * IdempotencyKeyReusedException is thrown when an Idempotency-Key is sent again for the same account
+ * with a different operation or amount than the request it was first used for. Keys are scoped to
+ * their account, so the same key sent for another account is a separate request.
+ */
+public class IdempotencyKeyReusedException extends BusinessException {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * Constructs a new IdempotencyKeyReusedException with the specified detail message.
+     *
+     * @param message The detail message.
+     */
+    public IdempotencyKeyReusedException(String message) {
+        super(ErrorCode.IDEMPOTENCY_KEY_REUSED, message);
+    }
+}
@@ -0,0 +1,20 @@
+package com.maybank.bankapp.exception;
+
+/**
+ * InsufficientFundsException is thrown when a withdrawal or transfer would overdraw an account.
+ * It extends ResourceNotFoundException so existing callers keep handling it as before, while
+ * metrics and error handling can tell the two cases apart by its {@link ErrorCode}.
+ */
+public class InsufficientFundsException extends ResourceNotFoundException {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * Constructs a new InsufficientFundsException with the specified detail message.
+     *
+     * @param message The detail message.
+     */
+    public InsufficientFundsException(String message) {
+        super(ErrorCode.INSUFFICIENT_FUNDS, message);
+    }
+}
@@ -1,14 +1,10 @@
 package com.maybank.bankapp.exception;
 
-import org.springframework.http.HttpStatus;
-import org.springframework.web.bind.annotation.ResponseStatus;
-
 /**
  * ResourceNotFoundException is a custom exception class that represents the scenario where a requested resource is not found.
- * It is annotated with @ResponseStatus to automatically return a NOT_FOUND status code when thrown.
+ * Its {@link ErrorCode} tells which kind of resource is missing.
  */
-@ResponseStatus(value = HttpStatus.NOT_FOUND)
-public class ResourceNotFoundException extends Exception {
+public class ResourceNotFoundException extends BusinessException {
 
     private static final long serialVersionUID = 1L;
 
@@ -18,6 +14,16 @@ public class ResourceNotFoundException extends Exception {
      * @param message The detail message.
      */
     public ResourceNotFoundException(String message) {
-        super(message);
+        this(ErrorCode.RESOURCE_NOT_FOUND, message);
+    }
+
+    /**
+     * Constructs a new ResourceNotFoundException with the specified error code and detail message.
+     *
+     * @param errorCode The kind of failure.
+     * @param message   The detail message.
+     */
+    public ResourceNotFoundException(ErrorCode errorCode, String message) {
+        super(errorCode, message);
     }
 }
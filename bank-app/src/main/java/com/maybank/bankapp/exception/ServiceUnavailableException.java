@@ -0,0 +1,32 @@
+package com.maybank.bankapp.exception;
+
+/**
+ * ServiceUnavailableException is thrown when a request cannot be accepted because the application
+ * is saturated. It is answered with 503 and a Retry-After header, without a stack trace.
+ */
+public class ServiceUnavailableException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    private final long retryAfterSeconds;
+
+    /**
+     * Constructs a new ServiceUnavailableException with the specified detail message.
+     *
+     * @param message           The detail message.
+     * @param retryAfterSeconds The number of seconds the client should wait before retrying.
+     */
+    public ServiceUnavailableException(String message, long retryAfterSeconds) {
+        super(message, null, false, false);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    /**
+     * Retrieves the number of seconds the client should wait before retrying.
+     *
+     * @return The Retry-After value in seconds.
+     */
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
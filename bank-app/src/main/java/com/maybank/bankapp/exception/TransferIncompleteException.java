@@ -0,0 +1,63 @@
+package com.maybank.bankapp.exception;
+
+import com.maybank.bankapp.money.Money;
+
+/**
+ * TransferIncompleteException is thrown when a transfer between shards has committed its
+ * withdrawal but neither its deposit nor the reversal of the withdrawal. The money has left the
+ * source account without arriving anywhere, so the transfer must not be retried; the accounts
+ * need manual repair. It is answered with 500.
+ */
+public class TransferIncompleteException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    private final long fromAccountId;
+
+    private final long toAccountId;
+
+    private final long amount;
+
+    /**
+     * Constructs a new TransferIncompleteException.
+     *
+     * @param fromAccountId The ID of the account the amount was withdrawn from.
+     * @param toAccountId   The ID of the account the deposit failed on.
+     * @param amount        The amount of the transfer, in minor units.
+     * @param cause         The failure of the deposit, with the failure of the reversal suppressed.
+     */
+    public TransferIncompleteException(long fromAccountId, long toAccountId, long amount, Throwable cause) {
+        super("Transfer of " + Money.ofMinor(amount) + " from account " + fromAccountId + " to account "
+                + toAccountId + " was withdrawn but not deposited and needs manual repair", cause);
+        this.fromAccountId = fromAccountId;
+        this.toAccountId = toAccountId;
+        this.amount = amount;
+    }
+
+    /**
+     * Retrieves the ID of the account the amount was withdrawn from.
+     *
+     * @return The ID of the source account.
+     */
+    public long getFromAccountId() {
+        return fromAccountId;
+    }
+
+    /**
+     * Retrieves the ID of the account the deposit failed on.
+     *
+     * @return The ID of the target account.
+     */
+    public long getToAccountId() {
+        return toAccountId;
+    }
+
+    /**
+     * Retrieves the amount of the transfer.
+     *
+     * @return The amount, in minor units.
+     */
+    public long getAmount() {
+        return amount;
+    }
+}
@@ -0,0 +1,134 @@
+package com.maybank.bankapp.executor;
+
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import javax.annotation.PreDestroy;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskDecorator;
+import org.springframework.stereotype.Component;
+
+import com.maybank.bankapp.exception.ServiceUnavailableException;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+
+/**
+ * DatabaseExecutor runs the blocking JPA work of the controllers off the servlet threads.
+ * <p>
+ * It has as many threads as the connection pool has connections, so a task never waits for a
+ * connection, and a bounded queue in front of them. When the queue is full the task is rejected
+ * at once with a {@link ServiceUnavailableException}, which is answered with 503 and a
+ * Retry-After header, instead of tying up a servlet thread for the duration of a slow query.
+ * <p>
+ * Every {@link TaskDecorator} bean is applied to the tasks, in order, so state bound to the
+ * submitting thread can be carried over to the worker. With {@code bank.async.enabled=false}
+ * tasks run on the calling thread instead.
+ */
+@Component
+public class DatabaseExecutor {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(DatabaseExecutor.class);
+
+    private final boolean enabled;
+
+    private final long retryAfterSeconds;
+
+    private final List<TaskDecorator> decorators;
+
+    private final ThreadPoolExecutor executor;
+
+    private final Counter rejected;
+
+    /**
+     * Constructs a new DatabaseExecutor.
+     *
+     * @param enabled           Whether tasks run on the executor rather than the calling thread.
+     * @param threads           The number of threads, the size of the connection pool.
+     * @param queueCapacity     The number of tasks that may wait for a thread.
+     * @param retryAfterSeconds The Retry-After value sent when a task is rejected.
+     * @param decorators        The decorators applied to every task.
+     * @param meterRegistry     The registry the executor metrics are published to.
+     */
+    @Autowired
+    public DatabaseExecutor(@Value("${bank.async.enabled:true}") boolean enabled,
+            @Value("${spring.datasource.hikari.maximum-pool-size:10}") int threads,
+            @Value("${bank.async.queue-capacity:200}") int queueCapacity,
+            @Value("${bank.async.retry-after-seconds:1}") long retryAfterSeconds,
+            ObjectProvider<TaskDecorator> decorators, MeterRegistry meterRegistry) {
+        this.enabled = enabled;
+        this.retryAfterSeconds = retryAfterSeconds;
+        this.decorators = decorators.orderedStream().collect(Collectors.toList());
+        AtomicInteger count = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), r -> {
+                    Thread thread = new Thread(r, "db-executor-" + count.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                }, new ThreadPoolExecutor.AbortPolicy());
+        ExecutorServiceMetrics.monitor(meterRegistry, executor, "bank.db.executor");
+        this.rejected = Counter.builder("bank.db.executor.rejected")
+                .description("Tasks rejected because the database executor queue was full")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Runs a task on the executor.
+     *
+     * @param <T>  The type of the result.
+     * @param task The task.
+     * @return A future completed with the result of the task, or exceptionally with what it threw.
+     * @throws ServiceUnavailableException if the queue is full.
+     */
+    public <T> CompletableFuture<T> submit(Callable<T> task) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        Runnable runnable = () -> {
+            try {
+                future.complete(task.call());
+            } catch (Throwable e) {
+                future.completeExceptionally(e);
+            }
+        };
+        if (!enabled) {
+            runnable.run();
+            return future;
+        }
+        for (TaskDecorator decorator : decorators) {
+            runnable = decorator.decorate(runnable);
+        }
+        try {
+            executor.execute(runnable);
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            throw new ServiceUnavailableException("The server is busy, please retry later", retryAfterSeconds);
+        }
+        return future;
+    }
+
+    /**
+     * Stops accepting tasks and waits briefly for the running ones to finish.
+     *
+     * @throws InterruptedException if interrupted while waiting.
+     */
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        executor.shutdown();
+        if (!executor.awaitTermination(10, TimeUnit.SECONDS)) {
+            LOGGER.warn("Database executor did not finish its tasks in time");
+            executor.shutdownNow();
+        }
+    }
+}
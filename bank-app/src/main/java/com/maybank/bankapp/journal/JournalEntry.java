@@ -0,0 +1,100 @@
+package com.maybank.bankapp.journal;
+
+/**
+ * A single account mutation read back from the transaction journal.
+ */
+public class JournalEntry {
+
+    private final long sequence;
+    private final long timestamp;
+    private final long accountId;
+    private final JournalEntryType type;
+    private final long amount;
+    private final long balance;
+    private final long version;
+
+    /**
+     * Constructs a new JournalEntry.
+     *
+     * @param sequence  The position of the entry in the journal.
+     * @param timestamp The time the mutation was recorded, in milliseconds since the epoch.
+     * @param accountId The ID of the mutated account.
+     * @param type      The kind of mutation.
+     * @param amount    The amount of the mutation, in minor units.
+     * @param balance   The balance of the account after the mutation, in minor units.
+     * @param version   The version of the account after the mutation.
+     */
+    public JournalEntry(long sequence, long timestamp, long accountId, JournalEntryType type, long amount,
+            long balance, long version) {
+        this.sequence = sequence;
+        this.timestamp = timestamp;
+        this.accountId = accountId;
+        this.type = type;
+        this.amount = amount;
+        this.balance = balance;
+        this.version = version;
+    }
+
+    /**
+     * Retrieves the position of the entry in the journal.
+     *
+     * @return The sequence number of the entry.
+     */
+    public long getSequence() {
+        return sequence;
+    }
+
+    /**
+     * Retrieves the time the mutation was recorded.
+     *
+     * @return The timestamp in milliseconds since the epoch.
+     */
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    /**
+     * Retrieves the ID of the mutated account.
+     *
+     * @return The ID of the account.
+     */
+    public long getAccountId() {
+        return accountId;
+    }
+
+    /**
+     * Retrieves the kind of mutation.
+     *
+     * @return The type of the entry.
+     */
+    public JournalEntryType getType() {
+        return type;
+    }
+
+    /**
+     * Retrieves the amount of the mutation.
+     *
+     * @return The amount in minor units.
+     */
+    public long getAmount() {
+        return amount;
+    }
+
+    /**
+     * Retrieves the balance of the account after the mutation.
+     *
+     * @return The balance after the mutation, in minor units.
+     */
+    public long getBalance() {
+        return balance;
+    }
+
+    /**
+     * Retrieves the version of the account after the mutation.
+     *
+     * @return The row version of the account.
+     */
+    public long getVersion() {
+        return version;
+    }
+}
@@ -0,0 +1,52 @@
+package com.maybank.bankapp.journal;
+
+/**
+ * The kinds of account mutations recorded in the transaction journal.
+ */
+public enum JournalEntryType {
+
+    /**
+     * An amount was credited to the account.
+     */
+    DEPOSIT((byte) 1),
+
+    /**
+     * An amount was debited from the account.
+     */
+    WITHDRAW((byte) 2),
+
+    /**
+     * The account was closed.
+     */
+    CLOSE((byte) 3);
+
+    private final byte code;
+
+    JournalEntryType(byte code) {
+        this.code = code;
+    }
+
+    /**
+     * Retrieves the code stored in the journal for this type.
+     *
+     * @return The code of the type.
+     */
+    public byte getCode() {
+        return code;
+    }
+
+    /**
+     * Resolves the type stored in the journal under the given code.
+     *
+     * @param code The stored code.
+     * @return The matching type, or null if the code is unknown.
+     */
+    public static JournalEntryType fromCode(byte code) {
+        for (JournalEntryType type : values()) {
+            if (type.code == code) {
+                return type;
+            }
+        }
+        return null;
+    }
+}
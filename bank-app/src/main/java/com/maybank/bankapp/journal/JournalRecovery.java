@@ -0,0 +1,105 @@
+package com.maybank.bankapp.journal;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.maybank.bankapp.datasource.Shards;
+import com.maybank.bankapp.repository.AccountRepository;
+
+/**
+ * JournalRecovery replays the transaction journal into the accounts table at startup.
+ * <p>
+ * Every journal record carries the balance and row version after the mutation, so only the last
+ * record of each account has to be applied and replaying the same journal twice gives the same
+ * result. The journal is written after the database commit, so after a crash the database can be
+ * ahead of it; a record is only applied to a row with an older version. Accounts that do not exist
+ * in the database are skipped, because the journal does not record account creation. Each account
+ * is restored on its shard.
+ */
+@Component
+public class JournalRecovery implements SmartInitializingSingleton {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(JournalRecovery.class);
+
+    private final TransactionJournal journal;
+
+    private final AccountRepository accountRepository;
+
+    private final Shards shards;
+
+    private final boolean recoverOnStartup;
+
+    /**
+     * Constructs a new JournalRecovery.
+     *
+     * @param journal           The journal to replay.
+     * @param accountRepository The repository the journal is replayed into.
+     * @param shards            The shards the accounts are stored on.
+     * @param recoverOnStartup  Whether the journal is replayed when the application starts.
+     */
+    @Autowired
+    public JournalRecovery(TransactionJournal journal, AccountRepository accountRepository, Shards shards,
+            @Value("${bank.journal.recover-on-startup:false}") boolean recoverOnStartup) {
+        this.journal = journal;
+        this.accountRepository = accountRepository;
+        this.shards = shards;
+        this.recoverOnStartup = recoverOnStartup;
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        if (recoverOnStartup) {
+            recover();
+        }
+    }
+
+    /**
+     * Applies the last recorded balance and status of every journaled account.
+     *
+     * @return The number of accounts updated.
+     */
+    public int recover() {
+        Map<Long, JournalEntry> lastBalance = new HashMap<>();
+        Map<Long, JournalEntry> closed = new HashMap<>();
+        long entries;
+        try {
+            entries = journal.replay(entry -> {
+                if (entry.getType() == JournalEntryType.CLOSE) {
+                    closed.put(entry.getAccountId(), entry);
+                } else {
+                    lastBalance.put(entry.getAccountId(), entry);
+                }
+            });
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot replay transaction journal", e);
+        }
+        int updated = 0;
+        int skipped = 0;
+        for (JournalEntry entry : lastBalance.values()) {
+            try (Shards.Scope shard = shards.forAccount(entry.getAccountId())) {
+                if (accountRepository.restoreBalance(entry.getAccountId(), entry.getBalance(), entry.getVersion()) > 0) {
+                    updated++;
+                } else {
+                    skipped++;
+                }
+            }
+        }
+        for (JournalEntry entry : closed.values()) {
+            try (Shards.Scope shard = shards.forAccount(entry.getAccountId())) {
+                accountRepository.restoreStatus(entry.getAccountId(), "Closed", entry.getVersion());
+            }
+        }
+        LOGGER.info("Replayed {} journal entries: {} accounts updated, {} unknown or up-to-date accounts skipped",
+                entries, updated, skipped);
+        return updated;
+    }
+}
@@ -0,0 +1,287 @@
+package com.maybank.bankapp.journal;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.zip.CRC32;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * TransactionJournal is an append-only log of every committed account mutation.
+ * <p>
+ * The journal is split into fixed-size segment files that are memory-mapped, so an append is a
+ * copy of one fixed-size record into the mapping. A background thread forces dirty segments to
+ * disk every flush interval, which amortizes one fsync over all appends made in that interval.
+ * Each record carries a CRC so that a record torn by a crash is detected and ends the replay.
+ * <p>
+ * Record layout (56 bytes): sequence, timestamp, account id (8 bytes each), type (1 byte),
+ * 3 bytes padding, amount, balance after the mutation (8 bytes each, in minor units), row version
+ * of the account after the mutation (8 bytes), CRC32 of the preceding 52 bytes (4 bytes). The
+ * version lets recovery skip records that are older than the committed row.
+ */
+@Component
+public class TransactionJournal {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(TransactionJournal.class);
+
+    static final int RECORD_SIZE = 56;
+
+    private static final int CRC_OFFSET = 52;
+
+    private static final String SEGMENT_SUFFIX = ".journal";
+
+    private final boolean enabled;
+
+    private final Path directory;
+
+    private final int segmentSize;
+
+    private final long flushIntervalMs;
+
+    private final ReentrantLock appendLock = new ReentrantLock();
+
+    private final ByteBuffer record = ByteBuffer.allocate(RECORD_SIZE);
+
+    private final CRC32 crc = new CRC32();
+
+    private FileChannel channel;
+
+    private volatile MappedByteBuffer segment;
+
+    private long nextSequence = 1;
+
+    private volatile boolean dirty;
+
+    private ScheduledExecutorService flusher;
+
+    /**
+     * Constructs a new TransactionJournal.
+     *
+     * @param enabled         Whether mutations are recorded at all.
+     * @param directory       The directory holding the segment files.
+     * @param segmentSize     The size of a segment file in bytes.
+     * @param flushIntervalMs How often dirty segments are forced to disk; 0 forces on every append.
+     */
+    @Autowired
+    public TransactionJournal(@Value("${bank.journal.enabled:true}") boolean enabled,
+            @Value("${bank.journal.directory:data/journal}") String directory,
+            @Value("${bank.journal.segment-size:67108864}") int segmentSize,
+            @Value("${bank.journal.flush-interval-ms:10}") long flushIntervalMs) {
+        this.enabled = enabled;
+        this.directory = Paths.get(directory);
+        this.segmentSize = Math.max(1, segmentSize / RECORD_SIZE) * RECORD_SIZE;
+        this.flushIntervalMs = flushIntervalMs;
+    }
+
+    /**
+     * Opens a new segment after the existing ones and starts the background flusher.
+     *
+     * @throws IOException if the journal directory or segment cannot be created.
+     */
+    @PostConstruct
+    public void open() throws IOException {
+        if (!enabled) {
+            return;
+        }
+        Files.createDirectories(directory);
+        nextSequence = recoverSequence() + 1;
+        roll();
+        if (flushIntervalMs > 0) {
+            flusher = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread thread = new Thread(r, "journal-flusher");
+                thread.setDaemon(true);
+                return thread;
+            });
+            flusher.scheduleWithFixedDelay(this::flush, flushIntervalMs, flushIntervalMs, TimeUnit.MILLISECONDS);
+        }
+        LOGGER.info("Transaction journal opened in {} at sequence {}", directory.toAbsolutePath(), nextSequence);
+    }
+
+    /**
+     * Stops the flusher and forces the current segment to disk.
+     *
+     * @throws IOException if the segment cannot be closed.
+     */
+    @PreDestroy
+    public void close() throws IOException {
+        if (!enabled) {
+            return;
+        }
+        if (flusher != null) {
+            flusher.shutdown();
+        }
+        appendLock.lock();
+        try {
+            if (segment != null) {
+                segment.force();
+                channel.close();
+                segment = null;
+            }
+        } finally {
+            appendLock.unlock();
+        }
+    }
+
+    /**
+     * Appends a mutation to the journal.
+     *
+     * @param accountId The ID of the mutated account.
+     * @param type      The kind of mutation.
+     * @param amount    The amount of the mutation, in minor units.
+     * @param balance   The balance of the account after the mutation, in minor units.
+     * @param version   The version of the account after the mutation.
+     * @return The sequence number of the record, or 0 if the journal is disabled.
+     */
+    public long append(long accountId, JournalEntryType type, long amount, long balance, long version) {
+        if (!enabled) {
+            return 0;
+        }
+        appendLock.lock();
+        try {
+            if (segment.remaining() < RECORD_SIZE) {
+                roll();
+            }
+            long sequence = nextSequence++;
+            record.clear();
+            record.putLong(sequence).putLong(System.currentTimeMillis()).putLong(accountId)
+                    .put(type.getCode()).put((byte) 0).put((byte) 0).put((byte) 0)
+                    .putLong(amount).putLong(balance).putLong(version);
+            crc.reset();
+            crc.update(record.array(), 0, CRC_OFFSET);
+            record.putInt((int) crc.getValue());
+            segment.put(record.array());
+            if (flushIntervalMs <= 0) {
+                segment.force();
+            } else {
+                dirty = true;
+            }
+            return sequence;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot roll journal segment", e);
+        } finally {
+            appendLock.unlock();
+        }
+    }
+
+    /**
+     * Forces appended records to disk. Called periodically by the flusher thread.
+     */
+    public void flush() {
+        MappedByteBuffer current = segment;
+        if (dirty && current != null) {
+            dirty = false;
+            current.force();
+        }
+    }
+
+    /**
+     * Reads every valid record of the journal in sequence order.
+     *
+     * @param consumer Receives each entry.
+     * @return The number of entries read.
+     * @throws IOException if a segment cannot be read.
+     */
+    public long replay(Consumer<JournalEntry> consumer) throws IOException {
+        long count = 0;
+        for (Path file : segments()) {
+            count += read(file, consumer);
+        }
+        return count;
+    }
+
+    private void roll() throws IOException {
+        if (segment != null) {
+            segment.force();
+            channel.close();
+        }
+        Path file = directory.resolve(String.format("%020d%s", nextSequence, SEGMENT_SUFFIX));
+        channel = FileChannel.open(file, StandardOpenOption.CREATE_NEW, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        segment = channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentSize);
+    }
+
+    /**
+     * Finds the last sequence number written by a previous run. A newest segment without any valid
+     * record is deleted so that its name can be reused.
+     */
+    private long recoverSequence() throws IOException {
+        List<Path> files = segments();
+        if (files.isEmpty()) {
+            return 0;
+        }
+        Path newest = files.get(files.size() - 1);
+        long[] last = { 0 };
+        read(newest, entry -> last[0] = entry.getSequence());
+        if (last[0] == 0) {
+            String name = newest.getFileName().toString();
+            Files.delete(newest);
+            return Long.parseLong(name.substring(0, name.length() - SEGMENT_SUFFIX.length())) - 1;
+        }
+        return last[0];
+    }
+
+    private List<Path> segments() throws IOException {
+        List<Path> files = new ArrayList<>();
+        if (!Files.isDirectory(directory)) {
+            return files;
+        }
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, "*" + SEGMENT_SUFFIX)) {
+            for (Path file : stream) {
+                files.add(file);
+            }
+        }
+        Collections.sort(files);
+        return files;
+    }
+
+    private static long read(Path file, Consumer<JournalEntry> consumer) throws IOException {
+        long count = 0;
+        byte[] bytes = new byte[RECORD_SIZE];
+        CRC32 checksum = new CRC32();
+        try (FileChannel in = FileChannel.open(file, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = in.map(FileChannel.MapMode.READ_ONLY, 0, in.size());
+            while (buffer.remaining() >= RECORD_SIZE) {
+                buffer.get(bytes);
+                ByteBuffer entry = ByteBuffer.wrap(bytes);
+                long sequence = entry.getLong(0);
+                if (sequence == 0) {
+                    break;
+                }
+                checksum.reset();
+                checksum.update(bytes, 0, CRC_OFFSET);
+                if ((int) checksum.getValue() != entry.getInt(CRC_OFFSET)) {
+                    LOGGER.warn("Torn record at sequence {} in journal segment {}", sequence, file.getFileName());
+                    break;
+                }
+                consumer.accept(new JournalEntry(sequence, entry.getLong(8), entry.getLong(16),
+                        JournalEntryType.fromCode(entry.get(24)), entry.getLong(28), entry.getLong(36),
+                        entry.getLong(44)));
+                count++;
+            }
+        }
+        return count;
+    }
+}
@@ -0,0 +1,46 @@
+package com.maybank.bankapp.logging;
+
+import java.util.concurrent.atomic.LongAdder;
+
+import ch.qos.logback.classic.AsyncAppender;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+
+/**
+ * CountingAsyncAppender is an {@link AsyncAppender} that counts the events it drops.
+ * <p>
+ * Events are dropped in two cases: INFO and lower events when the queue is above its discarding
+ * threshold, and, with {@code neverBlock}, any event that finds the queue full. In both cases the
+ * logging thread returns immediately instead of waiting for the queue to drain.
+ */
+public class CountingAsyncAppender extends AsyncAppender {
+
+    private final LongAdder dropped = new LongAdder();
+
+    /**
+     * Retrieves the number of events dropped since the appender was created.
+     *
+     * @return The number of dropped events.
+     */
+    public long getDroppedCount() {
+        return dropped.sum();
+    }
+
+    @Override
+    protected void append(ILoggingEvent event) {
+        if (isNeverBlock() && isStarted() && getRemainingCapacity() == 0) {
+            dropped.increment();
+            return;
+        }
+        super.append(event);
+    }
+
+    @Override
+    protected boolean isDiscardable(ILoggingEvent event) {
+        // Only asked once the queue is above the discarding threshold.
+        boolean discardable = super.isDiscardable(event);
+        if (discardable) {
+            dropped.increment();
+        }
+        return discardable;
+    }
+}
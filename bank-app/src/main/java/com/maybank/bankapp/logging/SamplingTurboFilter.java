@@ -0,0 +1,103 @@
+package com.maybank.bankapp.logging;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.slf4j.Marker;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.turbo.TurboFilter;
+import ch.qos.logback.core.spi.FilterReply;
+
+/**
+ * SamplingTurboFilter keeps only a fraction of the routine INFO, DEBUG and TRACE events of the
+ * configured loggers. WARN and ERROR events are always kept.
+ * <p>
+ * Rates are configured as a comma separated list of logger name and rate pairs, e.g.
+ * {@code com.maybank.bankapp.controller=0.1,com.maybank.bankapp.service=0.1}. A logger uses the
+ * rate of the longest configured name it starts with, and loggers without a rate keep every event.
+ * Sampled-out events are rejected before their message is formatted, so they cost one map lookup
+ * and one random number.
+ */
+public class SamplingTurboFilter extends TurboFilter {
+
+    private final Map<String, Double> rates = new LinkedHashMap<>();
+
+    private final ConcurrentMap<String, Double> resolvedRates = new ConcurrentHashMap<>();
+
+    private final LongAdder sampledOut = new LongAdder();
+
+    /**
+     * Sets the sampling rates of the loggers.
+     *
+     * @param spec The comma separated logger name and rate pairs.
+     */
+    public void setRates(String spec) {
+        rates.clear();
+        resolvedRates.clear();
+        if (spec == null) {
+            return;
+        }
+        for (String pair : spec.split(",")) {
+            if (pair.trim().isEmpty()) {
+                continue;
+            }
+            int separator = pair.indexOf('=');
+            if (separator < 0) {
+                addError("Sampling rate must be given as name=rate: " + pair.trim());
+                continue;
+            }
+            String name = pair.substring(0, separator).trim();
+            try {
+                double rate = Double.parseDouble(pair.substring(separator + 1).trim());
+                rates.put(name, Math.max(0.0, Math.min(1.0, rate)));
+            } catch (NumberFormatException e) {
+                addError("Invalid sampling rate for " + name + ": " + pair.substring(separator + 1).trim());
+            }
+        }
+    }
+
+    /**
+     * Retrieves the number of events rejected by sampling.
+     *
+     * @return The number of sampled-out events.
+     */
+    public long getSampledOutCount() {
+        return sampledOut.sum();
+    }
+
+    @Override
+    public FilterReply decide(Marker marker, Logger logger, Level level, String format, Object[] params,
+            Throwable t) {
+        // isInfoEnabled() and friends pass no format, and are not sampled.
+        if (format == null || level.isGreaterOrEqual(Level.WARN) || rates.isEmpty()
+                || !level.isGreaterOrEqual(logger.getEffectiveLevel())) {
+            return FilterReply.NEUTRAL;
+        }
+        Double rate = resolvedRates.get(logger.getName());
+        if (rate == null) {
+            rate = resolvedRates.computeIfAbsent(logger.getName(), this::rateFor);
+        }
+        if (rate >= 1.0 || ThreadLocalRandom.current().nextDouble() < rate) {
+            return FilterReply.NEUTRAL;
+        }
+        sampledOut.increment();
+        return FilterReply.DENY;
+    }
+
+    private double rateFor(String loggerName) {
+        String match = null;
+        for (String name : rates.keySet()) {
+            if ((loggerName.equals(name) || loggerName.startsWith(name + "."))
+                    && (match == null || name.length() > match.length())) {
+                match = name;
+            }
+        }
+        return match == null ? 1.0 : rates.get(match);
+    }
+}
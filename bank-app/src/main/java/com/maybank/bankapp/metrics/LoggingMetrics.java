@@ -0,0 +1,60 @@
+package com.maybank.bankapp.metrics;
+
+import java.util.Iterator;
+
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import com.maybank.bankapp.logging.CountingAsyncAppender;
+import com.maybank.bankapp.logging.SamplingTurboFilter;
+
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.classic.turbo.TurboFilter;
+import ch.qos.logback.core.Appender;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+/**
+ * LoggingMetrics publishes the state of the asynchronous logging pipeline configured in
+ * logback-spring.xml: the number of events dropped by each {@link CountingAsyncAppender}, its
+ * queue depth, and the number of events rejected by the {@link SamplingTurboFilter}.
+ */
+@Component
+public class LoggingMetrics implements MeterBinder {
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        if (!(LoggerFactory.getILoggerFactory() instanceof LoggerContext)) {
+            return;
+        }
+        LoggerContext context = (LoggerContext) LoggerFactory.getILoggerFactory();
+        Iterator<Appender<ILoggingEvent>> appenders = context.getLogger(Logger.ROOT_LOGGER_NAME)
+                .iteratorForAppenders();
+        while (appenders.hasNext()) {
+            Appender<ILoggingEvent> appender = appenders.next();
+            if (appender instanceof CountingAsyncAppender) {
+                CountingAsyncAppender async = (CountingAsyncAppender) appender;
+                FunctionCounter.builder("bank.logging.events.dropped", async, CountingAsyncAppender::getDroppedCount)
+                        .description("Log events dropped instead of blocking the logging thread")
+                        .tag("appender", async.getName())
+                        .register(registry);
+                Gauge.builder("bank.logging.queue.size", async, CountingAsyncAppender::getNumberOfElementsInQueue)
+                        .description("Log events waiting to be written")
+                        .tag("appender", async.getName())
+                        .register(registry);
+            }
+        }
+        for (TurboFilter filter : context.getTurboFilterList()) {
+            if (filter instanceof SamplingTurboFilter) {
+                FunctionCounter.builder("bank.logging.events.sampled", (SamplingTurboFilter) filter,
+                        SamplingTurboFilter::getSampledOutCount)
+                        .description("Routine log events skipped by sampling")
+                        .register(registry);
+            }
+        }
+    }
+}
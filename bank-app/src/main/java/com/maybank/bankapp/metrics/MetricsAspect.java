@@ -0,0 +1,226 @@
+package com.maybank.bankapp.metrics;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.task.TaskDecorator;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.util.ClassUtils;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * MetricsAspect times every controller, service and repository method with the
+ * {@value #TIMER_NAME} timer, tagged with the layer, the class, the method and the
+ * {@link Outcome}. Percentile histograms are enabled for the timer in application.yml.
+ * <p>
+ * Timers are looked up once per class, method and outcome and then cached, so timing a call costs
+ * two map lookups and two clock reads. A controller that turns a service failure into an error
+ * response is tagged with the outcome of that failure, e.g. insufficient_funds rather than
+ * not_found.
+ * <p>
+ * A controller that returns a CompletableFuture is timed until the future completes. As a
+ * {@link TaskDecorator} the aspect carries the enclosing controller call over to the
+ * {@link com.maybank.bankapp.executor.DatabaseExecutor} threads, so the services called there
+ * still report their failures to it.
+ */
+@Aspect
+@Component
+public class MetricsAspect implements TaskDecorator {
+
+    /**
+     * Name of the timer recorded for every call.
+     */
+    public static final String TIMER_NAME = "bank.calls";
+
+    private static final String BASE_PACKAGE = "com.maybank.bankapp.";
+
+    private static final Outcome[] OUTCOMES = Outcome.values();
+
+    /**
+     * The controller call in progress on the current thread, which records the outcome of the
+     * last failed service call made on its behalf.
+     */
+    private static final ThreadLocal<ControllerCall> CONTROLLER_CALL = new ThreadLocal<>();
+
+    private final MeterRegistry registry;
+
+    private final ConcurrentMap<Class<?>, ConcurrentMap<Method, Timer[]>> timers = new ConcurrentHashMap<>();
+
+    /**
+     * Constructs a new MetricsAspect.
+     *
+     * @param registry The registry the timers are registered with.
+     */
+    @Autowired
+    public MetricsAspect(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    @Around("within(com.maybank.bankapp.controller..*)")
+    public Object timeController(ProceedingJoinPoint joinPoint) throws Throwable {
+        ControllerCall call = new ControllerCall();
+        CONTROLLER_CALL.set(call);
+        long start = registry.config().clock().monotonicTime();
+        Object result;
+        try {
+            result = joinPoint.proceed();
+        } catch (Throwable e) {
+            record(joinPoint, Layer.CONTROLLER, call.outcome(Outcome.of(e)), start);
+            throw e;
+        } finally {
+            CONTROLLER_CALL.remove();
+        }
+        if (result instanceof CompletableFuture) {
+            ((CompletableFuture<?>) result).whenComplete((value, error) -> record(joinPoint, Layer.CONTROLLER,
+                    call.outcome(error != null ? Outcome.of(unwrap(error)) : outcomeOf(value)), start));
+        } else {
+            record(joinPoint, Layer.CONTROLLER, call.outcome(outcomeOf(result)), start);
+        }
+        return result;
+    }
+
+    @Around("within(com.maybank.bankapp.service..*)")
+    public Object timeService(ProceedingJoinPoint joinPoint) throws Throwable {
+        long start = registry.config().clock().monotonicTime();
+        Outcome outcome = Outcome.ERROR;
+        try {
+            Object result = joinPoint.proceed();
+            outcome = Outcome.SUCCESS;
+            return result;
+        } catch (Throwable e) {
+            outcome = Outcome.of(e);
+            ControllerCall call = CONTROLLER_CALL.get();
+            if (call != null) {
+                call.serviceFailure = outcome;
+            }
+            throw e;
+        } finally {
+            record(joinPoint, Layer.SERVICE, outcome, start);
+        }
+    }
+
+    @Around("execution(* org.springframework.data.repository.Repository+.*(..))")
+    public Object timeRepository(ProceedingJoinPoint joinPoint) throws Throwable {
+        long start = registry.config().clock().monotonicTime();
+        Outcome outcome = Outcome.ERROR;
+        try {
+            Object result = joinPoint.proceed();
+            outcome = Outcome.SUCCESS;
+            return result;
+        } catch (Throwable e) {
+            outcome = Outcome.of(e);
+            throw e;
+        } finally {
+            record(joinPoint, Layer.REPOSITORY, outcome, start);
+        }
+    }
+
+    /**
+     * Binds the controller call of the submitting thread to the thread that runs the task.
+     */
+    @Override
+    public Runnable decorate(Runnable task) {
+        ControllerCall call = CONTROLLER_CALL.get();
+        if (call == null) {
+            return task;
+        }
+        return () -> {
+            CONTROLLER_CALL.set(call);
+            try {
+                task.run();
+            } finally {
+                CONTROLLER_CALL.remove();
+            }
+        };
+    }
+
+    private static Outcome outcomeOf(Object result) {
+        return result instanceof ResponseEntity ? Outcome.of(((ResponseEntity<?>) result).getStatusCode())
+                : Outcome.SUCCESS;
+    }
+
+    private static Throwable unwrap(Throwable error) {
+        return error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+    }
+
+    private void record(ProceedingJoinPoint joinPoint, Layer layer, Outcome outcome, long start) {
+        timer(joinPoint, layer, outcome).record(registry.config().clock().monotonicTime() - start,
+                TimeUnit.NANOSECONDS);
+    }
+
+    private Timer timer(ProceedingJoinPoint joinPoint, Layer layer, Outcome outcome) {
+        Class<?> type = joinPoint.getThis().getClass();
+        Method method = ((MethodSignature) joinPoint.getSignature()).getMethod();
+        Timer[] byOutcome = timers.computeIfAbsent(type, key -> new ConcurrentHashMap<>())
+                .computeIfAbsent(method, key -> new Timer[OUTCOMES.length]);
+        Timer timer = byOutcome[outcome.ordinal()];
+        if (timer == null) {
+            timer = Timer.builder(TIMER_NAME)
+                    .description("Time taken by controller, service and repository methods")
+                    .tag("layer", layer.tag)
+                    .tag("class", componentName(type))
+                    .tag("method", method.getName())
+                    .tag("outcome", outcome.getTag())
+                    .register(registry);
+            byOutcome[outcome.ordinal()] = timer;
+        }
+        return timer;
+    }
+
+    /**
+     * Names the component behind a proxy: the application interface of a JDK proxy, such as a
+     * Spring Data repository, or the user class of a CGLIB proxy.
+     */
+    static String componentName(Class<?> proxyType) {
+        Class<?> type = ClassUtils.getUserClass(proxyType);
+        if (Proxy.isProxyClass(type)) {
+            for (Class<?> candidate : type.getInterfaces()) {
+                if (candidate.getName().startsWith(BASE_PACKAGE)) {
+                    return candidate.getSimpleName();
+                }
+            }
+        }
+        return type.getSimpleName();
+    }
+
+    /**
+     * A controller call, shared with the executor threads that serve it.
+     */
+    private static final class ControllerCall {
+
+        private volatile Outcome serviceFailure;
+
+        Outcome outcome(Outcome outcome) {
+            Outcome failure = serviceFailure;
+            return failure != null && outcome != Outcome.SUCCESS ? failure : outcome;
+        }
+    }
+
+    private enum Layer {
+
+        CONTROLLER("controller"),
+
+        SERVICE("service"),
+
+        REPOSITORY("repository");
+
+        private final String tag;
+
+        Layer(String tag) {
+            this.tag = tag;
+        }
+    }
+}
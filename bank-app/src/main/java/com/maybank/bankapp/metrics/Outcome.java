@@ -0,0 +1,76 @@
+package com.maybank.bankapp.metrics;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import com.maybank.bankapp.exception.InsufficientFundsException;
+import com.maybank.bankapp.exception.ResourceNotFoundException;
+
+/**
+ * The outcome tag of a timed call.
+ */
+public enum Outcome {
+
+    SUCCESS("success"),
+
+    NOT_FOUND("not_found"),
+
+    INSUFFICIENT_FUNDS("insufficient_funds"),
+
+    CLIENT_ERROR("client_error"),
+
+    ERROR("error");
+
+    private final String tag;
+
+    Outcome(String tag) {
+        this.tag = tag;
+    }
+
+    /**
+     * Retrieves the value of the outcome tag.
+     *
+     * @return The tag value.
+     */
+    public String getTag() {
+        return tag;
+    }
+
+    /**
+     * Classifies a call that ended with an exception.
+     *
+     * @param throwable The exception.
+     * @return The outcome.
+     */
+    public static Outcome of(Throwable throwable) {
+        if (throwable instanceof InsufficientFundsException) {
+            return INSUFFICIENT_FUNDS;
+        }
+        if (throwable instanceof ResourceNotFoundException) {
+            return NOT_FOUND;
+        }
+        if (throwable instanceof ResponseStatusException) {
+            return of(((ResponseStatusException) throwable).getStatus());
+        }
+        if (throwable instanceof IllegalArgumentException) {
+            return CLIENT_ERROR;
+        }
+        return ERROR;
+    }
+
+    /**
+     * Classifies a call that returned a response with the given status.
+     *
+     * @param status The status of the response.
+     * @return The outcome.
+     */
+    public static Outcome of(HttpStatus status) {
+        if (status == HttpStatus.NOT_FOUND) {
+            return NOT_FOUND;
+        }
+        if (status.is4xxClientError()) {
+            return CLIENT_ERROR;
+        }
+        return status.is5xxServerError() ? ERROR : SUCCESS;
+    }
+}
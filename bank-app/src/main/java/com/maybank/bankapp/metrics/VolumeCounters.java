@@ -0,0 +1,101 @@
+package com.maybank.bankapp.metrics;
+
+import java.math.BigDecimal;
+
+import com.maybank.bankapp.money.Money;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * VolumeCounters counts the money moved by deposits and withdrawals with the
+ * {@value #DEPOSIT_VOLUME} and {@value #WITHDRAW_VOLUME} counters, in major units and tagged with
+ * the channel the money moved through. The counters are registered once, so counting an amount
+ * is a single add.
+ */
+public class VolumeCounters {
+
+    /**
+     * Name of the counter of deposited money.
+     */
+    public static final String DEPOSIT_VOLUME = "bank.deposit.volume";
+
+    /**
+     * Name of the counter of withdrawn money.
+     */
+    public static final String WITHDRAW_VOLUME = "bank.withdraw.volume";
+
+    private static final double MINOR_UNITS_PER_MAJOR = BigDecimal.ONE.movePointRight(Money.SCALE).doubleValue();
+
+    private final Counter[] deposits = new Counter[Channel.values().length];
+
+    private final Counter[] withdrawals = new Counter[Channel.values().length];
+
+    /**
+     * Constructs a new VolumeCounters and registers its counters.
+     *
+     * @param registry The registry the counters are registered with.
+     */
+    public VolumeCounters(MeterRegistry registry) {
+        for (Channel channel : Channel.values()) {
+            deposits[channel.ordinal()] = counter(registry, DEPOSIT_VOLUME, "Money deposited into accounts", channel);
+            withdrawals[channel.ordinal()] = counter(registry, WITHDRAW_VOLUME, "Money withdrawn from accounts",
+                    channel);
+        }
+    }
+
+    /**
+     * Counts a deposit.
+     *
+     * @param channel The channel the deposit was made through.
+     * @param amount  The amount deposited, in minor units.
+     */
+    public void deposited(Channel channel, long amount) {
+        deposits[channel.ordinal()].increment(amount / MINOR_UNITS_PER_MAJOR);
+    }
+
+    /**
+     * Counts a withdrawal.
+     *
+     * @param channel The channel the withdrawal was made through.
+     * @param amount  The amount withdrawn, in minor units.
+     */
+    public void withdrawn(Channel channel, long amount) {
+        withdrawals[channel.ordinal()].increment(amount / MINOR_UNITS_PER_MAJOR);
+    }
+
+    private static Counter counter(MeterRegistry registry, String name, String description, Channel channel) {
+        return Counter.builder(name)
+                .description(description)
+                .baseUnit("major_units")
+                .tag("channel", channel.getTag())
+                .register(registry);
+    }
+
+    /**
+     * The channel money moved through.
+     */
+    public enum Channel {
+
+        SINGLE("single"),
+
+        BATCH("batch"),
+
+        TRANSFER("transfer");
+
+        private final String tag;
+
+        Channel(String tag) {
+            this.tag = tag;
+        }
+
+        /**
+         * Retrieves the value of the channel tag.
+         *
+         * @return The tag value.
+         */
+        public String getTag() {
+            return tag;
+        }
+    }
+}
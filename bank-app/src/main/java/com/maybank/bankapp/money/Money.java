@@ -0,0 +1,180 @@
+package com.maybank.bankapp.money;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonValue;
+
+/**
+ * Money is an immutable amount held as a whole number of minor units (cents).
+ * <p>
+ * Amounts are exact: converting from a decimal with more than {@link #SCALE} fraction digits is
+ * rejected instead of rounded, and every arithmetic operation fails on overflow. The static
+ * {@link #add(long, long)} and {@link #subtract(long, long)} methods work on raw minor units and
+ * allocate nothing, for use on hot paths that keep balances as {@code long}. In JSON a Money is
+ * written and read as a plain decimal number, e.g. {@code 100.25}.
+ */
+public final class Money implements Comparable<Money>, Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * Number of fraction digits of the major unit.
+     */
+    public static final int SCALE = 2;
+
+    /**
+     * The amount zero.
+     */
+    public static final Money ZERO = new Money(0);
+
+    private final long minorUnits;
+
+    private Money(long minorUnits) {
+        this.minorUnits = minorUnits;
+    }
+
+    /**
+     * Creates an amount from a number of minor units.
+     *
+     * @param minorUnits The amount in minor units.
+     * @return The amount.
+     */
+    public static Money ofMinor(long minorUnits) {
+        return minorUnits == 0 ? ZERO : new Money(minorUnits);
+    }
+
+    /**
+     * Creates an amount from a decimal number of major units.
+     *
+     * @param amount The amount in major units.
+     * @return The amount.
+     * @throws IllegalArgumentException if the amount has more than two fraction digits or does not fit.
+     */
+    @JsonCreator
+    public static Money of(BigDecimal amount) {
+        try {
+            return ofMinor(amount.setScale(SCALE, RoundingMode.UNNECESSARY).unscaledValue().longValueExact());
+        } catch (ArithmeticException e) {
+            throw new IllegalArgumentException("Invalid amount: " + amount.toPlainString(), e);
+        }
+    }
+
+    /**
+     * Parses an amount written as a decimal number of major units, e.g. "100.25". Spring uses this
+     * method to convert request parameters.
+     *
+     * @param text The amount in major units.
+     * @return The amount.
+     * @throws IllegalArgumentException if the text is not a valid amount.
+     */
+    public static Money valueOf(String text) {
+        try {
+            return of(new BigDecimal(text.trim()));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid amount: " + text, e);
+        }
+    }
+
+    /**
+     * Adds two amounts given in minor units.
+     *
+     * @param a The first amount in minor units.
+     * @param b The second amount in minor units.
+     * @return The sum in minor units.
+     * @throws ArithmeticException if the result overflows.
+     */
+    public static long add(long a, long b) {
+        long result = a + b;
+        if (((a ^ result) & (b ^ result)) < 0) {
+            throw new ArithmeticException("Amount overflow");
+        }
+        return result;
+    }
+
+    /**
+     * Subtracts two amounts given in minor units.
+     *
+     * @param a The amount to subtract from, in minor units.
+     * @param b The amount to subtract, in minor units.
+     * @return The difference in minor units.
+     * @throws ArithmeticException if the result overflows.
+     */
+    public static long subtract(long a, long b) {
+        long result = a - b;
+        if (((a ^ b) & (a ^ result)) < 0) {
+            throw new ArithmeticException("Amount overflow");
+        }
+        return result;
+    }
+
+    /**
+     * Retrieves the amount in minor units.
+     *
+     * @return The amount in minor units.
+     */
+    public long getMinorUnits() {
+        return minorUnits;
+    }
+
+    /**
+     * Adds another amount to this one.
+     *
+     * @param other The amount to add.
+     * @return The sum.
+     */
+    public Money plus(Money other) {
+        return ofMinor(add(minorUnits, other.minorUnits));
+    }
+
+    /**
+     * Subtracts another amount from this one.
+     *
+     * @param other The amount to subtract.
+     * @return The difference.
+     */
+    public Money minus(Money other) {
+        return ofMinor(subtract(minorUnits, other.minorUnits));
+    }
+
+    /**
+     * Indicates whether the amount is greater than zero.
+     *
+     * @return true if the amount is positive.
+     */
+    public boolean isPositive() {
+        return minorUnits > 0;
+    }
+
+    /**
+     * Converts the amount to a decimal number of major units.
+     *
+     * @return The amount in major units with two fraction digits.
+     */
+    @JsonValue
+    public BigDecimal toBigDecimal() {
+        return BigDecimal.valueOf(minorUnits, SCALE);
+    }
+
+    @Override
+    public int compareTo(Money other) {
+        return Long.compare(minorUnits, other.minorUnits);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        return obj instanceof Money && ((Money) obj).minorUnits == minorUnits;
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(minorUnits);
+    }
+
+    @Override
+    public String toString() {
+        return toBigDecimal().toPlainString();
+    }
+}
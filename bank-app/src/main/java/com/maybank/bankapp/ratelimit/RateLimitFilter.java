@@ -0,0 +1,261 @@
+package com.maybank.bankapp.ratelimit;
+
+import java.io.IOException;
+import java.security.Principal;
+import java.time.Duration;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.maybank.bankapp.exception.ErrorResponse;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * RateLimitFilter admits requests to the account endpoints through {@link TokenBucket}s, so a
+ * runaway client cannot monopolise the application or a single account.
+ * <p>
+ * Every request to /accounts takes a token from the bucket of its client, identified by the
+ * authenticated user or else the remote address. Balance and status changes also take a token from
+ * the bucket of the account they change: the account in the path, or the account debited by a
+ * transfer. A request finding a bucket empty is answered with 429 and a Retry-After header.
+ * <p>
+ * The buckets are kept in concurrent maps and updated without locks. Buckets that have been full
+ * for idle-timeout are removed every eviction-interval. Rejections are counted in
+ * bank.rate-limit.rejected and the buckets held in bank.rate-limit.buckets, both tagged with the
+ * kind of key.
+ */
+@Component
+@ConditionalOnProperty(prefix = "bank.rate-limit", name = "enabled", matchIfMissing = true)
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(RateLimitFilter.class);
+
+    private static final long NANOS_PER_SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    private static final String ACCOUNTS_PATH = "/accounts/";
+
+    private static final String TRANSFER_PATH = ACCOUNTS_PATH + "transfer";
+
+    private static final String FROM_ACCOUNT_PARAM = "fromAccountId";
+
+    private final Limit clientLimit;
+
+    private final Limit accountLimit;
+
+    private final Duration idleTimeout;
+
+    private final Duration evictionInterval;
+
+    private final ObjectMapper objectMapper;
+
+    private final ConcurrentMap<String, TokenBucket> clientBuckets = new ConcurrentHashMap<>();
+
+    private final ConcurrentMap<Long, TokenBucket> accountBuckets = new ConcurrentHashMap<>();
+
+    private final Counter clientRejections;
+
+    private final Counter accountRejections;
+
+    private ScheduledExecutorService evictor;
+
+    /**
+     * The size and refill rate of the buckets of one kind of key.
+     */
+    private static final class Limit {
+
+        private final long capacity;
+
+        private final long nanosPerToken;
+
+        private Limit(long capacity, double refillPerSecond) {
+            this.capacity = Math.max(1, capacity);
+            this.nanosPerToken = Math.max(1, Math.round(NANOS_PER_SECOND / refillPerSecond));
+        }
+
+        private TokenBucket newBucket(long now) {
+            return new TokenBucket(capacity, nanosPerToken, now);
+        }
+    }
+
+    /**
+     * Constructs a new RateLimitFilter.
+     *
+     * @param clientCapacity         The burst a client may send at once.
+     * @param clientRefillPerSecond  The sustained requests per second of a client.
+     * @param accountCapacity        The burst of changes an account accepts at once.
+     * @param accountRefillPerSecond The sustained changes per second of an account.
+     * @param idleTimeout            How long a bucket stays full before it is removed.
+     * @param evictionInterval       How often idle buckets are removed.
+     * @param objectMapper           The mapper the rejection bodies are written with.
+     * @param meterRegistry          The registry the rejections are counted in.
+     */
+    @Autowired
+    public RateLimitFilter(@Value("${bank.rate-limit.client.capacity:200}") long clientCapacity,
+            @Value("${bank.rate-limit.client.refill-per-second:100}") double clientRefillPerSecond,
+            @Value("${bank.rate-limit.account.capacity:20}") long accountCapacity,
+            @Value("${bank.rate-limit.account.refill-per-second:10}") double accountRefillPerSecond,
+            @Value("${bank.rate-limit.idle-timeout:10m}") Duration idleTimeout,
+            @Value("${bank.rate-limit.eviction-interval:1m}") Duration evictionInterval,
+            ObjectMapper objectMapper, MeterRegistry meterRegistry) {
+        this.clientLimit = new Limit(clientCapacity, clientRefillPerSecond);
+        this.accountLimit = new Limit(accountCapacity, accountRefillPerSecond);
+        this.idleTimeout = idleTimeout;
+        this.evictionInterval = evictionInterval;
+        this.objectMapper = objectMapper;
+        this.clientRejections = rejections(meterRegistry, "client");
+        this.accountRejections = rejections(meterRegistry, "account");
+        Gauge.builder("bank.rate-limit.buckets", clientBuckets, ConcurrentMap::size)
+                .description("Rate limit buckets held in memory")
+                .tag("key", "client")
+                .register(meterRegistry);
+        Gauge.builder("bank.rate-limit.buckets", accountBuckets, ConcurrentMap::size)
+                .description("Rate limit buckets held in memory")
+                .tag("key", "account")
+                .register(meterRegistry);
+    }
+
+    private static Counter rejections(MeterRegistry meterRegistry, String key) {
+        return Counter.builder("bank.rate-limit.rejected")
+                .description("Requests rejected because a rate limit bucket was empty")
+                .tag("key", key)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Starts the background removal of idle buckets.
+     */
+    @PostConstruct
+    public void start() {
+        if (evictionInterval.isZero() || evictionInterval.isNegative()) {
+            return;
+        }
+        evictor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "rate-limit-evictor");
+            thread.setDaemon(true);
+            return thread;
+        });
+        evictor.scheduleWithFixedDelay(() -> evictIdle(System.nanoTime()), evictionInterval.toMillis(),
+                evictionInterval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Stops the background removal of idle buckets.
+     */
+    @PreDestroy
+    public void stop() {
+        if (evictor != null) {
+            evictor.shutdownNow();
+        }
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !path(request).startsWith(ACCOUNTS_PATH);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        long now = System.nanoTime();
+        String client = client(request);
+        long wait = clientBuckets.computeIfAbsent(client, key -> clientLimit.newBucket(now)).tryAcquire(now);
+        if (wait > 0) {
+            clientRejections.increment();
+            LOGGER.warn("Rejected request of client {}: rate limit exceeded", client);
+            reject(response, wait, "Too many requests from this client");
+            return;
+        }
+        Long accountId = changedAccount(request);
+        if (accountId != null) {
+            wait = accountBuckets.computeIfAbsent(accountId, key -> accountLimit.newBucket(now)).tryAcquire(now);
+            if (wait > 0) {
+                accountRejections.increment();
+                LOGGER.warn("Rejected request for account {}: rate limit exceeded", accountId);
+                reject(response, wait, "Too many requests for account " + accountId);
+                return;
+            }
+        }
+        chain.doFilter(request, response);
+    }
+
+    /**
+     * Removes the buckets that have been full for the idle timeout. A request racing with the
+     * removal may take its token from the removed bucket, which costs at most that one token.
+     *
+     * @param now The current time in nanoseconds.
+     */
+    void evictIdle(long now) {
+        long idleSince = now - idleTimeout.toNanos();
+        clientBuckets.entrySet().removeIf(entry -> entry.getValue().isFullSince(idleSince));
+        accountBuckets.entrySet().removeIf(entry -> entry.getValue().isFullSince(idleSince));
+    }
+
+    private void reject(HttpServletResponse response, long waitNanos, String message) throws IOException {
+        long retryAfterSeconds = Math.max(1, (waitNanos + NANOS_PER_SECOND - 1) / NANOS_PER_SECOND);
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        objectMapper.writeValue(response.getOutputStream(),
+                new ErrorResponse(HttpStatus.TOO_MANY_REQUESTS.value(), message));
+    }
+
+    private static String path(HttpServletRequest request) {
+        return request.getRequestURI().substring(request.getContextPath().length());
+    }
+
+    private static String client(HttpServletRequest request) {
+        Principal principal = request.getUserPrincipal();
+        return principal != null ? principal.getName() : request.getRemoteAddr();
+    }
+
+    /**
+     * Returns the account a request changes, or null for reads, batches and unparseable IDs.
+     */
+    private static Long changedAccount(HttpServletRequest request) {
+        if (!HttpMethod.POST.matches(request.getMethod())) {
+            return null;
+        }
+        String path = path(request);
+        if (path.equals(TRANSFER_PATH)) {
+            return parseId(request.getParameter(FROM_ACCOUNT_PARAM));
+        }
+        int end = path.indexOf('/', ACCOUNTS_PATH.length());
+        return parseId(end < 0 ? null : path.substring(ACCOUNTS_PATH.length(), end));
+    }
+
+    private static Long parseId(String id) {
+        if (id == null) {
+            return null;
+        }
+        try {
+            return Long.valueOf(id);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+}
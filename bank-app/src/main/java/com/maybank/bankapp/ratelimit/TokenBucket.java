@@ -0,0 +1,64 @@
+package com.maybank.bankapp.ratelimit;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * TokenBucket is a lock-free token bucket.
+ * <p>
+ * Instead of a token count and a last-refill time, which could not be updated together by one
+ * compare-and-set, the bucket keeps the single time at which it will be full again. The tokens
+ * available at any moment follow from that time, so refilling is part of taking a token and both
+ * happen in one compare-and-set on a single long.
+ */
+final class TokenBucket {
+
+    private final long capacity;
+
+    private final long nanosPerToken;
+
+    private final AtomicLong fullAt;
+
+    /**
+     * Constructs a new TokenBucket, initially full.
+     *
+     * @param capacity      The maximum number of tokens, the largest burst admitted at once.
+     * @param nanosPerToken The time it takes to refill one token.
+     * @param now           The current time in nanoseconds.
+     */
+    TokenBucket(long capacity, long nanosPerToken, long now) {
+        this.capacity = capacity;
+        this.nanosPerToken = nanosPerToken;
+        this.fullAt = new AtomicLong(now);
+    }
+
+    /**
+     * Takes a token if one is available.
+     *
+     * @param now The current time in nanoseconds.
+     * @return 0 if a token was taken, otherwise the nanoseconds until the next token is available.
+     */
+    long tryAcquire(long now) {
+        long current;
+        long next;
+        do {
+            current = fullAt.get();
+            next = Math.max(current, now) + nanosPerToken;
+            long wait = next - now - capacity * nanosPerToken;
+            if (wait > 0) {
+                return wait;
+            }
+        } while (!fullAt.compareAndSet(current, next));
+        return 0;
+    }
+
+    /**
+     * Tells whether the bucket has been full since before the given time. Such a bucket holds no
+     * state worth keeping, as a new bucket would start out full as well.
+     *
+     * @param time A time in nanoseconds.
+     * @return true if the bucket was full at that time.
+     */
+    boolean isFullSince(long time) {
+        return fullAt.get() - time <= 0;
+    }
+}
@@ -0,0 +1,30 @@
+package com.maybank.bankapp.repository;
+
+import java.util.Optional;
+
+import javax.persistence.LockModeType;
+
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import com.maybank.bankapp.entity.AccountNumberBlock;
+
+/**
+ * The repository interface for managing AccountNumberBlock entities.
+ */
+@Repository
+public interface AccountNumberBlockRepository extends CrudRepository<AccountNumberBlock, String> {
+
+    /**
+     * Retrieves a number range and locks its row until the end of the current transaction.
+     *
+     * @param name The name of the number range.
+     * @return An Optional containing the number range if found, otherwise empty.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select b from AccountNumberBlock b where b.name = :name")
+    Optional<AccountNumberBlock> findForUpdate(@Param("name") String name);
+}
@@ -1,17 +1,24 @@
 package com.maybank.bankapp.repository;
 
+import java.util.List;
 import java.util.Optional;
 
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import com.maybank.bankapp.dto.AccountSummary;
 import com.maybank.bankapp.entity.Account;
 
 /**
  * The repository interface for managing Account entities.
  */
 @Repository
-public interface AccountRepository extends CrudRepository<Account, String> {
+public interface AccountRepository extends CrudRepository<Account, Long> {
 
     /**
      * Retrieves an account by its unique identifier.
@@ -29,5 +36,96 @@ public interface AccountRepository extends CrudRepository<Account, String> {
      */
     @SuppressWarnings("unchecked")
     Account save(Account account);
-}
 
+    /**
+     * Overwrites the balance of an account without loading it first, provided it still has the
+     * given version, and increments the version.
+     *
+     * @param id      The unique identifier of the account.
+     * @param balance The new balance of the account, in minor units.
+     * @param version The version the new balance was computed from.
+     * @return The number of rows updated, 0 if the account was changed in the meantime.
+     */
+    @Modifying
+    @Transactional
+    @Query("update Account a set a.balance = :balance, a.version = a.version + 1"
+            + " where a.id = :id and a.version = :version")
+    int updateBalance(@Param("id") Long id, @Param("balance") long balance, @Param("version") long version);
+
+    /**
+     * Overwrites the status of an account without loading it first, provided it still has the
+     * given version, and increments the version.
+     *
+     * @param id      The unique identifier of the account.
+     * @param status  The new status of the account.
+     * @param version The version the change was made from.
+     * @return The number of rows updated, 0 if the account was changed in the meantime.
+     */
+    @Modifying
+    @Transactional
+    @Query("update Account a set a.status = :status, a.version = a.version + 1"
+            + " where a.id = :id and a.version = :version")
+    int updateStatus(@Param("id") Long id, @Param("status") String status, @Param("version") long version);
+
+    /**
+     * Restores the balance of an account from the journal, unless the row is already at the given
+     * version or a later one. Used to restore balances from the journal, which may lag behind the
+     * database after a crash.
+     *
+     * @param id      The unique identifier of the account.
+     * @param balance The balance to restore, in minor units.
+     * @param version The version of the account after the journaled change.
+     * @return The number of rows updated, 0 if the row is unknown or not older than the journal.
+     */
+    @Modifying
+    @Transactional
+    @Query("update Account a set a.balance = :balance, a.version = :version"
+            + " where a.id = :id and a.version < :version")
+    int restoreBalance(@Param("id") Long id, @Param("balance") long balance, @Param("version") long version);
+
+    /**
+     * Restores the status of an account from the journal, unless the row is already at the given
+     * version or a later one.
+     *
+     * @param id      The unique identifier of the account.
+     * @param status  The status to restore.
+     * @param version The version of the account after the journaled change.
+     * @return The number of rows updated, 0 if the row is unknown or not older than the journal.
+     */
+    @Modifying
+    @Transactional
+    @Query("update Account a set a.status = :status, a.version = :version"
+            + " where a.id = :id and a.version < :version")
+    int restoreStatus(@Param("id") Long id, @Param("status") String status, @Param("version") long version);
+
+    /**
+     * Retrieves a snapshot of an account. The columns are selected into a new Account by a
+     * constructor projection, so the read neither registers an entity in the persistence context
+     * nor creates a proxy of its customer.
+     *
+     * @param id The unique identifier of the account.
+     * @return The snapshot of the account, or empty if the account does not exist.
+     */
+    @Query("select new com.maybank.bankapp.entity.Account(a.id, a.type, a.balance, a.status, a.customerId, a.version)"
+            + " from Account a where a.id = :id")
+    Optional<Account> findSnapshotById(@Param("id") Long id);
+
+    /**
+     * Retrieves the accounts of a customer whose ID is greater than a cursor, in ID order. The
+     * query reads the customer_id, id index range directly instead of skipping over earlier rows,
+     * and selects only the summary columns, so the customer is not loaded.
+     *
+     * @param customerId The unique identifier of the customer.
+     * @param cursor     Only accounts with a greater ID are returned.
+     * @param type       The account type to match, or null for any type.
+     * @param status     The account status to match, or null for any status.
+     * @param pageable   The maximum number of accounts to return; only the page size is used.
+     * @return The matching accounts, ordered by ID.
+     */
+    @Query("select new com.maybank.bankapp.dto.AccountSummary(a.id, a.type, a.balance, a.status) from Account a"
+            + " where a.customer.id = :customerId and a.id > :cursor"
+            + " and (:type is null or a.type = :type) and (:status is null or a.status = :status)"
+            + " order by a.id")
+    List<AccountSummary> findPageByCustomer(@Param("customerId") Long customerId, @Param("cursor") Long cursor,
+            @Param("type") String type, @Param("status") String status, Pageable pageable);
+}
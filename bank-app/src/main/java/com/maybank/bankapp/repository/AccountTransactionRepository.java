@@ -0,0 +1,42 @@
+package com.maybank.bankapp.repository;
+
+import static org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.QueryHints.HINT_READONLY;
+
+import java.time.Instant;
+import java.util.stream.Stream;
+
+import javax.persistence.QueryHint;
+
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import com.maybank.bankapp.dto.StatementLine;
+import com.maybank.bankapp.entity.AccountTransaction;
+
+/**
+ * The repository interface for managing AccountTransaction entities.
+ */
+@Repository
+public interface AccountTransactionRepository extends CrudRepository<AccountTransaction, Long> {
+
+    /**
+     * Streams the transactions of an account in a time range, oldest first. The rows are read
+     * through a forward-only cursor that fetches a limited number of rows at a time, so the whole
+     * range is never held in memory. The stream must be consumed, and closed, inside a transaction.
+     *
+     * @param accountId The ID of the account.
+     * @param from      The start of the range, inclusive.
+     * @param to        The end of the range, exclusive.
+     * @return The statement lines of the range.
+     */
+    @QueryHints({ @QueryHint(name = HINT_FETCH_SIZE, value = "500"), @QueryHint(name = HINT_READONLY, value = "true") })
+    @Query("select new com.maybank.bankapp.dto.StatementLine(t.id, t.createdAt, t.type, t.amount, t.balance)"
+            + " from AccountTransaction t where t.accountId = :accountId"
+            + " and t.createdAt >= :from and t.createdAt < :to order by t.createdAt, t.id")
+    Stream<StatementLine> streamStatement(@Param("accountId") Long accountId, @Param("from") Instant from,
+            @Param("to") Instant to);
+}
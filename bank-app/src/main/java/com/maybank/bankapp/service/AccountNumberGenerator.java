@@ -0,0 +1,146 @@
+package com.maybank.bankapp.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.maybank.bankapp.datasource.Shards;
+import com.maybank.bankapp.entity.AccountNumberBlock;
+import com.maybank.bankapp.repository.AccountNumberBlockRepository;
+
+/**
+ * AccountNumberGenerator hands out unique 10-digit account numbers.
+ * <p>
+ * An account number is a 9-digit base followed by a Luhn check digit. Bases are reserved from the
+ * account_number_block table in blocks, in a transaction of their own, so numbers are never
+ * handed out twice even across restarts or several application instances. Within a block the
+ * numbers are handed out from memory. The blocks are always reserved on shard 0. The row of the
+ * range is created by the first reservation; when several instances create it at the same time,
+ * the inserts that lose on the primary key reserve again from the row that won.
+ */
+@Service
+public class AccountNumberGenerator {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(AccountNumberGenerator.class);
+
+    private static final String RANGE_NAME = "account";
+
+    private static final long MAX_BASE = 999_999_999L;
+
+    private final AccountNumberBlockRepository blockRepository;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final Shards shards;
+
+    private final long firstBase;
+
+    private final int blockSize;
+
+    private long next;
+
+    private long limit;
+
+    /**
+     * Constructs a new AccountNumberGenerator.
+     *
+     * @param blockRepository    The repository holding the reserved ranges.
+     * @param transactionManager The transaction manager used to reserve blocks.
+     * @param shards             The shards, of which shard 0 holds the reserved ranges.
+     * @param firstBase          The first base handed out when the range is created.
+     * @param blockSize          The number of bases reserved at a time.
+     */
+    @Autowired
+    public AccountNumberGenerator(AccountNumberBlockRepository blockRepository,
+            PlatformTransactionManager transactionManager, Shards shards,
+            @Value("${bank.account-number.first-base:100000000}") long firstBase,
+            @Value("${bank.account-number.block-size:1000}") int blockSize) {
+        this.blockRepository = blockRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.shards = shards;
+        this.firstBase = firstBase;
+        this.blockSize = blockSize;
+    }
+
+    /**
+     * Returns the next unused account number.
+     *
+     * @return A 10-digit account number whose last digit is a Luhn check digit.
+     */
+    public long nextAccountNumber() {
+        long base = nextBase();
+        return base * 10 + checkDigit(base);
+    }
+
+    /**
+     * Checks whether the last digit of an account number is the Luhn check digit of the others.
+     *
+     * @param accountNumber The account number to check.
+     * @return true if the check digit matches.
+     */
+    public static boolean isValid(long accountNumber) {
+        return accountNumber > 0 && checkDigit(accountNumber / 10) == accountNumber % 10;
+    }
+
+    private synchronized long nextBase() {
+        if (next >= limit) {
+            reserveBlock();
+        }
+        return next++;
+    }
+
+    private void reserveBlock() {
+        Long start;
+        try (Shards.Scope shard = shards.forShard(0)) {
+            try {
+                start = transactionTemplate.execute(status -> reserve());
+            } catch (DataIntegrityViolationException e) {
+                LOGGER.info("Account number range was created concurrently, reserving again");
+                start = transactionTemplate.execute(status -> reserve());
+            }
+        }
+        if (start + blockSize - 1 > MAX_BASE) {
+            throw new IllegalStateException("Account number range is exhausted");
+        }
+        next = start;
+        limit = start + blockSize;
+        LOGGER.info("Reserved account number block starting at base {}", start);
+    }
+
+    /**
+     * Reserves the next block from the locked row of the range, creating the row if it does not
+     * exist yet. Must be called in a transaction on shard 0.
+     */
+    private long reserve() {
+        AccountNumberBlock block = blockRepository.findForUpdate(RANGE_NAME)
+                .orElseGet(() -> new AccountNumberBlock(RANGE_NAME, firstBase));
+        long reserved = block.getNextValue();
+        block.setNextValue(reserved + blockSize);
+        blockRepository.save(block);
+        return reserved;
+    }
+
+    private static long checkDigit(long base) {
+        int sum = 0;
+        boolean doubled = true;
+        for (long rest = base; rest > 0; rest /= 10) {
+            int digit = (int) (rest % 10);
+            if (doubled) {
+                digit *= 2;
+                if (digit > 9) {
+                    digit -= 9;
+                }
+            }
+            sum += digit;
+            doubled = !doubled;
+        }
+        return (10 - sum % 10) % 10;
+    }
+}
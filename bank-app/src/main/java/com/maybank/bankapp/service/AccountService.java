@@ -1,7 +1,15 @@
 package com.maybank.bankapp.service;
 
+import java.util.List;
+import java.util.OptionalLong;
+
+import com.maybank.bankapp.dto.AccountPage;
+import com.maybank.bankapp.dto.BatchOperation;
+import com.maybank.bankapp.dto.BatchOperationResult;
+import com.maybank.bankapp.dto.TransferResult;
 import com.maybank.bankapp.entity.Account;
 import com.maybank.bankapp.exception.ResourceNotFoundException;
+import com.maybank.bankapp.money.Money;
 
 public interface AccountService {
 
@@ -9,10 +17,23 @@ public interface AccountService {
 
 	Account getAccountById(Long id) throws ResourceNotFoundException;
 
-	Account deposit(Long accountId, double amount) throws ResourceNotFoundException;
+	Account deposit(Long accountId, Money amount) throws ResourceNotFoundException;
+
+	Account deposit(Long accountId, Money amount, String idempotencyKey) throws ResourceNotFoundException;
 
-	Account withdraw(Long accountId, double amount) throws ResourceNotFoundException;
+	Account withdraw(Long accountId, Money amount) throws ResourceNotFoundException;
+
+	Account withdraw(Long accountId, Money amount, String idempotencyKey) throws ResourceNotFoundException;
 
 	Account closeAccount(Long accountId) throws ResourceNotFoundException;
 
+	TransferResult transfer(Long fromAccountId, Long toAccountId, Money amount) throws ResourceNotFoundException;
+
+	List<BatchOperationResult> applyBatch(List<BatchOperation> operations);
+
+	AccountPage getAccountsByCustomer(Long customerId, Long cursor, String type, String status, int limit)
+			throws ResourceNotFoundException;
+
+	OptionalLong findCachedVersion(Long accountId);
+
 }
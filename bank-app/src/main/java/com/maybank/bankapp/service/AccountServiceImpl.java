@@ -1,22 +1,49 @@
 package com.maybank.bankapp.service;
 
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
 import java.util.Optional;
-import java.util.Random;
+import java.util.OptionalLong;
+import java.util.stream.Collectors;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.CachePut;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import com.maybank.bankapp.config.CacheConfig;
+import com.maybank.bankapp.datasource.ReplicaRoutingDataSource;
+import com.maybank.bankapp.datasource.Shards;
+import com.maybank.bankapp.dto.AccountPage;
+import com.maybank.bankapp.dto.AccountSummary;
+import com.maybank.bankapp.dto.BatchOperation;
+import com.maybank.bankapp.dto.BatchOperationResult;
+import com.maybank.bankapp.dto.BatchResult;
+import com.maybank.bankapp.dto.TransferResult;
 import com.maybank.bankapp.entity.Account;
 import com.maybank.bankapp.entity.Customer;
+import com.maybank.bankapp.exception.ErrorCode;
 import com.maybank.bankapp.exception.ResourceNotFoundException;
+import com.maybank.bankapp.money.Money;
 import com.maybank.bankapp.repository.AccountRepository;
 import com.maybank.bankapp.repository.CustomerRepository;
 
 /**
  * Implementation of the {@link AccountService} interface providing functionality
- * related to account management.
+ * related to account management. Balance and status changes that conflict with a concurrent
+ * change of the same account are retried by {@link OptimisticRetry}. Accounts are read and created
+ * on their shard; the accounts of a customer are gathered from all shards. The accounts cache holds
+ * the last known state of each account, which also serves the version behind its ETag. The cache
+ * only ever replaces an account with a newer version, so puts made after the change has released
+ * its lock cannot go back in time; snapshots of deposits committed in the middle of a group carry
+ * no version and are not cached. A request that reads its own writes bypasses the cache.
  */
 
 @Service
@@ -30,6 +57,27 @@ public class AccountServiceImpl implements AccountService {
 	@Autowired
 	private CustomerRepository customerRepository;
 
+	@Autowired
+	private BalanceEngine balanceEngine;
+
+	@Autowired
+	private GroupCommitter groupCommitter;
+
+	@Autowired
+	private OptimisticRetry optimisticRetry;
+
+	@Autowired
+	private CacheManager cacheManager;
+
+	@Autowired
+	private AccountNumberGenerator accountNumberGenerator;
+
+	@Autowired
+	private Shards shards;
+
+	@Autowired
+	private CustomerReplicator customerReplicator;
+
 	/**
      * Creates a new account for a customer.
      *
@@ -41,28 +89,50 @@ public class AccountServiceImpl implements AccountService {
 	@Override
 	public Account createAccount(String type, Long customerId) throws ResourceNotFoundException {
 		LOGGER.info("Creating account of type {} for customer with ID: {}", type, customerId);
-		Random random = new Random();
-		long accountNumber = Math.abs(random.nextLong()) % 10000000000L;
+		long accountNumber = accountNumberGenerator.nextAccountNumber();
 		Account account = new Account();
 		account.setId(accountNumber);
 		account.setType(type);
 		account.setStatus("Active");
 
-		Optional<Customer> customerOptional = customerRepository.findById(customerId);
-		if (customerOptional.isPresent()) {
-			Customer customer = customerOptional.get();
-			account.setCustomer(customer);
-		} else {
-			LOGGER.error("Customer with ID {} not found. Cannot create account.", customerId);
-			throw new ResourceNotFoundException(
-					"Cannot create account for customer id:" + customerId + " as customer id is not exist");
-		}
+		Account createdAccount;
+		int accountShard = shards.shardOf(accountNumber);
+		try (Shards.Scope shard = shards.forShard(accountShard)) {
+			Optional<Customer> customerOptional = customerRepository.findById(customerId);
+			if (!customerOptional.isPresent() && accountShard != 0) {
+				customerOptional = copyCustomer(customerId, accountShard);
+			}
+			if (customerOptional.isPresent()) {
+				Customer customer = customerOptional.get();
+				account.setCustomer(customer);
+			} else {
+				LOGGER.error("Customer with ID {} not found. Cannot create account.", customerId);
+				throw new ResourceNotFoundException(ErrorCode.CUSTOMER_NOT_FOUND,
+						"Cannot create account for customer id:" + customerId + " as customer id is not exist");
+			}
 
-		Account createdAccount = accountRepository.save(account);
+			createdAccount = accountRepository.save(account);
+		}
 		LOGGER.info("Account created successfully with ID: {}", createdAccount.getId());
 		return createdAccount;
 	}
 
+	/**
+	 * Copies a customer from shard 0 to the given shard, for a customer whose copy failed when it
+	 * was created.
+	 */
+	private Optional<Customer> copyCustomer(Long customerId, int shard) {
+		Optional<Customer> customer;
+		try (Shards.Scope source = shards.forShard(0)) {
+			customer = customerRepository.findById(customerId);
+		}
+		if (customer.isPresent()) {
+			LOGGER.warn("Customer {} is missing on shard {}, copying it from shard 0", customerId, shard);
+			customerReplicator.replicate(Collections.singletonList(customer.get()), shard);
+		}
+		return customer;
+	}
+
 	/**
      * Retrieves the account details for the given account ID.
      *
@@ -71,16 +141,18 @@ public class AccountServiceImpl implements AccountService {
      * @throws ResourceNotFoundException if the account with the given ID is not found.
      */
 	@Override
+	@Cacheable(cacheNames = CacheConfig.ACCOUNTS, key = "#id", condition = CacheConfig.NOT_READING_OWN_WRITES)
+	@Transactional(readOnly = true)
 	public Account getAccountById(Long id) throws ResourceNotFoundException {
 		LOGGER.info("Retrieving account details for ID: {}", id);
 
-		// Retrieve the account details from the repository
-		Account account = accountRepository.findById(id).orElseThrow(() -> {
-			LOGGER.error("Account not found with id: {}", id);
-			return new ResourceNotFoundException("Account not found with id: " + id);
-		});
-
-		return account;
+		// Retrieve a snapshot of the account from the repository of its shard
+		try (Shards.Scope shard = shards.forAccount(id)) {
+			return accountRepository.findSnapshotById(id).orElseThrow(() -> {
+				LOGGER.error("Account not found with id: {}", id);
+				return new ResourceNotFoundException(ErrorCode.ACCOUNT_NOT_FOUND, "Account not found with id: " + id);
+			});
+		}
 	}
 
 	 /**
@@ -92,11 +164,28 @@ public class AccountServiceImpl implements AccountService {
      * @throws ResourceNotFoundException if the account with the given ID is not found.
      */
 	@Override
-	public Account deposit(Long accountId, double amount) throws ResourceNotFoundException {
+	@CachePut(cacheNames = CacheConfig.ACCOUNTS, key = "#accountId")
+	public Account deposit(Long accountId, Money amount) throws ResourceNotFoundException {
+		return deposit(accountId, amount, null);
+	}
+
+	 /**
+     * Deposits the specified amount into the account with the given ID, recording the idempotency
+     * key of the request in the same transaction.
+     *
+     * @param accountId      The ID of the account to deposit into.
+     * @param amount         The amount to deposit.
+     * @param idempotencyKey The idempotency key of the request, or null.
+     * @return The updated account details after the deposit.
+     * @throws ResourceNotFoundException if the account with the given ID is not found.
+     */
+	@Override
+	@CachePut(cacheNames = CacheConfig.ACCOUNTS, key = "#accountId")
+	public Account deposit(Long accountId, Money amount, String idempotencyKey) throws ResourceNotFoundException {
 		LOGGER.info("Depositing {} amount into account with ID: {}", amount, accountId);
-		Account account = getAccountById(accountId);
-		account.setBalance(account.getBalance() + amount);
-		Account depositAccount = accountRepository.save(account);
+		Account depositAccount = optimisticRetry.execute(() -> idempotencyKey == null
+				? groupCommitter.deposit(accountId, amount.getMinorUnits())
+				: balanceEngine.deposit(accountId, amount.getMinorUnits(), idempotencyKey));
 		LOGGER.info("Amount {} deposited successfully into account with ID: {}", amount, accountId);
 		return depositAccount;
 	}
@@ -110,15 +199,27 @@ public class AccountServiceImpl implements AccountService {
      * @throws ResourceNotFoundException if the account with the given ID is not found or if there are insufficient funds.
      */
 	@Override
-	public Account withdraw(Long accountId, double amount) throws ResourceNotFoundException {
+	@CachePut(cacheNames = CacheConfig.ACCOUNTS, key = "#accountId")
+	public Account withdraw(Long accountId, Money amount) throws ResourceNotFoundException {
+		return withdraw(accountId, amount, null);
+	}
+
+	 /**
+     * Withdraws the specified amount from the account with the given ID, recording the idempotency
+     * key of the request in the same transaction.
+     *
+     * @param accountId      The ID of the account to withdraw from.
+     * @param amount         The amount to withdraw.
+     * @param idempotencyKey The idempotency key of the request, or null.
+     * @return The updated account details after the withdrawal.
+     * @throws ResourceNotFoundException if the account with the given ID is not found or if there are insufficient funds.
+     */
+	@Override
+	@CachePut(cacheNames = CacheConfig.ACCOUNTS, key = "#accountId")
+	public Account withdraw(Long accountId, Money amount, String idempotencyKey) throws ResourceNotFoundException {
 		LOGGER.info("Withdrawing {} amount from account with ID: {}", amount, accountId);
-		Account account = getAccountById(accountId);
-		if (account.getBalance() < amount) {
-			LOGGER.error("Insufficient funds in account: {}", accountId);
-			throw new ResourceNotFoundException("Insufficient funds in account: " + accountId);
-		}
-		account.setBalance(account.getBalance() - amount);
-		Account withdrawAccount = accountRepository.save(account);
+		Account withdrawAccount = optimisticRetry
+				.execute(() -> balanceEngine.withdraw(accountId, amount.getMinorUnits(), idempotencyKey));
 		LOGGER.info("Amount {} withdrawn successfully from account with ID: {}", amount, accountId);
 		return withdrawAccount;
 	}
@@ -131,12 +232,101 @@ public class AccountServiceImpl implements AccountService {
      * @throws ResourceNotFoundException if the account with the given ID is not found.
      */
 	@Override
+	@CachePut(cacheNames = CacheConfig.ACCOUNTS, key = "#accountId")
 	public Account closeAccount(Long accountId) throws ResourceNotFoundException {
 		LOGGER.info("Closing account with ID: {}", accountId);
-		Account closedAccount = getAccountById(accountId);
-		closedAccount.setStatus("Closed");
-		accountRepository.save(closedAccount);
+		Account closedAccount = optimisticRetry.execute(() -> balanceEngine.close(accountId));
 		LOGGER.info("Account with ID {} closed successfully", accountId);
 		return closedAccount;
 	}
+
+	/**
+     * Transfers the specified amount from one account to another atomically.
+     *
+     * @param fromAccountId The ID of the account to withdraw from.
+     * @param toAccountId   The ID of the account to deposit into.
+     * @param amount        The amount to transfer.
+     * @return The details of both accounts after the transfer.
+     * @throws ResourceNotFoundException if either account is not found or if there are insufficient funds.
+     */
+	@Override
+	public TransferResult transfer(Long fromAccountId, Long toAccountId, Money amount) throws ResourceNotFoundException {
+		LOGGER.info("Transferring {} amount from account {} to account {}", amount, fromAccountId, toAccountId);
+		TransferResult result = optimisticRetry
+				.execute(() -> balanceEngine.transfer(fromAccountId, toAccountId, amount.getMinorUnits()));
+		Cache accounts = cacheManager.getCache(CacheConfig.ACCOUNTS);
+		accounts.put(fromAccountId, result.getFromAccount());
+		accounts.put(toAccountId, result.getToAccount());
+		LOGGER.info("Amount {} transferred successfully from account {} to account {}", amount, fromAccountId, toAccountId);
+		return result;
+	}
+
+	/**
+     * Applies a batch of deposits and withdrawals in a single transaction.
+     *
+     * @param operations The operations to apply, in order.
+     * @return The result of each operation, in the same order as the operations.
+     */
+	@Override
+	public List<BatchOperationResult> applyBatch(List<BatchOperation> operations) {
+		LOGGER.info("Applying batch of {} operations", operations.size());
+		BatchResult batch = optimisticRetry.execute(() -> balanceEngine.applyBatch(operations));
+		Cache accounts = cacheManager.getCache(CacheConfig.ACCOUNTS);
+		for (Account account : batch.getAccounts()) {
+			accounts.put(account.getId(), account);
+		}
+		LOGGER.info("Batch of {} operations applied", operations.size());
+		return batch.getResults();
+	}
+
+	/**
+     * Returns the version of an account held in the accounts cache, without reading the database.
+     *
+     * @param accountId The ID of the account.
+     * @return The cached version, or empty if the account is not cached or the request reads its own writes.
+     */
+	@Override
+	public OptionalLong findCachedVersion(Long accountId) {
+		if (ReplicaRoutingDataSource.isReadYourWrites()) {
+			return OptionalLong.empty();
+		}
+		Cache accounts = cacheManager.getCache(CacheConfig.ACCOUNTS);
+		Account account = accounts == null ? null : accounts.get(accountId, Account.class);
+		if (account == null || account.getVersion() == Account.NO_VERSION) {
+			return OptionalLong.empty();
+		}
+		return OptionalLong.of(account.getVersion());
+	}
+
+	/**
+     * Retrieves one page of a customer's accounts, ordered by account ID.
+     *
+     * @param customerId The ID of the customer.
+     * @param cursor     The cursor returned with the previous page, or null for the first page.
+     * @param type       The account type to match, or null for any type.
+     * @param status     The account status to match, or null for any status.
+     * @param limit      The maximum number of accounts on the page.
+     * @return The page of accounts and the cursor of the next page.
+     * @throws ResourceNotFoundException if the customer with the given ID is not found.
+     */
+	@Override
+	@Transactional(readOnly = true)
+	public AccountPage getAccountsByCustomer(Long customerId, Long cursor, String type, String status, int limit)
+			throws ResourceNotFoundException {
+		LOGGER.info("Listing accounts of customer {} after {}", customerId, cursor);
+		List<AccountSummary> accounts = shards
+				.gather(() -> accountRepository.findPageByCustomer(customerId, cursor == null ? 0L : cursor, type,
+						status, PageRequest.of(0, limit + 1)))
+				.stream().flatMap(List::stream).sorted(Comparator.comparing(AccountSummary::getId)).limit(limit + 1)
+				.collect(Collectors.toList());
+		if (accounts.isEmpty() && !customerRepository.existsById(customerId)) {
+			LOGGER.error("Customer not found with id: {}", customerId);
+			throw new ResourceNotFoundException(ErrorCode.CUSTOMER_NOT_FOUND, "Customer not found with id: " + customerId);
+		}
+		if (accounts.size() <= limit) {
+			return new AccountPage(accounts, null);
+		}
+		List<AccountSummary> page = accounts.subList(0, limit);
+		return new AccountPage(page, page.get(limit - 1).getId());
+	}
 }
@@ -0,0 +1,746 @@
+package com.maybank.bankapp.service;
+
+import java.io.UncheckedIOException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.maybank.bankapp.datasource.Shards;
+import com.maybank.bankapp.dto.BatchOperation;
+import com.maybank.bankapp.dto.BatchOperationResult;
+import com.maybank.bankapp.dto.BatchResult;
+import com.maybank.bankapp.dto.OperationType;
+import com.maybank.bankapp.dto.TransferResult;
+import com.maybank.bankapp.entity.Account;
+import com.maybank.bankapp.entity.AccountTransaction;
+import com.maybank.bankapp.entity.IdempotencyRecord;
+import com.maybank.bankapp.exception.ErrorCode;
+import com.maybank.bankapp.exception.InsufficientFundsException;
+import com.maybank.bankapp.exception.ResourceNotFoundException;
+import com.maybank.bankapp.exception.TransferIncompleteException;
+import com.maybank.bankapp.journal.JournalEntryType;
+import com.maybank.bankapp.journal.TransactionJournal;
+import com.maybank.bankapp.metrics.VolumeCounters;
+import com.maybank.bankapp.metrics.VolumeCounters.Channel;
+import com.maybank.bankapp.money.Money;
+import com.maybank.bankapp.repository.AccountRepository;
+import com.maybank.bankapp.repository.AccountTransactionRepository;
+import com.maybank.bankapp.repository.IdempotencyRecordRepository;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * BalanceEngine applies balance and status mutations to accounts.
+ * <p>
+ * Every mutation of an account runs behind one of a fixed set of striped locks chosen by the
+ * account id, so updates to the same account are serialized while unrelated accounts proceed in
+ * parallel. The last committed state of recently used accounts is kept in memory, which lets a
+ * mutation skip the SELECT and persist the new value with a single UPDATE statement. The in-memory
+ * state is only changed after the UPDATE has committed. The UPDATE only matches the version held in
+ * memory; if another instance changed the account in the meantime, the in-memory state is dropped
+ * and the mutation fails with an {@link ObjectOptimisticLockingFailureException}, to be retried by
+ * the caller. Each balance change also inserts a row into
+ * the account history in the same transaction as its UPDATE, and so does the
+ * {@link IdempotencyRecord} of a deposit or withdrawal submitted with an idempotency key.
+ * <p>
+ * Operations that touch several accounts acquire their stripes in ascending stripe order, so two
+ * of them can never wait on each other.
+ * <p>
+ * Every committed mutation is appended to the {@link TransactionJournal} before the stripe lock is
+ * released, so the journal holds the mutations of an account in commit order. A mutation that
+ * cannot be appended, for instance because a new segment cannot be created, is still committed: it
+ * is logged and counted in {@code bank.journal.errors}, and its result is returned as usual. The
+ * money moved by committed deposits and withdrawals is counted by {@link VolumeCounters}.
+ * <p>
+ * Every mutation runs on the shard of its account (see {@link Shards}). A transfer between
+ * accounts on different shards commits the withdrawal and then the deposit in two transactions; if
+ * the deposit fails, the withdrawal is reversed by a compensating deposit. A batch is applied in
+ * one transaction per shard it touches.
+ */
+@Component
+public class BalanceEngine {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(BalanceEngine.class);
+
+    private final AccountRepository accountRepository;
+
+    private final AccountTransactionRepository transactionRepository;
+
+    private final IdempotencyRecordRepository idempotencyRepository;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final TransactionJournal journal;
+
+    private final Shards shards;
+
+    private final VolumeCounters volume;
+
+    private final Counter journalErrors;
+
+    private final ReentrantLock[] stripes;
+
+    private final int stripeMask;
+
+    private final int maxHotAccounts;
+
+    private final ConcurrentMap<Long, Account> hotAccounts = new ConcurrentHashMap<>();
+
+    /**
+     * Constructs a new BalanceEngine.
+     *
+     * @param accountRepository     The repository used to load and persist accounts.
+     * @param transactionRepository The repository the history of balance changes is written to.
+     * @param idempotencyRepository The repository idempotency keys are recorded in.
+     * @param transactionManager    The transaction manager used to update accounts and history together.
+     * @param journal               The journal every committed mutation is appended to.
+     * @param shards                The shards the accounts are stored on.
+     * @param meterRegistry         The registry the deposit and withdrawal volume is counted in.
+     * @param stripes               The number of lock stripes, rounded up to a power of two.
+     * @param maxHotAccounts        The maximum number of accounts kept in memory.
+     */
+    @Autowired
+    public BalanceEngine(AccountRepository accountRepository, AccountTransactionRepository transactionRepository,
+            IdempotencyRecordRepository idempotencyRepository, PlatformTransactionManager transactionManager, TransactionJournal journal, Shards shards, MeterRegistry meterRegistry,
+            @Value("${bank.balance-engine.stripes:256}") int stripes,
+            @Value("${bank.balance-engine.max-hot-accounts:100000}") int maxHotAccounts) {
+        this.accountRepository = accountRepository;
+        this.transactionRepository = transactionRepository;
+        this.idempotencyRepository = idempotencyRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.journal = journal;
+        this.shards = shards;
+        this.volume = new VolumeCounters(meterRegistry);
+        this.journalErrors = Counter.builder("bank.journal.errors")
+                .description("Committed mutations that could not be appended to the journal")
+                .register(meterRegistry);
+        int size = Integer.highestOneBit(Math.max(1, stripes - 1)) << 1;
+        this.stripes = new ReentrantLock[size];
+        for (int i = 0; i < size; i++) {
+            this.stripes[i] = new ReentrantLock();
+        }
+        this.stripeMask = size - 1;
+        this.maxHotAccounts = maxHotAccounts;
+    }
+
+    /**
+     * Adds the specified amount to the balance of the account.
+     *
+     * @param accountId The ID of the account to deposit into.
+     * @param amount    The amount to deposit, in minor units.
+     * @return A snapshot of the account after the deposit.
+     * @throws ResourceNotFoundException if the account with the given ID is not found.
+     * @throws IllegalArgumentException if the amount is not positive.
+     */
+    public Account deposit(Long accountId, long amount) throws ResourceNotFoundException {
+        return deposit(accountId, amount, null);
+    }
+
+    /**
+     * Adds the specified amount to the balance of the account, recording the idempotency key in
+     * the same transaction.
+     *
+     * @param accountId      The ID of the account to deposit into.
+     * @param amount         The amount to deposit, in minor units.
+     * @param idempotencyKey The idempotency key of the request, or null.
+     * @return A snapshot of the account after the deposit.
+     * @throws ResourceNotFoundException if the account with the given ID is not found.
+     * @throws IllegalArgumentException if the amount is not positive.
+     * @throws org.springframework.dao.DataIntegrityViolationException if the idempotency key was already used.
+     */
+    public Account deposit(Long accountId, long amount, String idempotencyKey) throws ResourceNotFoundException {
+        requirePositive(amount);
+        ReentrantLock lock = lockFor(accountId);
+        lock.lock();
+        Shards.Scope shard = shards.forAccount(accountId);
+        try {
+            Account account = load(accountId);
+            long balance = Money.add(account.getBalanceMinor(), amount);
+            transactionTemplate.execute(status -> {
+                recordKey(idempotencyKey, accountId, OperationType.DEPOSIT, amount, balance, account.getStatus());
+                updateBalance(account, balance);
+                transactionRepository.save(history(accountId, OperationType.DEPOSIT, amount, balance));
+                return null;
+            });
+            committed(account, balance);
+            journalCommitted(accountId, JournalEntryType.DEPOSIT, amount, balance, account.getVersion());
+            volume.deposited(Channel.SINGLE, amount);
+            return copyOf(account);
+        } finally {
+            shard.close();
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Adds several amounts to the balance of the account in one transaction, with a single
+     * balance UPDATE and one history row per amount.
+     *
+     * @param accountId The ID of the account to deposit into.
+     * @param amounts   The amounts to deposit, in minor units, in the order they are applied.
+     * @return A snapshot of the account after each deposit, in the order of the amounts. Only the
+     *         last snapshot has a version; the others carry {@link Account#NO_VERSION}.
+     * @throws ResourceNotFoundException if the account with the given ID is not found.
+     * @throws IllegalArgumentException if any of the amounts is not positive.
+     */
+    public List<Account> depositAll(Long accountId, long[] amounts) throws ResourceNotFoundException {
+        for (long amount : amounts) {
+            requirePositive(amount);
+        }
+        ReentrantLock lock = lockFor(accountId);
+        lock.lock();
+        Shards.Scope shard = shards.forAccount(accountId);
+        try {
+            Account account = load(accountId);
+            long[] balances = new long[amounts.length];
+            List<AccountTransaction> history = new ArrayList<>(amounts.length);
+            long balance = account.getBalanceMinor();
+            for (int i = 0; i < amounts.length; i++) {
+                balance = Money.add(balance, amounts[i]);
+                balances[i] = balance;
+                history.add(history(accountId, OperationType.DEPOSIT, amounts[i], balance));
+            }
+            long finalBalance = balance;
+            transactionTemplate.execute(status -> {
+                updateBalance(account, finalBalance);
+                transactionRepository.saveAll(history);
+                return null;
+            });
+            committed(account, finalBalance);
+            List<Account> snapshots = new ArrayList<>(amounts.length);
+            for (int i = 0; i < amounts.length; i++) {
+                journalCommitted(accountId, JournalEntryType.DEPOSIT, amounts[i], balances[i], account.getVersion());
+                volume.deposited(Channel.SINGLE, amounts[i]);
+                Account snapshot = copyOf(account);
+                snapshot.setBalanceMinor(balances[i]);
+                if (i < amounts.length - 1) {
+                    snapshot.setVersion(Account.NO_VERSION);
+                }
+                snapshots.add(snapshot);
+            }
+            return snapshots;
+        } finally {
+            shard.close();
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Subtracts the specified amount from the balance of the account.
+     *
+     * @param accountId The ID of the account to withdraw from.
+     * @param amount    The amount to withdraw, in minor units.
+     * @return A snapshot of the account after the withdrawal.
+     * @throws ResourceNotFoundException if the account with the given ID is not found or if there are insufficient funds.
+     * @throws IllegalArgumentException if the amount is not positive.
+     */
+    public Account withdraw(Long accountId, long amount) throws ResourceNotFoundException {
+        return withdraw(accountId, amount, null);
+    }
+
+    /**
+     * Subtracts the specified amount from the balance of the account, recording the idempotency
+     * key in the same transaction.
+     *
+     * @param accountId      The ID of the account to withdraw from.
+     * @param amount         The amount to withdraw, in minor units.
+     * @param idempotencyKey The idempotency key of the request, or null.
+     * @return A snapshot of the account after the withdrawal.
+     * @throws ResourceNotFoundException if the account with the given ID is not found or if there are insufficient funds.
+     * @throws IllegalArgumentException if the amount is not positive.
+     * @throws org.springframework.dao.DataIntegrityViolationException if the idempotency key was already used.
+     */
+    public Account withdraw(Long accountId, long amount, String idempotencyKey) throws ResourceNotFoundException {
+        requirePositive(amount);
+        ReentrantLock lock = lockFor(accountId);
+        lock.lock();
+        Shards.Scope shard = shards.forAccount(accountId);
+        try {
+            Account account = load(accountId);
+            if (account.getBalanceMinor() < amount) {
+                LOGGER.error("Insufficient funds in account: {}", accountId);
+                throw new InsufficientFundsException("Insufficient funds in account: " + accountId);
+            }
+            long balance = Money.subtract(account.getBalanceMinor(), amount);
+            transactionTemplate.execute(status -> {
+                recordKey(idempotencyKey, accountId, OperationType.WITHDRAW, amount, balance, account.getStatus());
+                updateBalance(account, balance);
+                transactionRepository.save(history(accountId, OperationType.WITHDRAW, amount, balance));
+                return null;
+            });
+            committed(account, balance);
+            journalCommitted(accountId, JournalEntryType.WITHDRAW, amount, balance, account.getVersion());
+            volume.withdrawn(Channel.SINGLE, amount);
+            return copyOf(account);
+        } finally {
+            shard.close();
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Marks the account as closed.
+     *
+     * @param accountId The ID of the account to close.
+     * @return A snapshot of the account after it was closed.
+     * @throws ResourceNotFoundException if the account with the given ID is not found.
+     */
+    public Account close(Long accountId) throws ResourceNotFoundException {
+        ReentrantLock lock = lockFor(accountId);
+        lock.lock();
+        Shards.Scope shard = shards.forAccount(accountId);
+        try {
+            Account account = load(accountId);
+            if (accountRepository.updateStatus(accountId, "Closed", account.getVersion()) == 0) {
+                throw conflict(account);
+            }
+            account.setStatus("Closed");
+            account.setVersion(account.getVersion() + 1);
+            journalCommitted(accountId, JournalEntryType.CLOSE, 0, account.getBalanceMinor(), account.getVersion());
+            return copyOf(account);
+        } finally {
+            shard.close();
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Moves the specified amount from one account to another, in a single transaction when both
+     * accounts are on the same shard.
+     * <p>
+     * Both stripes are held only for the duration of the two UPDATE statements, and are acquired
+     * in ascending stripe order so concurrent transfers in opposite directions cannot deadlock.
+     *
+     * @param fromAccountId The ID of the account to withdraw from.
+     * @param toAccountId   The ID of the account to deposit into.
+     * @param amount        The amount to transfer, in minor units.
+     * @return Snapshots of both accounts after the transfer.
+     * @throws ResourceNotFoundException if either account is not found or if there are insufficient funds.
+     * @throws IllegalArgumentException if the amount is not positive.
+     */
+    public TransferResult transfer(Long fromAccountId, Long toAccountId, long amount)
+            throws ResourceNotFoundException {
+        requirePositive(amount);
+        List<ReentrantLock> locks = lockAll(Arrays.asList(fromAccountId, toAccountId));
+        try {
+            Account from;
+            Account to;
+            try (Shards.Scope shard = shards.forAccount(fromAccountId)) {
+                from = load(fromAccountId);
+            }
+            try (Shards.Scope shard = shards.forAccount(toAccountId)) {
+                to = load(toAccountId);
+            }
+            if (from.getBalanceMinor() < amount) {
+                LOGGER.error("Insufficient funds in account: {}", fromAccountId);
+                throw new InsufficientFundsException("Insufficient funds in account: " + fromAccountId);
+            }
+            long fromBalance = Money.subtract(from.getBalanceMinor(), amount);
+            long toBalance = Money.add(to.getBalanceMinor(), amount);
+            if (shards.shardOf(fromAccountId) == shards.shardOf(toAccountId)) {
+                try (Shards.Scope shard = shards.forAccount(fromAccountId)) {
+                    transactionTemplate.execute(status -> {
+                        updateBalance(from, fromBalance);
+                        updateBalance(to, toBalance);
+                        transactionRepository.save(history(fromAccountId, OperationType.WITHDRAW, amount, fromBalance));
+                        transactionRepository.save(history(toAccountId, OperationType.DEPOSIT, amount, toBalance));
+                        return null;
+                    });
+                }
+                committed(from, fromBalance);
+                committed(to, toBalance);
+                journalCommitted(fromAccountId, JournalEntryType.WITHDRAW, amount, fromBalance, from.getVersion());
+                journalCommitted(toAccountId, JournalEntryType.DEPOSIT, amount, toBalance, to.getVersion());
+            } else {
+                transferAcrossShards(from, to, amount);
+            }
+            volume.withdrawn(Channel.TRANSFER, amount);
+            volume.deposited(Channel.TRANSFER, amount);
+            return new TransferResult(copyOf(from), copyOf(to), Money.ofMinor(amount));
+        } finally {
+            unlockAll(locks);
+        }
+    }
+
+    /**
+     * Moves money between accounts on different shards: the withdrawal is committed on the shard of
+     * the source account, then the deposit on the shard of the target account. If the deposit
+     * fails, the withdrawal is reversed by a deposit of the same amount into the source account
+     * and the failure is rethrown, so a conflict can be retried. If the reversal fails as well, the
+     * withdrawal stays committed and a {@link TransferIncompleteException} is thrown instead, which
+     * is not retried. Must be called while holding the stripe locks of both accounts.
+     */
+    private void transferAcrossShards(Account from, Account to, long amount) {
+        long fromBalance = Money.subtract(from.getBalanceMinor(), amount);
+        long toBalance = Money.add(to.getBalanceMinor(), amount);
+        commitOnShard(from, OperationType.WITHDRAW, amount, fromBalance);
+        try {
+            commitOnShard(to, OperationType.DEPOSIT, amount, toBalance);
+        } catch (RuntimeException e) {
+            LOGGER.warn("Reversing the withdrawal from account {} after the deposit into account {} failed",
+                    from.getId(), to.getId());
+            try {
+                commitOnShard(from, OperationType.DEPOSIT, amount, Money.add(from.getBalanceMinor(), amount));
+            } catch (RuntimeException reversal) {
+                LOGGER.error("Could not reverse the withdrawal of {} from account {}", amount, from.getId(), reversal);
+                e.addSuppressed(reversal);
+                throw new TransferIncompleteException(from.getId(), to.getId(), amount, e);
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Commits a single balance change on the shard of the account and journals it. Must be called
+     * while holding the stripe lock of the account.
+     */
+    private void commitOnShard(Account account, OperationType type, long amount, long balance) {
+        try (Shards.Scope shard = shards.forAccount(account.getId())) {
+            transactionTemplate.execute(status -> {
+                updateBalance(account, balance);
+                transactionRepository.save(history(account.getId(), type, amount, balance));
+                return null;
+            });
+        }
+        committed(account, balance);
+        journalCommitted(account.getId(),
+                type == OperationType.DEPOSIT ? JournalEntryType.DEPOSIT : JournalEntryType.WITHDRAW, amount, balance,
+                account.getVersion());
+    }
+
+    /**
+     * Applies a list of deposits and withdrawals in a single transaction per shard.
+     * <p>
+     * All touched accounts are loaded with one query and the changed balances are flushed together
+     * at commit, so the JDBC driver can batch the UPDATE statements. Operations are applied in list
+     * order. An operation on an unknown account or one that would overdraw the account is rejected
+     * without affecting the others. When the accounts are on several shards, the operations of
+     * each shard are committed separately, one shard after the other; once a shard has committed,
+     * the operations of a later shard that fails are rejected rather than failing the whole batch,
+     * so a retried batch never applies an operation twice.
+     *
+     * @param operations The operations to apply.
+     * @return The result of each operation, in the same order as the operations, and the changed
+     *         accounts as committed.
+     */
+    public BatchResult applyBatch(List<BatchOperation> operations) {
+        Set<Long> accountIds = new HashSet<>();
+        Map<Integer, List<Integer>> indexesByShard = new TreeMap<>();
+        for (int i = 0; i < operations.size(); i++) {
+            Long accountId = operations.get(i).getAccountId();
+            if (accountId != null) {
+                accountIds.add(accountId);
+            }
+            int shard = accountId == null ? 0 : shards.shardOf(accountId);
+            indexesByShard.computeIfAbsent(shard, s -> new ArrayList<>()).add(i);
+        }
+        List<ReentrantLock> locks = lockAll(accountIds);
+        List<Account> changed = new ArrayList<>();
+        try {
+            if (indexesByShard.size() == 1) {
+                try (Shards.Scope shard = shards.forShard(indexesByShard.keySet().iterator().next())) {
+                    return new BatchResult(applyOnShard(operations, changed), changed);
+                }
+            }
+            BatchOperationResult[] results = new BatchOperationResult[operations.size()];
+            boolean committedShard = false;
+            for (Map.Entry<Integer, List<Integer>> entry : indexesByShard.entrySet()) {
+                List<BatchOperation> shardOperations = new ArrayList<>(entry.getValue().size());
+                for (int index : entry.getValue()) {
+                    shardOperations.add(operations.get(index));
+                }
+                List<BatchOperationResult> shardResults = new ArrayList<>(shardOperations.size());
+                try (Shards.Scope shard = shards.forShard(entry.getKey())) {
+                    shardResults = applyOnShard(shardOperations, changed);
+                    committedShard = true;
+                } catch (RuntimeException e) {
+                    if (!committedShard) {
+                        throw e;
+                    }
+                    LOGGER.warn("Batch operations on shard {} failed after other shards committed", entry.getKey(), e);
+                    for (BatchOperation operation : shardOperations) {
+                        if (operation.getAccountId() != null) {
+                            hotAccounts.remove(operation.getAccountId());
+                        }
+                        shardResults.add(BatchOperationResult.rejected(operation, "Not applied: " + e.getMessage()));
+                    }
+                }
+                for (int i = 0; i < shardResults.size(); i++) {
+                    results[entry.getValue().get(i)] = shardResults.get(i);
+                }
+            }
+            return new BatchResult(Arrays.asList(results), changed);
+        } finally {
+            unlockAll(locks);
+        }
+    }
+
+    /**
+     * Applies a list of deposits and withdrawals on the selected shard in a single transaction, and
+     * adds a snapshot of every account it changed to the given list. Must be called while holding
+     * the stripe locks of all accounts of the operations.
+     */
+    private List<BatchOperationResult> applyOnShard(List<BatchOperation> operations, List<Account> changed) {
+        Set<Long> accountIds = new HashSet<>();
+        for (BatchOperation operation : operations) {
+            if (operation.getAccountId() != null) {
+                accountIds.add(operation.getAccountId());
+            }
+        }
+        Map<Long, Account> accounts = new HashMap<>();
+        List<BatchOperationResult> results = transactionTemplate.execute(status -> {
+            for (Account account : accountRepository.findAllById(accountIds)) {
+                accounts.put(account.getId(), account);
+            }
+            List<BatchOperationResult> applied = new ArrayList<>(operations.size());
+            List<AccountTransaction> history = new ArrayList<>(operations.size());
+            for (BatchOperation operation : operations) {
+                BatchOperationResult result = apply(operation, accounts.get(operation.getAccountId()));
+                if (result.isSuccess()) {
+                    history.add(history(result.getAccountId(), result.getOp(),
+                            operation.getAmount().getMinorUnits(), result.getBalance().getMinorUnits()));
+                }
+                applied.add(result);
+            }
+            transactionRepository.saveAll(history);
+            return applied;
+        });
+        for (Account account : accounts.values()) {
+            refresh(account);
+        }
+        Set<Long> changedIds = new HashSet<>();
+        for (int i = 0; i < results.size(); i++) {
+            BatchOperationResult result = results.get(i);
+            if (result.isSuccess()) {
+                if (changedIds.add(result.getAccountId())) {
+                    changed.add(copyOf(accounts.get(result.getAccountId())));
+                }
+                long amount = operations.get(i).getAmount().getMinorUnits();
+                long version = accounts.get(result.getAccountId()).getVersion();
+                if (result.getOp() == OperationType.DEPOSIT) {
+                    journalCommitted(result.getAccountId(), JournalEntryType.DEPOSIT, amount,
+                            result.getBalance().getMinorUnits(), version);
+                    volume.deposited(Channel.BATCH, amount);
+                } else {
+                    journalCommitted(result.getAccountId(), JournalEntryType.WITHDRAW, amount,
+                            result.getBalance().getMinorUnits(), version);
+                    volume.withdrawn(Channel.BATCH, amount);
+                }
+            }
+        }
+        return results;
+    }
+
+    /**
+     * Drops the in-memory state of the account so that the next mutation reloads it.
+     *
+     * @param accountId The ID of the account to evict.
+     */
+    public void evict(Long accountId) {
+        ReentrantLock lock = lockFor(accountId);
+        lock.lock();
+        try {
+            hotAccounts.remove(accountId);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns the in-memory state of the account, loading it from the repository on first use.
+     * Must be called while holding the stripe lock of the account.
+     */
+    private Account load(Long accountId) throws ResourceNotFoundException {
+        Account account = hotAccounts.get(accountId);
+        if (account != null) {
+            return account;
+        }
+        Account loaded = accountRepository.findById(accountId).orElseThrow(() -> {
+            LOGGER.error("Account not found with id: {}", accountId);
+            return new ResourceNotFoundException(ErrorCode.ACCOUNT_NOT_FOUND, "Account not found with id: " + accountId);
+        });
+        account = copyOf(loaded);
+        if (hotAccounts.size() < maxHotAccounts) {
+            hotAccounts.put(accountId, account);
+        }
+        return account;
+    }
+
+    /**
+     * Writes the new balance of an account, provided the row still has the version held in memory.
+     * Must be called while holding the stripe lock of the account.
+     */
+    private void updateBalance(Account account, long balance) {
+        if (accountRepository.updateBalance(account.getId(), balance, account.getVersion()) == 0) {
+            throw conflict(account);
+        }
+    }
+
+    /**
+     * Appends a committed mutation to the journal. The mutation is already in the database, so a
+     * failure is logged and counted rather than thrown.
+     */
+    private void journalCommitted(long accountId, JournalEntryType type, long amount, long balance, long version) {
+        try {
+            journal.append(accountId, type, amount, balance, version);
+        } catch (UncheckedIOException e) {
+            journalErrors.increment();
+            LOGGER.error("Cannot journal committed {} of {} on account {} at version {}", type, amount, accountId,
+                    version, e);
+        }
+    }
+
+    /**
+     * Rejects an amount that is zero or negative, which would turn a withdrawal into a credit.
+     */
+    private static void requirePositive(long amount) {
+        if (amount <= 0) {
+            throw new IllegalArgumentException("Amount must be positive: " + amount);
+        }
+    }
+
+    /**
+     * Applies a committed balance to the in-memory state of an account.
+     */
+    private static void committed(Account account, long balance) {
+        account.setBalanceMinor(balance);
+        account.setVersion(account.getVersion() + 1);
+    }
+
+    /**
+     * Drops the outdated in-memory state of an account that was changed elsewhere, so the next
+     * attempt reloads it.
+     */
+    private ObjectOptimisticLockingFailureException conflict(Account account) {
+        hotAccounts.remove(account.getId());
+        LOGGER.warn("Account {} was changed concurrently", account.getId());
+        return new ObjectOptimisticLockingFailureException(Account.class, account.getId());
+    }
+
+    /**
+     * Inserts the idempotency record of a request, if it has a key. The insert is flushed before
+     * the balance UPDATE, so a key that was already used fails the transaction before any change.
+     */
+    private void recordKey(String idempotencyKey, Long accountId, OperationType type, long amount, long balance,
+            String status) {
+        if (idempotencyKey != null) {
+            idempotencyRepository.saveAndFlush(
+                    new IdempotencyRecord(idempotencyKey, accountId, type, amount, balance, status, Instant.now()));
+        }
+    }
+
+    private BatchOperationResult apply(BatchOperation operation, Account account) {
+        if (operation.getOp() == null) {
+            return BatchOperationResult.rejected(operation, "Operation type is required");
+        }
+        if (account == null) {
+            return BatchOperationResult.rejected(operation, "Account not found with id: " + operation.getAccountId());
+        }
+        if (operation.getAmount() == null) {
+            return BatchOperationResult.rejected(operation, "Amount is required");
+        }
+        if (!operation.getAmount().isPositive()) {
+            return BatchOperationResult.rejected(operation, "Amount must be positive");
+        }
+        long amount = operation.getAmount().getMinorUnits();
+        switch (operation.getOp()) {
+        case DEPOSIT:
+            account.setBalanceMinor(Money.add(account.getBalanceMinor(), amount));
+            break;
+        case WITHDRAW:
+            if (account.getBalanceMinor() < amount) {
+                return BatchOperationResult.rejected(operation, "Insufficient funds in account: " + account.getId());
+            }
+            account.setBalanceMinor(Money.subtract(account.getBalanceMinor(), amount));
+            break;
+        default:
+            return BatchOperationResult.rejected(operation, "Unsupported operation: " + operation.getOp());
+        }
+        return BatchOperationResult.applied(operation, account.getBalance());
+    }
+
+    /**
+     * Replaces the in-memory state of an account with a committed copy. Must be called while
+     * holding the stripe lock of the account.
+     */
+    private void refresh(Account account) {
+        if (hotAccounts.containsKey(account.getId()) || hotAccounts.size() < maxHotAccounts) {
+            hotAccounts.put(account.getId(), copyOf(account));
+        }
+    }
+
+    private int stripeIndex(Long accountId) {
+        long id = accountId;
+        int hash = (int) (id ^ (id >>> 32));
+        hash ^= (hash >>> 16);
+        return hash & stripeMask;
+    }
+
+    private ReentrantLock lockFor(Long accountId) {
+        return stripes[stripeIndex(accountId)];
+    }
+
+    /**
+     * Acquires the stripe locks of all given accounts in ascending stripe order.
+     */
+    private List<ReentrantLock> lockAll(Collection<Long> accountIds) {
+        Map<Integer, ReentrantLock> ordered = new TreeMap<>();
+        for (Long accountId : accountIds) {
+            int index = stripeIndex(accountId);
+            ordered.put(index, stripes[index]);
+        }
+        List<ReentrantLock> locked = new ArrayList<>(ordered.size());
+        try {
+            for (ReentrantLock lock : ordered.values()) {
+                lock.lock();
+                locked.add(lock);
+            }
+        } catch (RuntimeException e) {
+            unlockAll(locked);
+            throw e;
+        }
+        return locked;
+    }
+
+    private static void unlockAll(List<ReentrantLock> locks) {
+        for (int i = locks.size() - 1; i >= 0; i--) {
+            locks.get(i).unlock();
+        }
+    }
+
+    private static AccountTransaction history(Long accountId, OperationType type, long amount, long balance) {
+        return new AccountTransaction(accountId, type, amount, balance, Instant.now());
+    }
+
+    /**
+     * Copies the state of an account. The copy refers to the customer by ID only, so it never holds
+     * a proxy of the persistence context the account was loaded in.
+     */
+    private static Account copyOf(Account account) {
+        Account copy = new Account(account.getId(), account.getType(), account.getBalanceMinor(), account.getStatus(),
+                null);
+        copy.setCustomerId(account.getCustomerId());
+        copy.setVersion(account.getVersion());
+        return copy;
+    }
+}
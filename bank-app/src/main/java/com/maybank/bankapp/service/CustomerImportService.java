@@ -0,0 +1,344 @@
+package com.maybank.bankapp.service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.PersistenceException;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionException;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.maybank.bankapp.datasource.Shards;
+import com.maybank.bankapp.dto.AccountImportRecord;
+import com.maybank.bankapp.dto.CustomerImportRecord;
+import com.maybank.bankapp.dto.DataFormat;
+import com.maybank.bankapp.dto.ImportSummary;
+import com.maybank.bankapp.entity.Account;
+import com.maybank.bankapp.entity.Customer;
+import com.maybank.bankapp.money.Money;
+
+/**
+ * CustomerImportService creates customers, and optionally their accounts, from an NDJSON or CSV
+ * upload. An NDJSON line looks like {"name":"Alice","accounts":[{"type":"Savings","balance":10.00}]};
+ * a CSV upload starts with a header line naming the columns name, accountType and balance.
+ * <p>
+ * The upload is read one line at a time, so only the current chunk of rows is held in memory.
+ * Each chunk is inserted in a transaction of its own and the persistence context is cleared
+ * afterwards; customer IDs come from a pooled sequence, so Hibernate sends the inserts as JDBC
+ * batches. Rows that cannot be parsed or fail validation are rejected and reported in the summary
+ * without stopping the import. If a chunk fails to insert, all of its rows are rejected and the
+ * import continues with the next chunk.
+ * <p>
+ * On a sharded database the customers of a chunk are inserted on shard 0 and copied to the other
+ * shards, and then the accounts are inserted on their shards, in one transaction per shard. A chunk
+ * that fails part way may then leave some of its customers and accounts behind.
+ */
+@Service
+public class CustomerImportService {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(CustomerImportService.class);
+
+    private static final int MAX_NAME_LENGTH = 255;
+
+    private final AccountNumberGenerator accountNumberGenerator;
+
+    private final Shards shards;
+
+    private final CustomerReplicator customerReplicator;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final ObjectReader recordReader;
+
+    private final int chunkSize;
+
+    private final int maxRejectedRows;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    /**
+     * Constructs a new CustomerImportService.
+     *
+     * @param accountNumberGenerator The generator of numbers for imported accounts.
+     * @param shards                 The shards the accounts are stored on.
+     * @param customerReplicator     The replicator copying imported customers to every shard.
+     * @param transactionManager     The transaction manager used for each chunk.
+     * @param objectMapper           The mapper used to read NDJSON rows.
+     * @param chunkSize              The number of rows inserted per transaction.
+     * @param maxRejectedRows        The maximum number of rejected rows listed in the summary.
+     */
+    @Autowired
+    public CustomerImportService(AccountNumberGenerator accountNumberGenerator, Shards shards,
+            CustomerReplicator customerReplicator, PlatformTransactionManager transactionManager, ObjectMapper objectMapper,
+            @Value("${bank.import.chunk-size:1000}") int chunkSize,
+            @Value("${bank.import.max-rejected-rows:100}") int maxRejectedRows) {
+        this.accountNumberGenerator = accountNumberGenerator;
+        this.shards = shards;
+        this.customerReplicator = customerReplicator;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.recordReader = objectMapper.readerFor(CustomerImportRecord.class);
+        this.chunkSize = chunkSize;
+        this.maxRejectedRows = maxRejectedRows;
+    }
+
+    /**
+     * Imports the customers of an upload.
+     *
+     * @param input  The upload, encoded in UTF-8.
+     * @param format The format of the upload.
+     * @return The number of customers and accounts imported and the rows rejected.
+     * @throws IOException              if the upload cannot be read.
+     * @throws IllegalArgumentException if a CSV upload has no valid header line.
+     */
+    public ImportSummary importCustomers(InputStream input, DataFormat format) throws IOException {
+        ImportSummary summary = new ImportSummary(maxRejectedRows);
+        List<ImportRow> chunk = new ArrayList<>(chunkSize);
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8))) {
+            CsvLayout layout = null;
+            long lineNumber = 0;
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (lineNumber == 1 && line.startsWith("\uFEFF")) {
+                    line = line.substring(1);
+                }
+                if (line.trim().isEmpty()) {
+                    continue;
+                }
+                if (format == DataFormat.CSV && layout == null) {
+                    layout = CsvLayout.of(splitCsv(line));
+                    continue;
+                }
+                try {
+                    CustomerImportRecord record = format == DataFormat.NDJSON ? recordReader.readValue(line)
+                            : layout.toRecord(splitCsv(line));
+                    validate(record);
+                    chunk.add(new ImportRow(lineNumber, record));
+                } catch (JsonProcessingException e) {
+                    summary.rejected(lineNumber, "Malformed JSON: " + e.getOriginalMessage());
+                } catch (IllegalArgumentException e) {
+                    summary.rejected(lineNumber, e.getMessage());
+                }
+                if (chunk.size() >= chunkSize) {
+                    insert(chunk, summary);
+                    chunk.clear();
+                }
+            }
+        }
+        insert(chunk, summary);
+        LOGGER.info("Imported {} customers with {} accounts, rejected {} rows", summary.getCustomersImported(),
+                summary.getAccountsImported(), summary.getRejected());
+        return summary;
+    }
+
+    private void insert(List<ImportRow> chunk, ImportSummary summary) {
+        if (chunk.isEmpty()) {
+            return;
+        }
+        try {
+            if (shards.count() > 1) {
+                insertSharded(chunk);
+            } else {
+                insertChunk(chunk);
+            }
+        } catch (PersistenceException | DataAccessException | TransactionException e) {
+            LOGGER.error("Failed to insert import chunk of {} rows starting at line {}", chunk.size(),
+                    chunk.get(0).line, e);
+            for (ImportRow row : chunk) {
+                summary.rejected(row.line, "Not imported: " + e.getMessage());
+            }
+            return;
+        }
+        for (ImportRow row : chunk) {
+            summary.imported(accountsOf(row.record).size());
+        }
+    }
+
+    private void insertChunk(List<ImportRow> chunk) {
+        transactionTemplate.executeWithoutResult(status -> {
+            for (ImportRow row : chunk) {
+                Customer customer = new Customer();
+                customer.setName(row.record.getName().trim());
+                entityManager.persist(customer);
+                for (AccountImportRecord accountRecord : accountsOf(row.record)) {
+                    Money balance = accountRecord.getBalance();
+                    entityManager.persist(new Account(accountNumberGenerator.nextAccountNumber(),
+                            accountRecord.getType().trim(), balance == null ? 0 : balance.getMinorUnits(),
+                            "Active", customer));
+                }
+            }
+            entityManager.flush();
+            entityManager.clear();
+        });
+    }
+
+    private void insertSharded(List<ImportRow> chunk) {
+        List<Customer> customers = new ArrayList<>(chunk.size());
+        Map<Integer, List<Account>> accountsByShard = new TreeMap<>();
+        for (ImportRow row : chunk) {
+            Customer customer = new Customer();
+            customer.setName(row.record.getName().trim());
+            customers.add(customer);
+            for (AccountImportRecord accountRecord : accountsOf(row.record)) {
+                Money balance = accountRecord.getBalance();
+                long accountNumber = accountNumberGenerator.nextAccountNumber();
+                accountsByShard.computeIfAbsent(shards.shardOf(accountNumber), shard -> new ArrayList<>())
+                        .add(new Account(accountNumber, accountRecord.getType().trim(),
+                                balance == null ? 0 : balance.getMinorUnits(), "Active", customer));
+            }
+        }
+        transactionTemplate.executeWithoutResult(status -> {
+            customers.forEach(entityManager::persist);
+            entityManager.flush();
+            entityManager.clear();
+        });
+        customerReplicator.replicate(customers);
+        for (Map.Entry<Integer, List<Account>> entry : accountsByShard.entrySet()) {
+            try (Shards.Scope scope = shards.forShard(entry.getKey())) {
+                transactionTemplate.executeWithoutResult(status -> {
+                    entry.getValue().forEach(entityManager::persist);
+                    entityManager.flush();
+                    entityManager.clear();
+                });
+            }
+        }
+    }
+
+    private static void validate(CustomerImportRecord record) {
+        String name = record.getName();
+        if (name == null || name.replaceAll("[^\\p{L}\\p{N}]", "").isEmpty()) {
+            throw new IllegalArgumentException("Customer name should not be empty");
+        }
+        if (name.trim().length() > MAX_NAME_LENGTH) {
+            throw new IllegalArgumentException("Customer name is longer than " + MAX_NAME_LENGTH + " characters");
+        }
+        for (AccountImportRecord account : accountsOf(record)) {
+            if (account == null || account.getType() == null || account.getType().trim().isEmpty()) {
+                throw new IllegalArgumentException("Account type should not be empty");
+            }
+            if (account.getBalance() != null && account.getBalance().getMinorUnits() < 0) {
+                throw new IllegalArgumentException("Opening balance should not be negative");
+            }
+        }
+    }
+
+    private static List<AccountImportRecord> accountsOf(CustomerImportRecord record) {
+        return record.getAccounts() == null ? Collections.emptyList() : record.getAccounts();
+    }
+
+    /**
+     * Splits a CSV line into its fields. Fields may be quoted with double quotes, and a doubled
+     * quote inside a quoted field stands for one quote. Quoted fields cannot span lines.
+     */
+    static List<String> splitCsv(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c != '"') {
+                    field.append(c);
+                } else if (i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else {
+                    quoted = false;
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        if (quoted) {
+            throw new IllegalArgumentException("Unterminated quoted field");
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+
+    private static final class ImportRow {
+
+        private final long line;
+
+        private final CustomerImportRecord record;
+
+        private ImportRow(long line, CustomerImportRecord record) {
+            this.line = line;
+            this.record = record;
+        }
+    }
+
+    /**
+     * Positions of the known columns of a CSV upload, taken from its header line. A column that is
+     * absent has position -1.
+     */
+    private static final class CsvLayout {
+
+        private final int name;
+
+        private final int accountType;
+
+        private final int balance;
+
+        private CsvLayout(int name, int accountType, int balance) {
+            this.name = name;
+            this.accountType = accountType;
+            this.balance = balance;
+        }
+
+        static CsvLayout of(List<String> header) {
+            List<String> columns = new ArrayList<>(header.size());
+            for (String column : header) {
+                columns.add(column.trim().toLowerCase(Locale.ROOT));
+            }
+            if (!columns.contains("name")) {
+                throw new IllegalArgumentException("CSV header must contain a name column");
+            }
+            return new CsvLayout(columns.indexOf("name"), columns.indexOf("accounttype"), columns.indexOf("balance"));
+        }
+
+        CustomerImportRecord toRecord(List<String> fields) {
+            String type = field(fields, accountType);
+            String amount = field(fields, balance);
+            if (type.isEmpty()) {
+                if (!amount.isEmpty()) {
+                    throw new IllegalArgumentException("Balance given without an account type");
+                }
+                return new CustomerImportRecord(field(fields, name), null);
+            }
+            AccountImportRecord account = new AccountImportRecord(type, amount.isEmpty() ? null : Money.valueOf(amount));
+            return new CustomerImportRecord(field(fields, name), Collections.singletonList(account));
+        }
+
+        private static String field(List<String> fields, int position) {
+            return position < 0 || position >= fields.size() ? "" : fields.get(position).trim();
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package com.maybank.bankapp.service;
+
+import java.util.Collection;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+
+import org.hibernate.ReplicationMode;
+import org.hibernate.Session;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.maybank.bankapp.datasource.Shards;
+import com.maybank.bankapp.entity.Customer;
+
+/**
+ * CustomerReplicator copies customers created on shard 0 to the other shards, with the same ID,
+ * so every shard can look up and join the customer of the accounts it stores. Customers are never
+ * changed after they are created, so the copies do not need to be kept in sync. Copying a customer
+ * again is harmless, so a copy that failed is simply repeated when the customer is next needed
+ * on that shard.
+ */
+@Component
+public class CustomerReplicator {
+
+    private final Shards shards;
+
+    private final TransactionTemplate transactionTemplate;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    /**
+     * Constructs a new CustomerReplicator.
+     *
+     * @param shards             The shards the customers are copied to.
+     * @param transactionManager The transaction manager used for the copies on each shard.
+     */
+    @Autowired
+    public CustomerReplicator(Shards shards, PlatformTransactionManager transactionManager) {
+        this.shards = shards;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Copies committed customers to every shard after shard 0, in one transaction per shard.
+     * Customers already copied to a shard are left as they are.
+     *
+     * @param customers The customers, with their IDs assigned.
+     */
+    public void replicate(Collection<Customer> customers) {
+        for (int shard = 1; shard < shards.count(); shard++) {
+            replicate(customers, shard);
+        }
+    }
+
+    /**
+     * Copies committed customers to one shard, in one transaction. Customers already copied to
+     * the shard are left as they are.
+     *
+     * @param customers The customers, with their IDs assigned.
+     * @param shard     The index of the shard to copy them to.
+     */
+    public void replicate(Collection<Customer> customers, int shard) {
+        try (Shards.Scope scope = shards.forShard(shard)) {
+            transactionTemplate.executeWithoutResult(status -> {
+                Session session = entityManager.unwrap(Session.class);
+                for (Customer customer : customers) {
+                    session.replicate(customer, ReplicationMode.IGNORE);
+                }
+                session.flush();
+                session.clear();
+            });
+        }
+    }
+}
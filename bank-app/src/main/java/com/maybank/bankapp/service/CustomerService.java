@@ -1,5 +1,7 @@
 package com.maybank.bankapp.service;
 
+import java.util.OptionalLong;
+
 import com.maybank.bankapp.entity.Customer;
 import com.maybank.bankapp.exception.ResourceNotFoundException;
 
@@ -9,4 +11,6 @@ public interface CustomerService {
 
 	Customer getCustomerById(Long id) throws ResourceNotFoundException;
 
+	OptionalLong findCachedVersion(Long id);
+
 }
@@ -1,17 +1,29 @@
 package com.maybank.bankapp.service;
 
+import java.util.Collections;
+import java.util.OptionalLong;
+
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import com.maybank.bankapp.config.CacheConfig;
+import com.maybank.bankapp.datasource.ReplicaRoutingDataSource;
 import com.maybank.bankapp.entity.Customer;
+import com.maybank.bankapp.exception.ErrorCode;
 import com.maybank.bankapp.exception.ResourceNotFoundException;
 import com.maybank.bankapp.repository.CustomerRepository;
 
 /**
  * Implementation of the {@link CustomerService} interface providing functionality
- * related to customer management.
+ * related to customer management. Customers are created on shard 0 and copied to the other
+ * shards by the {@link CustomerReplicator}. A customer whose copy fails is still created; it is
+ * copied to the shard of an account when the account is opened.
  */
 @Service
 public class CustomerServiceImpl implements CustomerService {
@@ -21,6 +33,12 @@ public class CustomerServiceImpl implements CustomerService {
     @Autowired
     private CustomerRepository customerRepository;
 
+    @Autowired
+    private CustomerReplicator customerReplicator;
+
+    @Autowired
+    private CacheManager cacheManager;
+
     /**
      * Creates a new customer with the given name.
      *
@@ -33,6 +51,12 @@ public class CustomerServiceImpl implements CustomerService {
         Customer customer = new Customer();
         customer.setName(name);
         Customer createdCustomer = customerRepository.save(customer);
+        try {
+            customerReplicator.replicate(Collections.singletonList(createdCustomer));
+        } catch (RuntimeException e) {
+            LOGGER.error("Customer {} was created but not copied to every shard, it will be copied when an account is opened",
+                    createdCustomer.getId(), e);
+        }
         LOGGER.info("Customer created successfully with ID: {}", createdCustomer.getId());
         return createdCustomer;
     }
@@ -45,12 +69,34 @@ public class CustomerServiceImpl implements CustomerService {
      * @throws ResourceNotFoundException if the customer with the given ID is not found.
      */
     @Override
+    @Cacheable(cacheNames = CacheConfig.CUSTOMERS, key = "#id", condition = CacheConfig.NOT_READING_OWN_WRITES)
+    @Transactional(readOnly = true)
     public Customer getCustomerById(Long id) throws ResourceNotFoundException {
         LOGGER.info("Retrieving customer details for ID: {}", id);
         return customerRepository.findById(id)
                 .orElseThrow(() -> {
                     LOGGER.error("Customer not found with id: {}", id);
-                    return new ResourceNotFoundException("Customer not found with id: " + id);
+                    return new ResourceNotFoundException(ErrorCode.CUSTOMER_NOT_FOUND, "Customer not found with id: " + id);
                 });
     }
+
+    /**
+     * Returns the version of a customer held in the customers cache, without reading the database.
+     *
+     * @param id The ID of the customer.
+     * @return The version of the customer, or empty if the customer is not cached or the request
+     *         reads its own writes.
+     */
+    @Override
+    public OptionalLong findCachedVersion(Long id) {
+        if (ReplicaRoutingDataSource.isReadYourWrites()) {
+            return OptionalLong.empty();
+        }
+        Cache customers = cacheManager.getCache(CacheConfig.CUSTOMERS);
+        Customer customer = customers == null ? null : customers.get(id, Customer.class);
+        if (customer == null) {
+            return OptionalLong.empty();
+        }
+        return OptionalLong.of(customer.getVersion());
+    }
 }
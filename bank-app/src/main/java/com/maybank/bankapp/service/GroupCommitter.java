@@ -0,0 +1,183 @@
+package com.maybank.bankapp.service;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.maybank.bankapp.entity.Account;
+import com.maybank.bankapp.exception.ResourceNotFoundException;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * GroupCommitter combines concurrent deposits into the same account into one transaction.
+ * <p>
+ * The first deposit into an account opens a group and waits up to the configured window, or until
+ * the group holds max-size deposits, for others to join it. The group is then applied by
+ * {@link BalanceEngine#depositAll} with a single balance UPDATE and commit, and every caller gets
+ * the balance after its own deposit. Deposits that arrive while a group is being committed open
+ * the next group, so a hot account is written once per group rather than once per deposit. If the
+ * group fails, every deposit in it fails with the same exception.
+ * <p>
+ * With {@code bank.group-commit.enabled=false} deposits are applied one at a time.
+ */
+@Component
+public class GroupCommitter {
+
+    private final BalanceEngine balanceEngine;
+
+    private final boolean enabled;
+
+    private final long windowNanos;
+
+    private final int maxSize;
+
+    private final DistributionSummary groupSizes;
+
+    private final ConcurrentMap<Long, Group> openGroups = new ConcurrentHashMap<>();
+
+    /**
+     * Constructs a new GroupCommitter.
+     *
+     * @param balanceEngine The engine the groups are applied by.
+     * @param meterRegistry The registry the group sizes are recorded in.
+     * @param enabled       Whether concurrent deposits are grouped.
+     * @param window        How long the first deposit of a group waits for others.
+     * @param maxSize       The number of deposits that closes a group before the window ends.
+     */
+    @Autowired
+    public GroupCommitter(BalanceEngine balanceEngine, MeterRegistry meterRegistry,
+            @Value("${bank.group-commit.enabled:false}") boolean enabled,
+            @Value("${bank.group-commit.window:2ms}") Duration window,
+            @Value("${bank.group-commit.max-size:100}") int maxSize) {
+        this.balanceEngine = balanceEngine;
+        this.enabled = enabled;
+        this.windowNanos = window.toNanos();
+        this.maxSize = Math.max(1, maxSize);
+        this.groupSizes = DistributionSummary.builder("bank.group-commit.size")
+                .description("Deposits committed together in one transaction")
+                .baseUnit("deposits")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Adds the specified amount to the balance of the account, together with the deposits into the
+     * same account made by other threads at the same time.
+     *
+     * @param accountId The ID of the account to deposit into.
+     * @param amount    The amount to deposit, in minor units.
+     * @return A snapshot of the account after this deposit.
+     * @throws ResourceNotFoundException if the account with the given ID is not found.
+     * @throws IllegalArgumentException if the amount is not positive; it never joins a group, so
+     *         it cannot fail the deposits of other threads.
+     */
+    public Account deposit(Long accountId, long amount) throws ResourceNotFoundException {
+        if (amount <= 0) {
+            throw new IllegalArgumentException("Amount must be positive: " + amount);
+        }
+        if (!enabled) {
+            return balanceEngine.deposit(accountId, amount);
+        }
+        Group group;
+        int index;
+        for (;;) {
+            group = openGroups.computeIfAbsent(accountId, id -> new Group(maxSize));
+            synchronized (group) {
+                if (!group.closed) {
+                    index = group.size;
+                    group.amounts[group.size++] = amount;
+                    if (group.size == maxSize) {
+                        close(accountId, group);
+                    }
+                    break;
+                }
+            }
+        }
+        if (index == 0) {
+            commit(accountId, group);
+        }
+        try {
+            return group.result.join().get(index);
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof ResourceNotFoundException) {
+                throw (ResourceNotFoundException) cause;
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Waits for the window of the group to end, or for the group to fill up, and applies it. Runs
+     * on the thread of the first deposit of the group.
+     */
+    private void commit(Long accountId, Group group) {
+        long[] amounts;
+        synchronized (group) {
+            long deadline = System.nanoTime() + windowNanos;
+            long remaining = windowNanos;
+            while (!group.closed && remaining > 0) {
+                try {
+                    TimeUnit.NANOSECONDS.timedWait(group, remaining);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+                remaining = deadline - System.nanoTime();
+            }
+            if (!group.closed) {
+                close(accountId, group);
+            }
+            amounts = Arrays.copyOf(group.amounts, group.size);
+        }
+        groupSizes.record(amounts.length);
+        try {
+            group.result.complete(balanceEngine.depositAll(accountId, amounts));
+        } catch (Throwable e) {
+            group.result.completeExceptionally(e);
+        }
+    }
+
+    /**
+     * Stops the group from accepting deposits. Must be called while holding the monitor of the group.
+     */
+    private void close(Long accountId, Group group) {
+        group.closed = true;
+        openGroups.remove(accountId, group);
+        group.notifyAll();
+    }
+
+    /**
+     * The deposits into one account that are committed together.
+     */
+    private static final class Group {
+
+        private final long[] amounts;
+
+        private int size;
+
+        private boolean closed;
+
+        private final CompletableFuture<List<Account>> result = new CompletableFuture<>();
+
+        Group(int maxSize) {
+            this.amounts = new long[maxSize];
+        }
+    }
+}
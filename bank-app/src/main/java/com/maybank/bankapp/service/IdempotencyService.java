@@ -0,0 +1,228 @@
+package com.maybank.bankapp.service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.maybank.bankapp.datasource.Shards;
+import com.maybank.bankapp.dto.OperationType;
+import com.maybank.bankapp.entity.Account;
+import com.maybank.bankapp.entity.IdempotencyRecord;
+import com.maybank.bankapp.exception.ErrorCode;
+import com.maybank.bankapp.exception.IdempotencyKeyReusedException;
+import com.maybank.bankapp.exception.ResourceNotFoundException;
+import com.maybank.bankapp.money.Money;
+import com.maybank.bankapp.repository.AccountRepository;
+import com.maybank.bankapp.repository.IdempotencyRecordRepository;
+
+/**
+ * IdempotencyService makes deposits and withdrawals submitted with an Idempotency-Key header safe
+ * to retry.
+ * <p>
+ * Keys are scoped to the account they are used on, so the same key may be used on another account.
+ * The responses of recent keys are kept in a Caffeine cache bounded by size and age, so a retry
+ * is answered with a single hash lookup. The key itself is inserted by the {@link BalanceEngine}
+ * in the same transaction as the balance change; if a key has been evicted from the cache, or two
+ * requests with the same key race, the primary key rejects the second insert, the transaction
+ * rolls back without changing the balance, and the response is rebuilt from the stored record,
+ * which is on the shard of the account.
+ * Stored records are purged once they are older than the time-to-live, after which the key may
+ * be used again.
+ */
+@Service
+public class IdempotencyService {
+
+    /**
+     * Name of the request header carrying the idempotency key.
+     */
+    public static final String HEADER = "Idempotency-Key";
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(IdempotencyService.class);
+
+    private final IdempotencyRecordRepository idempotencyRepository;
+
+    private final AccountRepository accountRepository;
+
+    private final Duration ttl;
+
+    private final Duration purgeInterval;
+
+    private final Cache<IdempotencyRecord.Key, StoredResponse> responses;
+
+    private final Shards shards;
+
+    private ScheduledExecutorService purger;
+
+    /**
+     * A balance change whose result is made idempotent.
+     */
+    @FunctionalInterface
+    public interface Mutation {
+
+        /**
+         * Applies the change, recording the idempotency key in the same transaction.
+         *
+         * @return A snapshot of the account after the change.
+         * @throws ResourceNotFoundException if the account is not found or the change is rejected.
+         */
+        Account apply() throws ResourceNotFoundException;
+    }
+
+    /**
+     * Constructs a new IdempotencyService.
+     *
+     * @param idempotencyRepository The repository the keys are stored in.
+     * @param accountRepository     The repository used to rebuild responses from stored keys.
+     * @param shards                The shards the keys are stored on, with the account they apply to.
+     * @param maxKeys               The maximum number of responses kept in memory.
+     * @param ttl                   How long a key is remembered.
+     * @param purgeInterval         How often expired keys are deleted from the database.
+     */
+    @Autowired
+    public IdempotencyService(IdempotencyRecordRepository idempotencyRepository, AccountRepository accountRepository,
+            Shards shards,
+            @Value("${bank.idempotency.max-keys:100000}") long maxKeys,
+            @Value("${bank.idempotency.ttl:24h}") Duration ttl,
+            @Value("${bank.idempotency.purge-interval:10m}") Duration purgeInterval) {
+        this.idempotencyRepository = idempotencyRepository;
+        this.accountRepository = accountRepository;
+        this.shards = shards;
+        this.ttl = ttl;
+        this.purgeInterval = purgeInterval;
+        this.responses = Caffeine.newBuilder().maximumSize(maxKeys).expireAfterWrite(ttl).build();
+    }
+
+    /**
+     * Starts the background purge of expired keys.
+     */
+    @PostConstruct
+    public void start() {
+        if (purgeInterval.isZero() || purgeInterval.isNegative()) {
+            return;
+        }
+        purger = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "idempotency-purger");
+            thread.setDaemon(true);
+            return thread;
+        });
+        purger.scheduleWithFixedDelay(this::purgeExpired, purgeInterval.toMillis(), purgeInterval.toMillis(),
+                TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Stops the background purge.
+     */
+    @PreDestroy
+    public void stop() {
+        if (purger != null) {
+            purger.shutdownNow();
+        }
+    }
+
+    /**
+     * Applies a deposit or withdrawal at most once per idempotency key. A repeated key returns the
+     * response of the first request without applying the change again.
+     *
+     * @param key       The idempotency key of the request.
+     * @param accountId The ID of the account the change applies to.
+     * @param type      The kind of change.
+     * @param amount    The amount of the change.
+     * @param mutation  The change, which must record the key in its transaction.
+     * @return A snapshot of the account after the first request with the key.
+     * @throws ResourceNotFoundException if the account is not found or the change is rejected.
+     * @throws IdempotencyKeyReusedException if the key was first used on the account for a different request.
+     */
+    public Account execute(String key, Long accountId, OperationType type, Money amount, Mutation mutation)
+            throws ResourceNotFoundException, IdempotencyKeyReusedException {
+        IdempotencyRecord.Key id = new IdempotencyRecord.Key(accountId, key);
+        StoredResponse stored = responses.getIfPresent(id);
+        if (stored != null) {
+            return stored.replay(id, type, amount.getMinorUnits());
+        }
+        Account account;
+        try {
+            account = mutation.apply();
+        } catch (DataIntegrityViolationException e) {
+            try (Shards.Scope shard = shards.forAccount(accountId)) {
+                IdempotencyRecord record = idempotencyRepository.findById(id).orElseThrow(() -> e);
+                LOGGER.info("Replaying idempotency key {} from the database", id);
+                stored = new StoredResponse(record.getType(), record.getAmount(), rebuild(record));
+            }
+            responses.put(id, stored);
+            return stored.replay(id, type, amount.getMinorUnits());
+        }
+        responses.put(id, new StoredResponse(type, amount.getMinorUnits(), account));
+        return account;
+    }
+
+    /**
+     * Deletes the stored keys that are older than the time-to-live from every shard.
+     */
+    void purgeExpired() {
+        try {
+            Instant cutoff = Instant.now().minus(ttl);
+            int deleted = shards.gather(() -> idempotencyRepository.deleteCreatedBefore(cutoff)).stream()
+                    .mapToInt(Integer::intValue).sum();
+            if (deleted > 0) {
+                LOGGER.info("Purged {} expired idempotency keys", deleted);
+            }
+        } catch (RuntimeException e) {
+            LOGGER.error("Failed to purge expired idempotency keys: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Rebuilds the response of a stored key. The version of the account after the first request is
+     * not stored, so the rebuilt response has none and is returned without an ETag.
+     */
+    private Account rebuild(IdempotencyRecord record) throws ResourceNotFoundException {
+        Account current = accountRepository.findById(record.getAccountId()).orElseThrow(
+                () -> new ResourceNotFoundException(ErrorCode.ACCOUNT_NOT_FOUND, "Account not found with id: " + record.getAccountId()));
+        Account account = new Account(record.getAccountId(), current.getType(), record.getBalance(),
+                record.getStatus(), null);
+        account.setCustomerId(current.getCustomerId());
+        account.setVersion(Account.NO_VERSION);
+        return account;
+    }
+
+    /**
+     * The request a key was first used for and the response it received.
+     */
+    private static final class StoredResponse {
+
+        private final OperationType type;
+
+        private final long amount;
+
+        private final Account account;
+
+        StoredResponse(OperationType type, long amount, Account account) {
+            this.type = type;
+            this.amount = amount;
+            this.account = account;
+        }
+
+        Account replay(IdempotencyRecord.Key id, OperationType requestType, long requestAmount)
+                throws IdempotencyKeyReusedException {
+            if (type != requestType || amount != requestAmount) {
+                throw new IdempotencyKeyReusedException(
+                        "Idempotency key " + id.getKey() + " was already used for a different request");
+            }
+            return account;
+        }
+    }
+}
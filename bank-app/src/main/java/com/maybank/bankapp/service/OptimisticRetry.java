@@ -0,0 +1,187 @@
+package com.maybank.bankapp.service;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * OptimisticRetry repeats an account mutation that failed because the account was changed
+ * concurrently.
+ * <p>
+ * Each retry waits a random time between zero and an exponentially growing backoff (full jitter),
+ * so callers that conflicted together do not retry in lockstep. Retries are bounded twice: by the
+ * number of attempts of one call, and by a retry budget shared by all calls. Every call adds
+ * budget-ratio of a token to the budget, up to budget-capacity tokens, and every retry takes a
+ * whole token, so retries stay a fixed fraction of the traffic even when most calls conflict.
+ * <p>
+ * Conflicts, retries and calls given up on are counted as bank.optimistic.conflicts,
+ * bank.optimistic.retries and bank.optimistic.exhausted.
+ */
+@Component
+public class OptimisticRetry {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(OptimisticRetry.class);
+
+    /**
+     * Budget tokens are kept in thousandths so fractional deposits can be added atomically.
+     */
+    private static final long TOKEN = 1000;
+
+    private final int maxAttempts;
+
+    private final long initialBackoffNanos;
+
+    private final long maxBackoffNanos;
+
+    private final long depositPerCall;
+
+    private final long capacity;
+
+    private final AtomicLong budget;
+
+    private final Counter conflicts;
+
+    private final Counter retries;
+
+    private final Counter exhaustedAttempts;
+
+    private final Counter exhaustedBudget;
+
+    /**
+     * An account mutation that may fail with an {@link OptimisticLockingFailureException}.
+     *
+     * @param <T> The type of the result.
+     * @param <E> The type of the checked exception the mutation throws.
+     */
+    @FunctionalInterface
+    public interface Attempt<T, E extends Exception> {
+
+        /**
+         * Applies the mutation once.
+         *
+         * @return The result of the mutation.
+         * @throws E if the mutation is rejected, e.g. because an account is not found.
+         */
+        T run() throws E;
+    }
+
+    /**
+     * Constructs a new OptimisticRetry.
+     *
+     * @param meterRegistry  The registry the conflicts and retries are counted in.
+     * @param maxAttempts    The maximum number of attempts of one call, including the first.
+     * @param initialBackoff The upper bound of the wait before the first retry.
+     * @param maxBackoff     The largest upper bound of the wait before a retry.
+     * @param budgetRatio    The fraction of a retry added to the budget by every call.
+     * @param budgetCapacity The maximum number of retries the budget holds.
+     */
+    @Autowired
+    public OptimisticRetry(MeterRegistry meterRegistry,
+            @Value("${bank.optimistic-retry.max-attempts:5}") int maxAttempts,
+            @Value("${bank.optimistic-retry.initial-backoff:5ms}") Duration initialBackoff,
+            @Value("${bank.optimistic-retry.max-backoff:100ms}") Duration maxBackoff,
+            @Value("${bank.optimistic-retry.budget-ratio:0.1}") double budgetRatio,
+            @Value("${bank.optimistic-retry.budget-capacity:100}") int budgetCapacity) {
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.initialBackoffNanos = Math.max(1, initialBackoff.toNanos());
+        this.maxBackoffNanos = Math.max(initialBackoffNanos, maxBackoff.toNanos());
+        this.depositPerCall = Math.round(budgetRatio * TOKEN);
+        this.capacity = budgetCapacity * TOKEN;
+        this.budget = new AtomicLong(capacity);
+        this.conflicts = Counter.builder("bank.optimistic.conflicts")
+                .description("Account updates rejected because the account was changed concurrently")
+                .register(meterRegistry);
+        this.retries = Counter.builder("bank.optimistic.retries")
+                .description("Account updates retried after a conflict")
+                .register(meterRegistry);
+        this.exhaustedAttempts = Counter.builder("bank.optimistic.exhausted")
+                .description("Account updates given up on after a conflict")
+                .tag("reason", "attempts")
+                .register(meterRegistry);
+        this.exhaustedBudget = Counter.builder("bank.optimistic.exhausted")
+                .description("Account updates given up on after a conflict")
+                .tag("reason", "budget")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Runs the mutation, retrying it while it fails with an optimistic locking conflict and the
+     * attempts and the retry budget allow.
+     *
+     * @param <T>     The type of the result.
+     * @param <E>     The type of the checked exception the mutation throws.
+     * @param attempt The mutation.
+     * @return The result of the first successful attempt.
+     * @throws E if the mutation is rejected, e.g. because an account is not found.
+     * @throws OptimisticLockingFailureException if the last attempt conflicted.
+     */
+    public <T, E extends Exception> T execute(Attempt<T, E> attempt) throws E {
+        refill();
+        for (int attempts = 1;; attempts++) {
+            try {
+                return attempt.run();
+            } catch (OptimisticLockingFailureException e) {
+                conflicts.increment();
+                if (attempts >= maxAttempts) {
+                    exhaustedAttempts.increment();
+                    throw e;
+                }
+                if (!takeToken()) {
+                    exhaustedBudget.increment();
+                    throw e;
+                }
+                retries.increment();
+                LOGGER.info("Retrying after a conflict, attempt {}", attempts + 1);
+                backoff(attempts);
+            }
+        }
+    }
+
+    private void refill() {
+        long current;
+        do {
+            current = budget.get();
+            if (current >= capacity) {
+                return;
+            }
+        } while (!budget.compareAndSet(current, Math.min(capacity, current + depositPerCall)));
+    }
+
+    private boolean takeToken() {
+        long current;
+        do {
+            current = budget.get();
+            if (current < TOKEN) {
+                return false;
+            }
+        } while (!budget.compareAndSet(current, current - TOKEN));
+        return true;
+    }
+
+    /**
+     * Waits a random time up to the backoff of the given attempt.
+     */
+    private void backoff(int attempts) {
+        long bound = initialBackoffNanos << Math.min(attempts - 1, 30);
+        if (bound <= 0 || bound > maxBackoffNanos) {
+            bound = maxBackoffNanos;
+        }
+        long wait = ThreadLocalRandom.current().nextLong(bound + 1);
+        try {
+            TimeUnit.NANOSECONDS.sleep(wait);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
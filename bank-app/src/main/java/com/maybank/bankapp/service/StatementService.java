@@ -0,0 +1,139 @@
+package com.maybank.bankapp.service;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import com.maybank.bankapp.datasource.Shards;
+import com.maybank.bankapp.dto.DataFormat;
+import com.maybank.bankapp.dto.StatementLine;
+import com.maybank.bankapp.repository.AccountTransactionRepository;
+
+/**
+ * StatementService writes the history of an account over a range of days as NDJSON or CSV.
+ * <p>
+ * Lines are read from a forward-only cursor and written to the output as they arrive, so memory
+ * use does not depend on the length of the statement. Days are taken in UTC. The history is read
+ * from the shard of the account.
+ */
+@Service
+public class StatementService {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(StatementService.class);
+
+    private static final String CSV_HEADER = "id,time,type,amount,balance\n";
+
+    private final AccountTransactionRepository transactionRepository;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final Shards shards;
+
+    private final ObjectWriter lineWriter;
+
+    /**
+     * Constructs a new StatementService.
+     *
+     * @param transactionRepository The repository the history is read from.
+     * @param transactionManager    The transaction manager used to keep the cursor open.
+     * @param shards                The shards the history is stored on.
+     * @param objectMapper          The mapper used to write NDJSON lines.
+     */
+    @Autowired
+    public StatementService(AccountTransactionRepository transactionRepository,
+            PlatformTransactionManager transactionManager, Shards shards, ObjectMapper objectMapper) {
+        this.transactionRepository = transactionRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+        this.shards = shards;
+        this.lineWriter = objectMapper.writerFor(StatementLine.class).withRootValueSeparator("\n")
+                .without(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+    }
+
+    /**
+     * Writes the statement of an account. The output is flushed but not closed.
+     *
+     * @param accountId The ID of the account.
+     * @param from      The first day of the statement.
+     * @param to        The last day of the statement, inclusive.
+     * @param format    The format to write.
+     * @param output    The stream to write the statement to.
+     * @return The number of lines written.
+     * @throws IOException if the output cannot be written.
+     */
+    public long writeStatement(Long accountId, LocalDate from, LocalDate to, DataFormat format, OutputStream output)
+            throws IOException {
+        Instant start = from.atStartOfDay(ZoneOffset.UTC).toInstant();
+        Instant end = to.plusDays(1).atStartOfDay(ZoneOffset.UTC).toInstant();
+        Writer writer = new BufferedWriter(new OutputStreamWriter(output, StandardCharsets.UTF_8));
+        try (Shards.Scope shard = shards.forAccount(accountId)) {
+            Long count = transactionTemplate.execute(status -> {
+                try (Stream<StatementLine> lines = transactionRepository.streamStatement(accountId, start, end)) {
+                    return format == DataFormat.CSV ? writeCsv(lines.iterator(), writer)
+                            : writeNdjson(lines.iterator(), writer);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            writer.flush();
+            LOGGER.info("Wrote statement of {} lines for account {} from {} to {}", count, accountId, from, to);
+            return count;
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    private long writeNdjson(Iterator<StatementLine> lines, Writer writer) throws IOException {
+        long count = 0;
+        try (SequenceWriter sequence = lineWriter.writeValues(writer)) {
+            while (lines.hasNext()) {
+                sequence.write(lines.next());
+                count++;
+            }
+        }
+        if (count > 0) {
+            writer.write('\n');
+        }
+        return count;
+    }
+
+    private static long writeCsv(Iterator<StatementLine> lines, Writer writer) throws IOException {
+        long count = 0;
+        writer.write(CSV_HEADER);
+        while (lines.hasNext()) {
+            StatementLine line = lines.next();
+            writer.write(String.valueOf(line.getId()));
+            writer.write(',');
+            writer.write(line.getTime().toString());
+            writer.write(',');
+            writer.write(line.getType().name());
+            writer.write(',');
+            writer.write(line.getAmount().toString());
+            writer.write(',');
+            writer.write(line.getBalance().toString());
+            writer.write('\n');
+            count++;
+        }
+        return count;
+    }
+}
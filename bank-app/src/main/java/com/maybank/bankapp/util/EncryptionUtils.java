@@ -1,31 +1,118 @@
 package com.maybank.bankapp.util;
 
+import java.security.GeneralSecurityException;
 import java.security.SecureRandom;
 
+import javax.crypto.AEADBadTagException;
 import javax.crypto.Cipher;
-import javax.crypto.KeyGenerator;
 import javax.crypto.SecretKey;
+import javax.crypto.spec.GCMParameterSpec;
 
+/**
+ * EncryptionUtils encrypts and decrypts data with AES-GCM.
+ * <p>
+ * Each thread reuses its own {@link Cipher} and {@link SecureRandom}, so a call only initializes
+ * the cipher with a fresh IV. The AES key schedule is cached by the cipher for as long as the same
+ * key is used, which keeps the cost of a call close to the cost of the cipher itself. The output
+ * is the 12-byte IV followed by the ciphertext and the 16-byte authentication tag.
+ */
 public class EncryptionUtils {
 
-	public static byte[] encrypt(byte[] data) throws Exception {
-		KeyGenerator keyGenerator = KeyGenerator.getInstance("AES");
-		keyGenerator.init(128);
-		Cipher cipher = Cipher.getInstance("AES");
-		cipher.init(Cipher.ENCRYPT_MODE, keyGenerator.generateKey());
-		return cipher.doFinal(data);
+	/**
+	 * Length of the GCM IV in bytes.
+	 */
+	public static final int IV_LENGTH = 12;
+
+	/**
+	 * Length of the GCM authentication tag in bits.
+	 */
+	public static final int TAG_LENGTH = 128;
+
+	private static final String TRANSFORMATION = "AES/GCM/NoPadding";
+
+	private static final ThreadLocal<Cipher> CIPHER = ThreadLocal.withInitial(() -> {
+		try {
+			return Cipher.getInstance(TRANSFORMATION);
+		} catch (GeneralSecurityException e) {
+			throw new IllegalStateException(TRANSFORMATION + " is not available", e);
+		}
+	});
+
+	/**
+	 * The default generator reads the operating system's source behind a lock shared by every
+	 * instance, so each thread uses its own self-seeded SHA1PRNG instead.
+	 */
+	private static final ThreadLocal<SecureRandom> RANDOM = ThreadLocal.withInitial(() -> {
+		try {
+			return SecureRandom.getInstance("SHA1PRNG");
+		} catch (GeneralSecurityException e) {
+			return new SecureRandom();
+		}
+	});
+
+	private EncryptionUtils() {
+	}
+
+	/**
+	 * Encrypts the data with a new random IV.
+	 *
+	 * @param data The data to encrypt.
+	 * @param key  The AES key.
+	 * @return The IV followed by the ciphertext and authentication tag.
+	 * @throws GeneralSecurityException if the key is not a valid AES key.
+	 */
+	public static byte[] encrypt(byte[] data, SecretKey key) throws GeneralSecurityException {
+		return encrypt(data, key, 0);
+	}
+
+	/**
+	 * Encrypts the data with a new random IV, leaving room for a header before the IV.
+	 *
+	 * @param data         The data to encrypt.
+	 * @param key          The AES key.
+	 * @param headerLength The number of bytes left free at the start of the result.
+	 * @return The header space, then the IV followed by the ciphertext and authentication tag.
+	 * @throws GeneralSecurityException if the key is not a valid AES key.
+	 */
+	public static byte[] encrypt(byte[] data, SecretKey key, int headerLength) throws GeneralSecurityException {
+		byte[] iv = new byte[IV_LENGTH];
+		RANDOM.get().nextBytes(iv);
+		Cipher cipher = CIPHER.get();
+		cipher.init(Cipher.ENCRYPT_MODE, key, new GCMParameterSpec(TAG_LENGTH, iv));
+		byte[] output = new byte[headerLength + IV_LENGTH + cipher.getOutputSize(data.length)];
+		System.arraycopy(iv, 0, output, headerLength, IV_LENGTH);
+		cipher.doFinal(data, 0, data.length, output, headerLength + IV_LENGTH);
+		return output;
 	}
 
-	public static byte[] decrypt(byte[] encryptedData, SecretKey secretKey) throws Exception {
-		Cipher cipher = Cipher.getInstance("AES");
-		cipher.init(Cipher.DECRYPT_MODE, secretKey);
-		return cipher.doFinal(encryptedData);
+	/**
+	 * Decrypts data produced by {@link #encrypt(byte[], SecretKey)}.
+	 *
+	 * @param encryptedData The IV followed by the ciphertext and authentication tag.
+	 * @param key           The AES key the data was encrypted with.
+	 * @return The decrypted data.
+	 * @throws GeneralSecurityException if the key is wrong or the data was tampered with.
+	 */
+	public static byte[] decrypt(byte[] encryptedData, SecretKey key) throws GeneralSecurityException {
+		return decrypt(encryptedData, 0, key);
 	}
 
-	public static byte[] generateAccountNumber() {
-		SecureRandom random = new SecureRandom();
-		long randomNumber = Math.abs(random.nextLong() % 1_000_000_000L) + 1_000_000_000L;
-		return String.valueOf(randomNumber).getBytes();
+	/**
+	 * Decrypts data produced by {@link #encrypt(byte[], SecretKey, int)}.
+	 *
+	 * @param encryptedData The header, then the IV followed by the ciphertext and authentication tag.
+	 * @param offset        The length of the header to skip.
+	 * @param key           The AES key the data was encrypted with.
+	 * @return The decrypted data.
+	 * @throws GeneralSecurityException if the key is wrong or the data was tampered with.
+	 */
+	public static byte[] decrypt(byte[] encryptedData, int offset, SecretKey key) throws GeneralSecurityException {
+		if (encryptedData.length - offset < IV_LENGTH + TAG_LENGTH / 8) {
+			throw new AEADBadTagException("Encrypted data is too short");
+		}
+		Cipher cipher = CIPHER.get();
+		cipher.init(Cipher.DECRYPT_MODE, key, new GCMParameterSpec(TAG_LENGTH, encryptedData, offset, IV_LENGTH));
+		return cipher.doFinal(encryptedData, offset + IV_LENGTH, encryptedData.length - offset - IV_LENGTH);
 	}
 
 }
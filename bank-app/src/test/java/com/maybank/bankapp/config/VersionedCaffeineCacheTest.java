@@ -0,0 +1,60 @@
+package com.maybank.bankapp.config;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.maybank.bankapp.entity.Account;
+import com.maybank.bankapp.entity.Customer;
+
+public class VersionedCaffeineCacheTest {
+
+	private VersionedCaffeineCache cache;
+
+	@BeforeEach
+	void setUp() {
+		cache = new VersionedCaffeineCache(CacheConfig.ACCOUNTS, Caffeine.newBuilder().build(), true);
+	}
+
+	@Test
+	public void testOlderSnapshotDoesNotReplaceNewer() {
+		cache.put(1L, account(1L, 300L, 3L));
+		cache.put(1L, account(1L, 200L, 2L));
+
+		Account cached = cache.get(1L, Account.class);
+		assertEquals(3L, cached.getVersion());
+		assertEquals(300L, cached.getBalanceMinor());
+
+		cache.put(1L, account(1L, 400L, 4L));
+		assertEquals(4L, cache.get(1L, Account.class).getVersion());
+	}
+
+	@Test
+	public void testSnapshotWithoutVersionIsNotCached() {
+		cache.put(1L, account(1L, 100L, Account.NO_VERSION));
+		assertNull(cache.get(1L));
+
+		cache.put(2L, account(2L, 100L, 1L));
+		cache.put(2L, account(2L, 200L, Account.NO_VERSION));
+		assertEquals(100L, cache.get(2L, Account.class).getBalanceMinor());
+	}
+
+	@Test
+	public void testOlderCustomerDoesNotReplaceNewer() {
+		Customer renamed = new Customer(7L, "Alice Smith");
+		renamed.setVersion(1L);
+		cache.put(7L, renamed);
+		cache.put(7L, new Customer(7L, "Alice"));
+
+		assertEquals("Alice Smith", cache.get(7L, Customer.class).getName());
+	}
+
+	private static Account account(Long id, long balance, long version) {
+		Account account = new Account(id, "Savings", balance, "Active", null);
+		account.setVersion(version);
+		return account;
+	}
+}
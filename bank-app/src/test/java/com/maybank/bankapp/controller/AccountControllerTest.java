@@ -1,26 +1,56 @@
 package com.maybank.bankapp.controller;
 
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import java.util.Collections;
+import java.util.OptionalLong;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.RequestBuilder;
+import org.springframework.test.web.servlet.ResultActions;
 import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
 import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
 
+import com.maybank.bankapp.dto.BatchOperation;
+import com.maybank.bankapp.dto.BatchOperationResult;
+import com.maybank.bankapp.dto.OperationType;
+import com.maybank.bankapp.dto.TransferResult;
 import com.maybank.bankapp.entity.Account;
+import com.maybank.bankapp.entity.Customer;
+import com.maybank.bankapp.exception.ErrorCode;
+import com.maybank.bankapp.exception.IdempotencyKeyReusedException;
+import com.maybank.bankapp.exception.InsufficientFundsException;
+import com.maybank.bankapp.exception.ResourceNotFoundException;
+import com.maybank.bankapp.exception.ServiceUnavailableException;
+import com.maybank.bankapp.executor.DatabaseExecutor;
+import com.maybank.bankapp.money.Money;
 import com.maybank.bankapp.service.AccountService;
+import com.maybank.bankapp.service.CustomerService;
+import com.maybank.bankapp.service.IdempotencyService;
 
 @ExtendWith(SpringExtension.class)
-@WebMvcTest(AccountController.class)
+@WebMvcTest(controllers = AccountController.class, properties = "bank.rate-limit.enabled=false")
 @AutoConfigureMockMvc
 public class AccountControllerTest {
 
@@ -30,12 +60,27 @@ public class AccountControllerTest {
 	@MockBean
 	private AccountService accountService;
 
+	@MockBean
+	private IdempotencyService idempotencyService;
+
+	@MockBean
+	private CustomerService customerService;
+
+	@MockBean
+	private DatabaseExecutor databaseExecutor;
+
+	@BeforeEach
+	void setUp() {
+		when(databaseExecutor.submit(any())).thenAnswer(
+				invocation -> CompletableFuture.completedFuture(invocation.getArgument(0, Callable.class).call()));
+	}
+
 	@Test
 	public void testCreateAccount() throws Exception {
 		Account createdAccount = new Account();
 		createdAccount.setId(1L);
 		when(accountService.createAccount(anyString(), anyLong())).thenReturn(createdAccount);
-		mockMvc.perform(MockMvcRequestBuilders.post("/accounts/createAccount").param("type", "Savings").param("customerId", "123")
+		perform(MockMvcRequestBuilders.post("/accounts/createAccount").param("type", "Savings").param("customerId", "123")
 				.contentType(MediaType.APPLICATION_JSON).accept(MediaType.APPLICATION_JSON))
 				.andExpect(MockMvcResultMatchers.status().isCreated())
 				.andExpect(MockMvcResultMatchers.jsonPath("$.id").value(1L));
@@ -46,28 +91,215 @@ public class AccountControllerTest {
 		Account account = new Account();
 		account.setId(1L);
 		when(accountService.getAccountById(1L)).thenReturn(account);
-		mockMvc.perform(MockMvcRequestBuilders.get("/accounts/1").contentType(MediaType.APPLICATION_JSON)
+		perform(MockMvcRequestBuilders.get("/accounts/1").contentType(MediaType.APPLICATION_JSON)
 				.accept(MediaType.APPLICATION_JSON)).andExpect(MockMvcResultMatchers.status().isOk())
 				.andExpect(MockMvcResultMatchers.jsonPath("$.id").exists());
 	}
 
+	@Test
+	public void testGetAccountTakesCustomerFromCustomerService() throws Exception {
+		Account account = new Account(1L, "Savings", 10000L, "Active", new Customer(7L, "Alice"));
+		when(accountService.getAccountById(1L)).thenReturn(account);
+		when(customerService.getCustomerById(7L)).thenReturn(new Customer(7L, "Alice"));
+		perform(MockMvcRequestBuilders.get("/accounts/1").accept(MediaType.APPLICATION_JSON))
+				.andExpect(MockMvcResultMatchers.status().isOk())
+				.andExpect(MockMvcResultMatchers.jsonPath("$.balance").value(100.0))
+				.andExpect(MockMvcResultMatchers.jsonPath("$.customer.id").value(7L))
+				.andExpect(MockMvcResultMatchers.jsonPath("$.customer.name").value("Alice"))
+				.andExpect(MockMvcResultMatchers.jsonPath("$.version").doesNotExist());
+	}
+
+	@Test
+	public void testGetAccountWithCurrentETagIsNotModified() throws Exception {
+		when(accountService.findCachedVersion(1L)).thenReturn(OptionalLong.of(3L));
+		perform(MockMvcRequestBuilders.get("/accounts/1").header(HttpHeaders.IF_NONE_MATCH, "\"3\""))
+				.andExpect(MockMvcResultMatchers.status().isNotModified())
+				.andExpect(MockMvcResultMatchers.header().string(HttpHeaders.ETAG, "\"3\""))
+				.andExpect(MockMvcResultMatchers.content().string(""));
+		verify(accountService, never()).getAccountById(anyLong());
+	}
+
+	@Test
+	public void testGetAccountWithOutdatedETagReturnsAccount() throws Exception {
+		Account account = new Account(1L, "Savings", 10000L, "Active", null);
+		account.setVersion(4L);
+		when(accountService.findCachedVersion(1L)).thenReturn(OptionalLong.of(4L));
+		when(accountService.getAccountById(1L)).thenReturn(account);
+		perform(MockMvcRequestBuilders.get("/accounts/1").header(HttpHeaders.IF_NONE_MATCH, "\"3\""))
+				.andExpect(MockMvcResultMatchers.status().isOk())
+				.andExpect(MockMvcResultMatchers.header().string(HttpHeaders.ETAG, "\"4\""))
+				.andExpect(MockMvcResultMatchers.jsonPath("$.balance").value(100.0));
+	}
+
+	@Test
+	public void testDepositReturnsNewETag() throws Exception {
+		Account account = new Account(1L, "Savings", 10000L, "Active", null);
+		account.setVersion(5L);
+		when(accountService.deposit(1L, Money.valueOf("100.00"))).thenReturn(account);
+		perform(MockMvcRequestBuilders.post("/accounts/1/deposit").param("amount", "100.00"))
+				.andExpect(MockMvcResultMatchers.status().isOk())
+				.andExpect(MockMvcResultMatchers.header().string(HttpHeaders.ETAG, "\"5\""));
+	}
+
+	@Test
+	public void testReplayedDepositHasNoETag() throws Exception {
+		Account account = new Account(1L, "Savings", 10000L, "Active", null);
+		account.setVersion(Account.NO_VERSION);
+		when(idempotencyService.execute(eq("key-1"), eq(1L), eq(OperationType.DEPOSIT), any(), any())).thenReturn(account);
+		perform(MockMvcRequestBuilders.post("/accounts/1/deposit").param("amount", "100.00")
+				.header(IdempotencyService.HEADER, "key-1"))
+				.andExpect(MockMvcResultMatchers.status().isOk())
+				.andExpect(MockMvcResultMatchers.header().doesNotExist(HttpHeaders.ETAG));
+	}
+
 	@Test
 	public void testDeposit() throws Exception {
-		mockMvc.perform(MockMvcRequestBuilders.post("/accounts/1/deposit").param("amount", "100.0")
+		perform(MockMvcRequestBuilders.post("/accounts/1/deposit").param("amount", "100.0")
 				.contentType(MediaType.APPLICATION_JSON).accept(MediaType.APPLICATION_JSON))
 				.andExpect(MockMvcResultMatchers.status().isOk());
 	}
 
 	@Test
 	public void testWithdraw() throws Exception {
-		mockMvc.perform(MockMvcRequestBuilders.post("/accounts/1/withdraw").param("amount", "50.0")
+		perform(MockMvcRequestBuilders.post("/accounts/1/withdraw").param("amount", "50.0")
 				.contentType(MediaType.APPLICATION_JSON).accept(MediaType.APPLICATION_JSON))
 				.andExpect(MockMvcResultMatchers.status().isOk());
 	}
 
+	@Test
+	public void testWithdrawWithInsufficientFunds() throws Exception {
+		when(accountService.withdraw(1L, Money.valueOf("50.00")))
+				.thenThrow(new InsufficientFundsException("Insufficient funds in account: 1"));
+		perform(MockMvcRequestBuilders.post("/accounts/1/withdraw").param("amount", "50.00"))
+				.andExpect(MockMvcResultMatchers.status().isUnprocessableEntity())
+				.andExpect(MockMvcResultMatchers.jsonPath("$.errorCode").value(422))
+				.andExpect(MockMvcResultMatchers.jsonPath("$.errorMessage").value("Insufficient funds"));
+	}
+
+	@Test
+	public void testCreateAccountForUnknownCustomer() throws Exception {
+		when(accountService.createAccount("Savings", 9L))
+				.thenThrow(new ResourceNotFoundException(ErrorCode.CUSTOMER_NOT_FOUND, "Customer not found with id: 9"));
+		perform(MockMvcRequestBuilders.post("/accounts/createAccount").param("type", "Savings").param("customerId", "9"))
+				.andExpect(MockMvcResultMatchers.status().isNotFound())
+				.andExpect(MockMvcResultMatchers.jsonPath("$.errorMessage").value("Customer not found"));
+	}
+
+	@Test
+	public void testDepositWithIdempotencyKey() throws Exception {
+		Account account = new Account(1L, "Savings", 10000L, "Active", null);
+		when(idempotencyService.execute(eq("key-1"), eq(1L), eq(OperationType.DEPOSIT), eq(Money.valueOf("100.00")),
+				any())).thenReturn(account);
+		perform(MockMvcRequestBuilders.post("/accounts/1/deposit").param("amount", "100.00")
+				.header(IdempotencyService.HEADER, "key-1")
+				.contentType(MediaType.APPLICATION_JSON).accept(MediaType.APPLICATION_JSON))
+				.andExpect(MockMvcResultMatchers.status().isOk())
+				.andExpect(MockMvcResultMatchers.jsonPath("$.balance").value(100.0));
+	}
+
+	@Test
+	public void testWithdrawWithReusedIdempotencyKey() throws Exception {
+		when(idempotencyService.execute(eq("key-1"), eq(1L), eq(OperationType.WITHDRAW), any(), any()))
+				.thenThrow(new IdempotencyKeyReusedException("Idempotency key key-1 was already used for a different request"));
+		perform(MockMvcRequestBuilders.post("/accounts/1/withdraw").param("amount", "50.00")
+				.header(IdempotencyService.HEADER, "key-1")
+				.contentType(MediaType.APPLICATION_JSON).accept(MediaType.APPLICATION_JSON))
+				.andExpect(MockMvcResultMatchers.status().isUnprocessableEntity())
+				.andExpect(MockMvcResultMatchers.jsonPath("$.errorCode").value(422))
+				.andExpect(MockMvcResultMatchers.jsonPath("$.errorMessage")
+						.value("Idempotency key reused for a different request"));
+	}
+
+	@Test
+	public void testApplyBatch() throws Exception {
+		when(accountService.applyBatch(anyList())).thenReturn(Collections.singletonList(
+				BatchOperationResult.applied(new BatchOperation(1L, OperationType.DEPOSIT, Money.valueOf("100.00")),
+						Money.valueOf("100.00"))));
+		perform(MockMvcRequestBuilders.post("/accounts/batch")
+				.content("[{\"accountId\":1,\"op\":\"DEPOSIT\",\"amount\":100.0}]")
+				.contentType(MediaType.APPLICATION_JSON).accept(MediaType.APPLICATION_JSON))
+				.andExpect(MockMvcResultMatchers.status().isOk())
+				.andExpect(MockMvcResultMatchers.jsonPath("$[0].success").value(true))
+				.andExpect(MockMvcResultMatchers.jsonPath("$[0].balance").value(100.0));
+	}
+
+	@Test
+	public void testDepositRejectsFractionalCents() throws Exception {
+		perform(MockMvcRequestBuilders.post("/accounts/1/deposit").param("amount", "10.005")
+				.contentType(MediaType.APPLICATION_JSON).accept(MediaType.APPLICATION_JSON))
+				.andExpect(MockMvcResultMatchers.status().isBadRequest());
+	}
+
+	@Test
+	public void testDepositRejectsZeroAmount() throws Exception {
+		perform(MockMvcRequestBuilders.post("/accounts/1/deposit").param("amount", "0.00")
+				.contentType(MediaType.APPLICATION_JSON).accept(MediaType.APPLICATION_JSON))
+				.andExpect(MockMvcResultMatchers.status().isBadRequest())
+				.andExpect(MockMvcResultMatchers.jsonPath("$.errorMessage").value("Amount must be positive"));
+		verify(accountService, never()).deposit(anyLong(), any());
+	}
+
+	@Test
+	public void testWithdrawRejectsNegativeAmount() throws Exception {
+		perform(MockMvcRequestBuilders.post("/accounts/1/withdraw").param("amount", "-50.00")
+				.header(IdempotencyService.HEADER, "key-1")
+				.contentType(MediaType.APPLICATION_JSON).accept(MediaType.APPLICATION_JSON))
+				.andExpect(MockMvcResultMatchers.status().isBadRequest())
+				.andExpect(MockMvcResultMatchers.jsonPath("$.errorMessage").value("Amount must be positive"));
+		verify(accountService, never()).withdraw(anyLong(), any());
+		verify(idempotencyService, never()).execute(anyString(), anyLong(), any(), any(), any());
+	}
+
+	@Test
+	public void testApplyEmptyBatch() throws Exception {
+		perform(MockMvcRequestBuilders.post("/accounts/batch").content("[]")
+				.contentType(MediaType.APPLICATION_JSON).accept(MediaType.APPLICATION_JSON))
+				.andExpect(MockMvcResultMatchers.status().isBadRequest());
+	}
+
+	@Test
+	public void testTransfer() throws Exception {
+		Account from = new Account();
+		from.setId(1L);
+		Account to = new Account();
+		to.setId(2L);
+		when(accountService.transfer(1L, 2L, Money.valueOf("25.00")))
+				.thenReturn(new TransferResult(from, to, Money.valueOf("25.00")));
+		perform(MockMvcRequestBuilders.post("/accounts/transfer").param("fromAccountId", "1")
+				.param("toAccountId", "2").param("amount", "25.0")
+				.contentType(MediaType.APPLICATION_JSON).accept(MediaType.APPLICATION_JSON))
+				.andExpect(MockMvcResultMatchers.status().isOk())
+				.andExpect(MockMvcResultMatchers.jsonPath("$.fromAccount.id").value(1L))
+				.andExpect(MockMvcResultMatchers.jsonPath("$.toAccount.id").value(2L));
+	}
+
+	@Test
+	public void testTransferToSameAccount() throws Exception {
+		perform(MockMvcRequestBuilders.post("/accounts/transfer").param("fromAccountId", "1")
+				.param("toAccountId", "1").param("amount", "25.0")
+				.contentType(MediaType.APPLICATION_JSON).accept(MediaType.APPLICATION_JSON))
+				.andExpect(MockMvcResultMatchers.status().isBadRequest());
+	}
+
 	@Test
 	public void testCloseAccount() throws Exception {
-		mockMvc.perform(MockMvcRequestBuilders.post("/accounts/1/close").contentType(MediaType.APPLICATION_JSON)
+		perform(MockMvcRequestBuilders.post("/accounts/1/close").contentType(MediaType.APPLICATION_JSON)
 				.accept(MediaType.APPLICATION_JSON)).andExpect(MockMvcResultMatchers.status().isOk());
 	}
+
+	@Test
+	public void testBusyExecutorAnswersServiceUnavailable() throws Exception {
+		doThrow(new ServiceUnavailableException("The server is busy", 2)).when(databaseExecutor).submit(any());
+		perform(MockMvcRequestBuilders.get("/accounts/1").accept(MediaType.APPLICATION_JSON))
+				.andExpect(MockMvcResultMatchers.status().isServiceUnavailable())
+				.andExpect(MockMvcResultMatchers.header().string("Retry-After", "2"));
+	}
+
+	private ResultActions perform(RequestBuilder request) throws Exception {
+		ResultActions actions = mockMvc.perform(request);
+		MvcResult result = actions.andReturn();
+		return result.getRequest().isAsyncStarted()
+				? mockMvc.perform(MockMvcRequestBuilders.asyncDispatch(result))
+				: actions;
+	}
 }
@@ -1,20 +1,45 @@
 package com.maybank.bankapp.controller;
 
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
+import java.util.Arrays;
+import java.util.OptionalLong;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
+import org.springframework.test.util.ReflectionTestUtils;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.RequestBuilder;
+import org.springframework.test.web.servlet.ResultActions;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 
+import com.maybank.bankapp.dto.AccountPage;
+import com.maybank.bankapp.dto.AccountSummary;
+import com.maybank.bankapp.dto.DataFormat;
+import com.maybank.bankapp.dto.ImportSummary;
 import com.maybank.bankapp.entity.Customer;
+import com.maybank.bankapp.exception.ResourceNotFoundException;
+import com.maybank.bankapp.executor.DatabaseExecutor;
+import com.maybank.bankapp.service.AccountService;
+import com.maybank.bankapp.service.CustomerImportService;
 import com.maybank.bankapp.service.CustomerService;
 
 public class CustomerControllerTest {
@@ -22,12 +47,22 @@ public class CustomerControllerTest {
 	private MockMvc mockMvc;
 
 	private CustomerService customerService;
+	private CustomerImportService customerImportService;
+	private AccountService accountService;
+	private DatabaseExecutor databaseExecutor;
 	private CustomerController customerController;
 
 	@BeforeEach
 	void setUp() {
 		customerService = mock(CustomerService.class);
-		customerController = new CustomerController(customerService);
+		customerImportService = mock(CustomerImportService.class);
+		accountService = mock(AccountService.class);
+		databaseExecutor = mock(DatabaseExecutor.class);
+		when(databaseExecutor.submit(any())).thenAnswer(
+				invocation -> CompletableFuture.completedFuture(invocation.getArgument(0, Callable.class).call()));
+		customerController = new CustomerController(customerService, customerImportService, accountService,
+				databaseExecutor);
+		ReflectionTestUtils.setField(customerController, "maxPageSize", 200);
 		mockMvc = MockMvcBuilders.standaloneSetup(customerController).build();
 	}
 
@@ -41,7 +76,7 @@ public class CustomerControllerTest {
 
 		when(customerService.createCustomer(anyString())).thenReturn(createdCustomer);
 
-		mockMvc.perform(post("/customers/createCustomer").contentType(MediaType.APPLICATION_JSON).content(requestBody))
+		perform(post("/customers/createCustomer").contentType(MediaType.APPLICATION_JSON).content(requestBody))
 				.andExpect(status().isCreated()).andExpect(jsonPath("$.id").value(1L))
 				.andExpect(jsonPath("$.name").value("TestUser1"));
 	}
@@ -51,10 +86,74 @@ public class CustomerControllerTest {
 		Customer customer = new Customer();
 		customer.setId(1L);
 		customer.setName("TestUser2");
+		customer.setVersion(2L);
 
 		when(customerService.getCustomerById(1L)).thenReturn(customer);
 
-		mockMvc.perform(get("/customers/1").contentType(MediaType.APPLICATION_JSON)).andExpect(status().isOk())
-				.andExpect(jsonPath("$.id").value(1L)).andExpect(jsonPath("$.name").value("TestUser2"));
+		perform(get("/customers/1").contentType(MediaType.APPLICATION_JSON)).andExpect(status().isOk())
+				.andExpect(jsonPath("$.id").value(1L)).andExpect(jsonPath("$.name").value("TestUser2"))
+				.andExpect(jsonPath("$.version").doesNotExist())
+				.andExpect(header().string(HttpHeaders.ETAG, "\"2\""));
+	}
+
+	@Test
+	public void testGetCachedCustomerWithETagIsNotModified() throws Exception {
+		when(customerService.findCachedVersion(1L)).thenReturn(OptionalLong.of(2L));
+
+		perform(get("/customers/1").header(HttpHeaders.IF_NONE_MATCH, "W/\"2\""))
+				.andExpect(status().isNotModified()).andExpect(header().string(HttpHeaders.ETAG, "\"2\""));
+		verify(customerService, never()).getCustomerById(anyLong());
+	}
+
+	@Test
+	public void testImportCustomers() throws Exception {
+		ImportSummary summary = new ImportSummary(10);
+		summary.imported(1);
+		summary.rejected(2, "Customer name should not be empty");
+
+		when(customerImportService.importCustomers(any(), eq(DataFormat.CSV))).thenReturn(summary);
+
+		perform(post("/customers/import").contentType("text/csv").content("name,accountType\nA,Savings\n,\n"))
+				.andExpect(status().isOk()).andExpect(jsonPath("$.customersImported").value(1))
+				.andExpect(jsonPath("$.rejected").value(1)).andExpect(jsonPath("$.rejectedRows[0].line").value(2));
+	}
+
+	@Test
+	public void testImportUnsupportedFormat() throws Exception {
+		perform(post("/customers/import").contentType(MediaType.APPLICATION_XML).content("<a/>"))
+				.andExpect(status().isUnsupportedMediaType());
+	}
+
+	@Test
+	public void testGetCustomerAccounts() throws Exception {
+		AccountPage page = new AccountPage(Arrays.asList(new AccountSummary(1000000008L, "Savings", 1050, "Active"),
+				new AccountSummary(1000000016L, "Savings", 0, "Active")), 1000000016L);
+
+		when(accountService.getAccountsByCustomer(1L, 1000000000L, "Savings", null, 2)).thenReturn(page);
+
+		perform(get("/customers/1/accounts").param("cursor", "1000000000").param("type", "Savings")
+				.param("limit", "2")).andExpect(status().isOk())
+				.andExpect(jsonPath("$.accounts[0].id").value(1000000008L))
+				.andExpect(jsonPath("$.accounts[0].balance").value(10.5))
+				.andExpect(jsonPath("$.nextCursor").value(1000000016L));
+	}
+
+	@Test
+	public void testGetCustomerAccountsRejectsLargeLimit() throws Exception {
+		perform(get("/customers/1/accounts").param("limit", "201")).andExpect(status().isBadRequest());
+	}
+
+	@Test
+	public void testGetAccountsOfUnknownCustomer() throws Exception {
+		when(accountService.getAccountsByCustomer(9L, null, null, null, 50))
+				.thenThrow(new ResourceNotFoundException("Customer not found with id: 9"));
+
+		perform(get("/customers/9/accounts")).andExpect(status().isNotFound());
+	}
+
+	private ResultActions perform(RequestBuilder request) throws Exception {
+		ResultActions actions = mockMvc.perform(request);
+		MvcResult result = actions.andReturn();
+		return result.getRequest().isAsyncStarted() ? mockMvc.perform(asyncDispatch(result)) : actions;
 	}
 }
@@ -0,0 +1,80 @@
+package com.maybank.bankapp.crypto;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.Map;
+
+import javax.crypto.KeyGenerator;
+import javax.crypto.SecretKey;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class FieldEncryptorTest {
+
+	@TempDir
+	Path tempDir;
+
+	@Test
+	public void testRoundTripUsesFreshIv() throws Exception {
+		FieldEncryptor encryptor = new FieldEncryptor(keys("k1"), "k1");
+
+		String first = encryptor.encrypt("Jane Doe");
+		String second = encryptor.encrypt("Jane Doe");
+
+		assertNotEquals(first, second);
+		assertEquals("Jane Doe", encryptor.decrypt(first));
+		assertEquals("Jane Doe", encryptor.decrypt(second));
+		assertNull(encryptor.encrypt(null));
+		assertNull(encryptor.decrypt(null));
+	}
+
+	@Test
+	public void testValuesOfRotatedKeyRemainReadable() throws Exception {
+		Map<String, SecretKey> keys = keys("k1");
+		String old = new FieldEncryptor(keys, "k1").encrypt("Jane Doe");
+		keys.putAll(keys("k2"));
+
+		FieldEncryptor rotated = new FieldEncryptor(keys, "k2");
+
+		assertEquals("Jane Doe", rotated.decrypt(old));
+		assertEquals("Jane Doe", rotated.decrypt(rotated.encrypt("Jane Doe")));
+	}
+
+	@Test
+	public void testTamperedValueIsRejected() throws Exception {
+		FieldEncryptor encryptor = new FieldEncryptor(keys("k1"), "k1");
+		byte[] data = Base64.getDecoder().decode(encryptor.encrypt("Jane Doe"));
+		data[data.length - 1] ^= 1;
+
+		assertThrows(IllegalStateException.class, () -> encryptor.decrypt(Base64.getEncoder().encodeToString(data)));
+		assertThrows(IllegalStateException.class, () -> encryptor.decrypt("Jane Doe"));
+	}
+
+	@Test
+	public void testCreatedKeystoreIsReloaded() {
+		String keystore = tempDir.resolve("keys/keystore.p12").toString();
+		String encrypted = new FieldEncryptor(keystore, "secret", "k1", true).encrypt("Jane Doe");
+
+		assertTrue(Files.exists(tempDir.resolve("keys/keystore.p12")));
+		assertEquals("Jane Doe", new FieldEncryptor(keystore, "secret", "k1", false).decrypt(encrypted));
+		assertThrows(IllegalStateException.class,
+				() -> new FieldEncryptor(tempDir.resolve("missing.p12").toString(), "secret", "k1", false));
+	}
+
+	private static Map<String, SecretKey> keys(String alias) throws Exception {
+		KeyGenerator generator = KeyGenerator.getInstance("AES");
+		generator.init(256);
+		Map<String, SecretKey> keys = new HashMap<>();
+		keys.put(alias, generator.generateKey());
+		return keys;
+	}
+}
@@ -0,0 +1,94 @@
+package com.maybank.bankapp.datasource;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import javax.sql.DataSource;
+
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+public class ReplicaRoutingDataSourceTest {
+
+	private JdbcTemplate jdbcTemplate;
+	private TransactionTemplate readWrite;
+	private TransactionTemplate readOnly;
+
+	@BeforeEach
+	void setUp() {
+		DataSource primary = database("primary");
+		DataSource replica = database("replica");
+		DataSource routing = ReplicaRoutingDataSource.create(primary, replica);
+		jdbcTemplate = new JdbcTemplate(routing);
+		DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(routing);
+		readWrite = new TransactionTemplate(transactionManager);
+		readOnly = new TransactionTemplate(transactionManager);
+		readOnly.setReadOnly(true);
+	}
+
+	@AfterEach
+	void tearDown() {
+		ReplicaRoutingDataSource.setReplicaReads(false);
+		ReplicaRoutingDataSource.setReadYourWrites(false);
+	}
+
+	@Test
+	public void testReadOnlyServiceTransactionReadsReplica() {
+		ReplicaRoutingDataSource.setReplicaReads(true);
+
+		assertEquals("replica", readOnly.execute(status -> name()));
+		assertEquals("primary", readWrite.execute(status -> name()));
+	}
+
+	@Test
+	public void testOtherReadOnlyTransactionsReadPrimary() {
+		assertEquals("primary", readOnly.execute(status -> name()));
+	}
+
+	@Test
+	public void testReadYourWritesReadsPrimary() {
+		ReplicaRoutingDataSource.setReplicaReads(true);
+		ReplicaRoutingDataSource.setReadYourWrites(true);
+
+		assertEquals("primary", readOnly.execute(status -> name()));
+	}
+
+	@Test
+	public void testReadYourWritesIsCarriedToExecutorThreads() throws Exception {
+		ReadYourWritesFilter filter = new ReadYourWritesFilter();
+		ReplicaRoutingDataSource.setReadYourWrites(true);
+		String[] seen = new String[1];
+		Runnable task = filter.decorate(() -> {
+			ReplicaRoutingDataSource.setReplicaReads(true);
+			seen[0] = readOnly.execute(status -> name());
+		});
+		ExecutorService executor = Executors.newSingleThreadExecutor();
+		executor.execute(task);
+		executor.shutdown();
+		executor.awaitTermination(5, TimeUnit.SECONDS);
+
+		assertEquals("primary", seen[0]);
+	}
+
+	private String name() {
+		return jdbcTemplate.queryForObject("select name from node", String.class);
+	}
+
+	private static DataSource database(String name) {
+		JdbcDataSource dataSource = new JdbcDataSource();
+		dataSource.setURL("jdbc:h2:mem:" + name + ";DB_CLOSE_DELAY=-1");
+		JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+		jdbcTemplate.execute("create table if not exists node (name varchar(16))");
+		jdbcTemplate.update("delete from node");
+		jdbcTemplate.update("insert into node values (?)", name);
+		return dataSource;
+	}
+}
@@ -0,0 +1,96 @@
+package com.maybank.bankapp.datasource;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+import java.util.List;
+
+import javax.sql.DataSource;
+
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+public class ShardsTest {
+
+	private Shards shards;
+	private JdbcTemplate jdbcTemplate;
+	private TransactionTemplate transactionTemplate;
+
+	@BeforeEach
+	void setUp() {
+		shards = new Shards(new String[] { "jdbc:h2:mem:shard1", "jdbc:h2:mem:shard2" });
+		DataSource routing = ShardRoutingDataSource
+				.create(Arrays.asList(database("shard0"), database("shard1"), database("shard2")));
+		jdbcTemplate = new JdbcTemplate(routing);
+		transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(routing));
+	}
+
+	@AfterEach
+	void tearDown() {
+		shards.shutdown();
+	}
+
+	@Test
+	public void testAccountIdsAreSpreadEvenlyAndStably() {
+		int[] counts = new int[3];
+		for (long base = 100000000L; base < 100030000L; base++) {
+			long accountId = base * 10 + base % 10;
+			int shard = shards.shardOf(accountId);
+			assertEquals(shard, Shards.shardOf(accountId, 3));
+			counts[shard]++;
+		}
+
+		for (int count : counts) {
+			assertTrue(Math.abs(count - 10000) < 500, "Uneven shard size " + count);
+		}
+	}
+
+	@Test
+	public void testTransactionRunsOnSelectedShardAndScopeRestoresPrevious() {
+		try (Shards.Scope outer = shards.forShard(2)) {
+			try (Shards.Scope inner = shards.forShard(1)) {
+				assertEquals("shard1", transactionTemplate.execute(status -> name()));
+			}
+			assertEquals("shard2", transactionTemplate.execute(status -> name()));
+		}
+		assertEquals("shard0", transactionTemplate.execute(status -> name()));
+	}
+
+	@Test
+	public void testGatherQueriesEveryShardInOrder() {
+		List<String> names = shards.gather(this::name);
+
+		assertEquals(Arrays.asList("shard0", "shard1", "shard2"), names);
+		assertEquals("shard0", name());
+	}
+
+	@Test
+	public void testSingleDatabaseRunsInPlace() {
+		Shards single = new Shards(new String[] { "" });
+
+		assertEquals(1, single.count());
+		assertEquals(0, single.shardOf(1000000008L));
+		assertEquals(Arrays.asList(Thread.currentThread().getName()),
+				single.gather(() -> Thread.currentThread().getName()));
+	}
+
+	private String name() {
+		return jdbcTemplate.queryForObject("select name from node", String.class);
+	}
+
+	private static DataSource database(String name) {
+		JdbcDataSource dataSource = new JdbcDataSource();
+		dataSource.setURL("jdbc:h2:mem:" + name + ";DB_CLOSE_DELAY=-1");
+		JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+		jdbcTemplate.execute("create table if not exists node (name varchar(16))");
+		jdbcTemplate.update("delete from node");
+		jdbcTemplate.update("insert into node values (?)", name);
+		return dataSource;
+	}
+}
@@ -0,0 +1,99 @@
+package com.maybank.bankapp.executor;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.core.task.TaskDecorator;
+
+import com.maybank.bankapp.exception.ServiceUnavailableException;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+public class DatabaseExecutorTest {
+
+	private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+	private final StaticListableBeanFactory beanFactory = new StaticListableBeanFactory();
+	private DatabaseExecutor databaseExecutor;
+
+	@AfterEach
+	void tearDown() throws Exception {
+		if (databaseExecutor != null) {
+			databaseExecutor.shutdown();
+		}
+	}
+
+	@Test
+	public void testFullQueueIsRejected() throws Exception {
+		databaseExecutor = new DatabaseExecutor(true, 1, 1, 3, beanFactory.getBeanProvider(TaskDecorator.class),
+				meterRegistry);
+		CountDownLatch release = new CountDownLatch(1);
+		CompletableFuture<String> running = databaseExecutor.submit(() -> {
+			release.await();
+			return "first";
+		});
+		CompletableFuture<String> queued = databaseExecutor.submit(() -> "second");
+
+		ServiceUnavailableException e = assertThrows(ServiceUnavailableException.class,
+				() -> databaseExecutor.submit(() -> "third"));
+		assertEquals(3, e.getRetryAfterSeconds());
+		assertEquals(1, meterRegistry.get("bank.db.executor.rejected").counter().count());
+
+		release.countDown();
+		assertEquals("first", running.get(5, TimeUnit.SECONDS));
+		assertEquals("second", queued.get(5, TimeUnit.SECONDS));
+	}
+
+	@Test
+	public void testFailureCompletesFutureExceptionally() throws Exception {
+		databaseExecutor = new DatabaseExecutor(true, 1, 1, 1, beanFactory.getBeanProvider(TaskDecorator.class),
+				meterRegistry);
+		CompletableFuture<String> future = databaseExecutor.submit(() -> {
+			throw new IllegalStateException("db down");
+		});
+
+		ExecutionException e = assertThrows(ExecutionException.class, () -> future.get(5, TimeUnit.SECONDS));
+		assertTrue(e.getCause() instanceof IllegalStateException);
+	}
+
+	@Test
+	public void testDecoratorsWrapTasks() throws Exception {
+		ThreadLocal<String> context = new ThreadLocal<>();
+		context.set("request-1");
+		beanFactory.addBean("contextDecorator", (TaskDecorator) task -> {
+			String value = context.get();
+			return () -> {
+				context.set(value);
+				try {
+					task.run();
+				} finally {
+					context.remove();
+				}
+			};
+		});
+		databaseExecutor = new DatabaseExecutor(true, 1, 1, 1, beanFactory.getBeanProvider(TaskDecorator.class),
+				meterRegistry);
+
+		assertEquals("request-1", databaseExecutor.submit(context::get).get(5, TimeUnit.SECONDS));
+	}
+
+	@Test
+	public void testDisabledExecutorRunsOnCallingThread() throws Exception {
+		databaseExecutor = new DatabaseExecutor(false, 1, 1, 1, beanFactory.getBeanProvider(TaskDecorator.class),
+				meterRegistry);
+		Thread caller = Thread.currentThread();
+
+		CompletableFuture<Thread> future = databaseExecutor.submit(Thread::currentThread);
+
+		assertTrue(future.isDone());
+		assertEquals(caller, future.get());
+	}
+}
@@ -0,0 +1,84 @@
+package com.maybank.bankapp.journal;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.nio.file.Path;
+
+import javax.persistence.EntityManager;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+
+import com.maybank.bankapp.crypto.EncryptedStringConverter;
+import com.maybank.bankapp.crypto.FieldEncryptor;
+import com.maybank.bankapp.datasource.Shards;
+import com.maybank.bankapp.entity.Account;
+import com.maybank.bankapp.repository.AccountRepository;
+
+@DataJpaTest(properties = "bank.encryption.keystore=target/test-keystore.p12")
+@Import({ EncryptedStringConverter.class, FieldEncryptor.class })
+public class JournalRecoveryTest {
+
+	@Autowired
+	private AccountRepository accountRepository;
+
+	@Autowired
+	private EntityManager entityManager;
+
+	@TempDir
+	Path directory;
+
+	private TransactionJournal journal;
+	private JournalRecovery recovery;
+
+	@BeforeEach
+	void setUp() throws Exception {
+		journal = new TransactionJournal(true, directory.toString(), 4096, 0);
+		journal.open();
+		recovery = new JournalRecovery(journal, accountRepository, new Shards(new String[0]), false);
+		entityManager.persist(new Account(1L, "Savings", 0L, "Active", null));
+		entityManager.persist(new Account(2L, "Savings", 0L, "Active", null));
+		entityManager.flush();
+	}
+
+	@AfterEach
+	void tearDown() throws Exception {
+		journal.close();
+	}
+
+	@Test
+	public void testRestoresAccountBehindJournal() {
+		journal.append(1L, JournalEntryType.DEPOSIT, 100L, 100L, 1L);
+		journal.append(1L, JournalEntryType.DEPOSIT, 200L, 300L, 2L);
+
+		assertEquals(1, recovery.recover());
+
+		Account account = reload(1L);
+		assertEquals(300L, account.getBalanceMinor());
+		assertEquals(2L, account.getVersion());
+	}
+
+	@Test
+	public void testKeepsAccountAheadOfJournal() {
+		journal.append(2L, JournalEntryType.DEPOSIT, 100L, 100L, 1L);
+		journal.append(2L, JournalEntryType.CLOSE, 0L, 100L, 2L);
+		entityManager.createQuery("update Account a set a.balance = 500, a.version = 3 where a.id = 2").executeUpdate();
+
+		assertEquals(0, recovery.recover());
+
+		Account account = reload(2L);
+		assertEquals(500L, account.getBalanceMinor());
+		assertEquals("Active", account.getStatus());
+		assertEquals(3L, account.getVersion());
+	}
+
+	private Account reload(Long id) {
+		entityManager.clear();
+		return accountRepository.findById(id).get();
+	}
+}
@@ -0,0 +1,55 @@
+package com.maybank.bankapp.journal;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class TransactionJournalTest {
+
+	@TempDir
+	Path directory;
+
+	@Test
+	public void testAppendRollsSegmentsAndReplaysInOrder() throws Exception {
+		TransactionJournal journal = new TransactionJournal(true, directory.toString(),
+				TransactionJournal.RECORD_SIZE * 4, 1);
+		journal.open();
+		for (int i = 1; i <= 10; i++) {
+			journal.append(7L, JournalEntryType.DEPOSIT, 100L, i * 100L, i);
+		}
+		journal.append(7L, JournalEntryType.CLOSE, 0, 1000L, 11L);
+		journal.close();
+
+		assertEquals(3, Files.list(directory).count());
+		List<JournalEntry> entries = new ArrayList<>();
+		assertEquals(11, journal.replay(entries::add));
+		assertEquals(1, entries.get(0).getSequence());
+		assertEquals(1000L, entries.get(9).getBalance());
+		assertEquals(JournalEntryType.CLOSE, entries.get(10).getType());
+	}
+
+	@Test
+	public void testReopenContinuesSequence() throws Exception {
+		TransactionJournal journal = new TransactionJournal(true, directory.toString(), 4096, 0);
+		journal.open();
+		journal.append(1L, JournalEntryType.DEPOSIT, 500L, 500L, 1L);
+		journal.append(1L, JournalEntryType.WITHDRAW, 200L, 300L, 2L);
+		journal.close();
+
+		TransactionJournal reopened = new TransactionJournal(true, directory.toString(), 4096, 0);
+		reopened.open();
+		assertEquals(3, reopened.append(1L, JournalEntryType.DEPOSIT, 100L, 400L, 3L));
+		reopened.close();
+
+		List<JournalEntry> entries = new ArrayList<>();
+		reopened.replay(entries::add);
+		assertEquals(3, entries.size());
+		assertEquals(400L, entries.get(2).getBalance());
+	}
+}
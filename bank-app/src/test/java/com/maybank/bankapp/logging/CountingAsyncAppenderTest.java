@@ -0,0 +1,74 @@
+package com.maybank.bankapp.logging;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.classic.spi.LoggingEvent;
+import ch.qos.logback.core.AppenderBase;
+
+public class CountingAsyncAppenderTest {
+
+	@Test
+	public void testFullQueueDropsAndCountsInsteadOfBlocking() throws Exception {
+		LoggerContext context = new LoggerContext();
+		CountDownLatch release = new CountDownLatch(1);
+		AtomicInteger written = new AtomicInteger();
+		AppenderBase<ILoggingEvent> slow = new AppenderBase<ILoggingEvent>() {
+			@Override
+			protected void append(ILoggingEvent event) {
+				try {
+					release.await(10, TimeUnit.SECONDS);
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+				written.incrementAndGet();
+			}
+		};
+		slow.setContext(context);
+		slow.start();
+		CountingAsyncAppender appender = new CountingAsyncAppender();
+		appender.setContext(context);
+		appender.setQueueSize(2);
+		appender.setDiscardingThreshold(0);
+		appender.setNeverBlock(true);
+		appender.addAppender(slow);
+		appender.start();
+
+		long start = System.nanoTime();
+		for (int i = 0; i < 100; i++) {
+			appender.doAppend(new LoggingEvent("test", context.getLogger("test"), Level.ERROR, "failed", null, null));
+		}
+		assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(5));
+		release.countDown();
+		appender.stop();
+
+		assertTrue(appender.getDroppedCount() > 0);
+		assertEquals(100, written.get() + appender.getDroppedCount());
+	}
+
+	@Test
+	public void testRoutineEventsAreDiscardedAboveThreshold() {
+		LoggerContext context = new LoggerContext();
+		CountingAsyncAppender appender = new CountingAsyncAppender();
+		appender.setContext(context);
+		appender.setQueueSize(10);
+		appender.setDiscardingThreshold(10);
+		appender.setNeverBlock(true);
+
+		assertTrue(appender.isDiscardable(
+				new LoggingEvent("test", context.getLogger("test"), Level.INFO, "deposited", null, null)));
+		assertFalse(appender.isDiscardable(
+				new LoggingEvent("test", context.getLogger("test"), Level.ERROR, "failed", null, null)));
+		assertEquals(1, appender.getDroppedCount());
+	}
+}
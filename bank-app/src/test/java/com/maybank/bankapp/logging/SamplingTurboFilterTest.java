@@ -0,0 +1,52 @@
+package com.maybank.bankapp.logging;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.core.spi.FilterReply;
+
+public class SamplingTurboFilterTest {
+
+	private LoggerContext context;
+	private SamplingTurboFilter filter;
+
+	@BeforeEach
+	void setUp() {
+		context = new LoggerContext();
+		context.getLogger(Logger.ROOT_LOGGER_NAME).setLevel(Level.INFO);
+		filter = new SamplingTurboFilter();
+		filter.setRates("com.example=1.0, com.example.service=0");
+	}
+
+	@Test
+	public void testLongestPrefixRateApplies() {
+		Logger sampled = context.getLogger("com.example.service.AccountService");
+		Logger kept = context.getLogger("com.example.controller.AccountController");
+
+		assertEquals(FilterReply.DENY, decide(sampled, Level.INFO));
+		assertEquals(FilterReply.NEUTRAL, decide(kept, Level.INFO));
+		assertEquals(FilterReply.NEUTRAL, decide(context.getLogger("org.example.Other"), Level.INFO));
+		assertEquals(FilterReply.NEUTRAL, decide(context.getLogger("com.examples.Other"), Level.INFO));
+		assertEquals(1, filter.getSampledOutCount());
+	}
+
+	@Test
+	public void testWarningsErrorsAndDisabledLevelsAreNotSampled() {
+		Logger sampled = context.getLogger("com.example.service.AccountService");
+
+		assertEquals(FilterReply.NEUTRAL, decide(sampled, Level.WARN));
+		assertEquals(FilterReply.NEUTRAL, decide(sampled, Level.ERROR));
+		assertEquals(FilterReply.NEUTRAL, decide(sampled, Level.DEBUG));
+		assertEquals(FilterReply.NEUTRAL, filter.decide(null, sampled, Level.INFO, null, null, null));
+		assertEquals(0, filter.getSampledOutCount());
+	}
+
+	private FilterReply decide(Logger logger, Level level) {
+		return filter.decide(null, logger, level, "Deposited {}", new Object[] { 1 }, null);
+	}
+}
@@ -0,0 +1,128 @@
+package com.maybank.bankapp.metrics;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.lang.reflect.Proxy;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import com.maybank.bankapp.exception.InsufficientFundsException;
+import com.maybank.bankapp.repository.AccountRepository;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+public class MetricsAspectTest {
+
+	private SimpleMeterRegistry meterRegistry;
+	private MetricsAspect metricsAspect;
+
+	@BeforeEach
+	void setUp() {
+		meterRegistry = new SimpleMeterRegistry();
+		metricsAspect = new MetricsAspect(meterRegistry);
+	}
+
+	@Test
+	public void testSuccessfulCallsShareOneTimer() throws Throwable {
+		ProceedingJoinPoint joinPoint = joinPoint("toString");
+		when(joinPoint.proceed()).thenReturn("ok");
+
+		metricsAspect.timeService(joinPoint);
+		metricsAspect.timeService(joinPoint);
+
+		assertEquals(2, meterRegistry.get(MetricsAspect.TIMER_NAME).tag("layer", "service")
+				.tag("class", "MetricsAspectTest").tag("method", "toString").tag("outcome", "success").timer().count());
+	}
+
+	@Test
+	public void testControllerKeepsOutcomeOfFailedService() throws Throwable {
+		ProceedingJoinPoint service = joinPoint("hashCode");
+		when(service.proceed()).thenThrow(new InsufficientFundsException("Insufficient funds in account: 1"));
+		ProceedingJoinPoint controller = joinPoint("toString");
+		when(controller.proceed()).thenAnswer(invocation -> {
+			try {
+				metricsAspect.timeService(service);
+				return ResponseEntity.ok().build();
+			} catch (InsufficientFundsException e) {
+				return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
+			}
+		});
+
+		metricsAspect.timeController(controller);
+
+		assertEquals(1, meterRegistry.get(MetricsAspect.TIMER_NAME).tag("layer", "service")
+				.tag("outcome", "insufficient_funds").timer().count());
+		assertEquals(1, meterRegistry.get(MetricsAspect.TIMER_NAME).tag("layer", "controller")
+				.tag("outcome", "insufficient_funds").timer().count());
+	}
+
+	@Test
+	public void testAsyncControllerKeepsOutcomeOfServiceOnExecutor() throws Throwable {
+		ProceedingJoinPoint service = joinPoint("hashCode");
+		when(service.proceed()).thenThrow(new InsufficientFundsException("Insufficient funds in account: 1"));
+		ProceedingJoinPoint controller = joinPoint("toString");
+		ExecutorService executor = Executors.newSingleThreadExecutor();
+		CompletableFuture<ResponseEntity<?>> future = new CompletableFuture<>();
+		when(controller.proceed()).thenAnswer(invocation -> {
+			executor.execute(metricsAspect.decorate(() -> {
+				try {
+					metricsAspect.timeService(service);
+					future.complete(ResponseEntity.ok().build());
+				} catch (Throwable e) {
+					future.complete(ResponseEntity.status(HttpStatus.NOT_FOUND).build());
+				}
+			}));
+			return future;
+		});
+
+		metricsAspect.timeController(controller);
+		future.get(5, TimeUnit.SECONDS);
+		executor.shutdown();
+		executor.awaitTermination(5, TimeUnit.SECONDS);
+
+		assertEquals(1, meterRegistry.get(MetricsAspect.TIMER_NAME).tag("layer", "controller")
+				.tag("outcome", "insufficient_funds").timer().count());
+	}
+
+	@Test
+	public void testFailedRepositoryCallIsTimedAndRethrown() throws Throwable {
+		ProceedingJoinPoint joinPoint = joinPoint("toString");
+		when(joinPoint.proceed()).thenThrow(new IllegalStateException("db down"));
+
+		assertThrows(IllegalStateException.class, () -> metricsAspect.timeRepository(joinPoint));
+
+		assertEquals(1, meterRegistry.get(MetricsAspect.TIMER_NAME).tag("layer", "repository")
+				.tag("outcome", "error").timer().count());
+	}
+
+	@Test
+	public void testRepositoryProxyIsNamedAfterItsInterface() {
+		assertEquals("AccountRepository", MetricsAspect.componentName(mockProxyClass()));
+	}
+
+	private ProceedingJoinPoint joinPoint(String methodName) throws NoSuchMethodException {
+		MethodSignature signature = mock(MethodSignature.class);
+		when(signature.getMethod()).thenReturn(Object.class.getMethod(methodName));
+		ProceedingJoinPoint joinPoint = mock(ProceedingJoinPoint.class);
+		when(joinPoint.getThis()).thenReturn(this);
+		when(joinPoint.getSignature()).thenReturn(signature);
+		return joinPoint;
+	}
+
+	private static Class<?> mockProxyClass() {
+		return Proxy.newProxyInstance(MetricsAspectTest.class.getClassLoader(),
+				new Class<?>[] { AccountRepository.class }, (proxy, method, args) -> null).getClass();
+	}
+}
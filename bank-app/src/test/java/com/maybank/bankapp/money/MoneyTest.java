@@ -0,0 +1,37 @@
+package com.maybank.bankapp.money;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.math.BigDecimal;
+
+import org.junit.jupiter.api.Test;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+public class MoneyTest {
+
+	@Test
+	public void testParseIsExact() {
+		assertEquals(10025L, Money.valueOf("100.25").getMinorUnits());
+		assertEquals(10000L, Money.valueOf("100").getMinorUnits());
+		assertEquals(Money.valueOf("0.30"), Money.valueOf("0.10").plus(Money.valueOf("0.20")));
+		assertThrows(IllegalArgumentException.class, () -> Money.valueOf("1.005"));
+		assertThrows(IllegalArgumentException.class, () -> Money.valueOf("abc"));
+	}
+
+	@Test
+	public void testArithmeticDetectsOverflow() {
+		assertThrows(ArithmeticException.class, () -> Money.add(Long.MAX_VALUE, 1));
+		assertThrows(ArithmeticException.class, () -> Money.subtract(Long.MIN_VALUE, 1));
+		assertEquals(-5L, Money.subtract(5, 10));
+	}
+
+	@Test
+	public void testJsonRoundTrip() throws Exception {
+		ObjectMapper mapper = new ObjectMapper();
+		assertEquals("100.25", mapper.writeValueAsString(Money.ofMinor(10025)));
+		assertEquals(Money.ofMinor(10025), mapper.readValue("100.25", Money.class));
+		assertEquals(new BigDecimal("0.05"), mapper.readValue("\"0.05\"", Money.class).toBigDecimal());
+	}
+}
@@ -0,0 +1,143 @@
+package com.maybank.bankapp.ratelimit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+public class RateLimitFilterTest {
+
+	private SimpleMeterRegistry meterRegistry;
+	private RateLimitFilter filter;
+
+	@BeforeEach
+	void setUp() {
+		meterRegistry = new SimpleMeterRegistry();
+		filter = new RateLimitFilter(5, 0.001, 2, 0.001, Duration.ofMinutes(10), Duration.ZERO, new ObjectMapper(),
+				meterRegistry);
+	}
+
+	@Test
+	public void testBucketRefillsOverTime() {
+		long second = TimeUnit.SECONDS.toNanos(1);
+		TokenBucket bucket = new TokenBucket(2, second, 0);
+
+		assertEquals(0, bucket.tryAcquire(0));
+		assertEquals(0, bucket.tryAcquire(0));
+		assertEquals(second, bucket.tryAcquire(0));
+		assertEquals(0, bucket.tryAcquire(second));
+		assertTrue(bucket.tryAcquire(second) > 0);
+		assertEquals(0, bucket.tryAcquire(10 * second));
+		assertEquals(0, bucket.tryAcquire(10 * second));
+		assertTrue(bucket.isFullSince(12 * second));
+	}
+
+	@Test
+	public void testConcurrentAcquiresTakeEachTokenOnce() throws Exception {
+		TokenBucket bucket = new TokenBucket(1000, TimeUnit.HOURS.toNanos(1), 0);
+		AtomicInteger taken = new AtomicInteger();
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+		CountDownLatch start = new CountDownLatch(1);
+		for (int i = 0; i < 4; i++) {
+			executor.submit(() -> {
+				start.await();
+				for (int j = 0; j < 1000; j++) {
+					if (bucket.tryAcquire(0) == 0) {
+						taken.incrementAndGet();
+					}
+				}
+				return null;
+			});
+		}
+		start.countDown();
+		executor.shutdown();
+		assertTrue(executor.awaitTermination(30, TimeUnit.SECONDS));
+
+		assertEquals(1000, taken.get());
+	}
+
+	@Test
+	public void testWithdrawalsFromOneAccountAreLimited() throws Exception {
+		assertEquals(200, perform(post("/bank-api/accounts/1/withdraw", "10.0.0.1")).getStatus());
+		assertEquals(200, perform(post("/bank-api/accounts/1/withdraw", "10.0.0.2")).getStatus());
+		MockHttpServletResponse rejected = perform(post("/bank-api/accounts/1/withdraw", "10.0.0.3"));
+
+		assertEquals(429, rejected.getStatus());
+		assertTrue(Long.parseLong(rejected.getHeader(HttpHeaders.RETRY_AFTER)) > 0);
+		assertTrue(rejected.getContentAsString().contains("\"errorCode\":429"));
+		assertEquals(200, perform(post("/bank-api/accounts/2/withdraw", "10.0.0.3")).getStatus());
+		assertEquals(200, perform(get("/bank-api/accounts/1", "10.0.0.3")).getStatus());
+		assertEquals(1.0, meterRegistry.get("bank.rate-limit.rejected").tag("key", "account").counter().count());
+	}
+
+	@Test
+	public void testTransferIsLimitedByDebitedAccount() throws Exception {
+		for (int i = 0; i < 2; i++) {
+			MockHttpServletRequest transfer = post("/bank-api/accounts/transfer", "10.0.0.1");
+			transfer.setParameter("fromAccountId", "1");
+			assertEquals(200, perform(transfer).getStatus());
+		}
+		assertEquals(429, perform(post("/bank-api/accounts/1/deposit", "10.0.0.2")).getStatus());
+	}
+
+	@Test
+	public void testRequestsFromOneClientAreLimited() throws Exception {
+		for (int i = 0; i < 5; i++) {
+			assertEquals(200, perform(get("/bank-api/accounts/" + i, "10.0.0.1")).getStatus());
+		}
+		assertEquals(429, perform(get("/bank-api/accounts/1", "10.0.0.1")).getStatus());
+		assertEquals(200, perform(get("/bank-api/accounts/1", "10.0.0.2")).getStatus());
+		assertEquals(200, perform(get("/bank-api/customers/1", "10.0.0.1")).getStatus());
+		assertEquals(1.0, meterRegistry.get("bank.rate-limit.rejected").tag("key", "client").counter().count());
+	}
+
+	@Test
+	public void testIdleBucketsAreEvicted() throws Exception {
+		perform(post("/bank-api/accounts/1/withdraw", "10.0.0.1"));
+		assertEquals(1.0, meterRegistry.get("bank.rate-limit.buckets").tag("key", "account").gauge().value());
+
+		filter.evictIdle(System.nanoTime());
+		assertEquals(1.0, meterRegistry.get("bank.rate-limit.buckets").tag("key", "account").gauge().value());
+
+		filter.evictIdle(System.nanoTime() + TimeUnit.DAYS.toNanos(365));
+		assertEquals(0.0, meterRegistry.get("bank.rate-limit.buckets").tag("key", "account").gauge().value());
+		assertEquals(0.0, meterRegistry.get("bank.rate-limit.buckets").tag("key", "client").gauge().value());
+	}
+
+	private MockHttpServletResponse perform(MockHttpServletRequest request) throws Exception {
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		filter.doFilter(request, response, new MockFilterChain());
+		return response;
+	}
+
+	private static MockHttpServletRequest post(String uri, String remoteAddress) {
+		return request("POST", uri, remoteAddress);
+	}
+
+	private static MockHttpServletRequest get(String uri, String remoteAddress) {
+		return request("GET", uri, remoteAddress);
+	}
+
+	private static MockHttpServletRequest request(String method, String uri, String remoteAddress) {
+		MockHttpServletRequest request = new MockHttpServletRequest(method, uri);
+		request.setContextPath("/bank-api");
+		request.setRemoteAddr(remoteAddress);
+		return request;
+	}
+}
@@ -0,0 +1,50 @@
+package com.maybank.bankapp.repository;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import javax.persistence.EntityManager;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+
+import com.maybank.bankapp.crypto.EncryptedStringConverter;
+import com.maybank.bankapp.crypto.FieldEncryptor;
+import com.maybank.bankapp.entity.Account;
+import com.maybank.bankapp.entity.Customer;
+
+@DataJpaTest(properties = "bank.encryption.keystore=target/test-keystore.p12")
+@Import({ EncryptedStringConverter.class, FieldEncryptor.class })
+public class AccountRepositoryTest {
+
+	@Autowired
+	private AccountRepository accountRepository;
+
+	@Autowired
+	private EntityManager entityManager;
+
+	@Test
+	public void testFindSnapshotByIdReturnsUnmanagedAccount() {
+		Customer customer = new Customer(null, "Alice");
+		entityManager.persist(customer);
+		entityManager.persist(new Account(1000000008L, "Savings", 2500L, "Active", customer));
+		entityManager.flush();
+		accountRepository.updateBalance(1000000008L, 3000L, 0L);
+		entityManager.clear();
+
+		Account snapshot = accountRepository.findSnapshotById(1000000008L).get();
+
+		assertEquals(3000L, snapshot.getBalanceMinor());
+		assertEquals("Savings", snapshot.getType());
+		assertEquals("Active", snapshot.getStatus());
+		assertEquals(customer.getId(), snapshot.getCustomerId());
+		assertEquals(1L, snapshot.getVersion());
+		assertNull(snapshot.getCustomer());
+		assertFalse(snapshot.isNew());
+		assertFalse(entityManager.contains(snapshot));
+		assertFalse(accountRepository.findSnapshotById(1L).isPresent());
+	}
+}
@@ -0,0 +1,64 @@
+package com.maybank.bankapp.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.HashSet;
+import java.util.Optional;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import com.maybank.bankapp.datasource.Shards;
+import com.maybank.bankapp.entity.AccountNumberBlock;
+import com.maybank.bankapp.repository.AccountNumberBlockRepository;
+
+public class AccountNumberGeneratorTest {
+
+	@Test
+	public void testNumbersAreUniqueAndCarryCheckDigit() {
+		AccountNumberBlockRepository blockRepository = mock(AccountNumberBlockRepository.class);
+		AccountNumberBlock block = new AccountNumberBlock("account", 100000000L);
+		when(blockRepository.findForUpdate("account")).thenReturn(Optional.of(block));
+		when(blockRepository.save(any())).thenAnswer(invocation -> invocation.getArgument(0));
+		AccountNumberGenerator generator = new AccountNumberGenerator(blockRepository,
+				mock(PlatformTransactionManager.class), new Shards(new String[0]), 100000000L, 10);
+
+		Set<Long> numbers = new HashSet<>();
+		for (int i = 0; i < 25; i++) {
+			long number = generator.nextAccountNumber();
+			assertTrue(AccountNumberGenerator.isValid(number));
+			assertEquals(10, String.valueOf(number).length());
+			numbers.add(number);
+		}
+
+		assertEquals(25, numbers.size());
+		assertEquals(100000030L, block.getNextValue());
+	}
+
+	@Test
+	public void testConcurrentlyCreatedRangeIsReservedAgain() {
+		AccountNumberBlockRepository blockRepository = mock(AccountNumberBlockRepository.class);
+		AccountNumberBlock created = new AccountNumberBlock("account", 100000010L);
+		when(blockRepository.findForUpdate("account")).thenReturn(Optional.empty(), Optional.of(created));
+		when(blockRepository.save(any())).thenThrow(new DataIntegrityViolationException("Duplicate key"))
+				.thenAnswer(invocation -> invocation.getArgument(0));
+		AccountNumberGenerator generator = new AccountNumberGenerator(blockRepository,
+				mock(PlatformTransactionManager.class), new Shards(new String[0]), 100000000L, 10);
+
+		assertEquals(100000010L, generator.nextAccountNumber() / 10);
+		assertEquals(100000020L, created.getNextValue());
+	}
+
+	@Test
+	public void testIsValidRejectsWrongCheckDigit() {
+		assertTrue(AccountNumberGenerator.isValid(79927398713L));
+		assertFalse(AccountNumberGenerator.isValid(79927398710L));
+	}
+}
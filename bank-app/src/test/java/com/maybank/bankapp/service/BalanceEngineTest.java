@@ -0,0 +1,336 @@
+package com.maybank.bankapp.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import com.maybank.bankapp.datasource.Shards;
+import com.maybank.bankapp.dto.BatchOperation;
+import com.maybank.bankapp.dto.BatchOperationResult;
+import com.maybank.bankapp.dto.BatchResult;
+import com.maybank.bankapp.dto.OperationType;
+import com.maybank.bankapp.entity.Account;
+import com.maybank.bankapp.entity.AccountTransaction;
+import com.maybank.bankapp.exception.ErrorCode;
+import com.maybank.bankapp.exception.ResourceNotFoundException;
+import com.maybank.bankapp.exception.TransferIncompleteException;
+import com.maybank.bankapp.journal.TransactionJournal;
+import com.maybank.bankapp.metrics.VolumeCounters;
+import com.maybank.bankapp.money.Money;
+import com.maybank.bankapp.repository.AccountRepository;
+import com.maybank.bankapp.repository.AccountTransactionRepository;
+import com.maybank.bankapp.repository.IdempotencyRecordRepository;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+public class BalanceEngineTest {
+
+	private AccountRepository accountRepository;
+	private AccountTransactionRepository transactionRepository;
+	private IdempotencyRecordRepository idempotencyRepository;
+	private TransactionJournal journal;
+	private SimpleMeterRegistry meterRegistry;
+	private BalanceEngine balanceEngine;
+
+	@BeforeEach
+	void setUp() {
+		accountRepository = mock(AccountRepository.class);
+		transactionRepository = mock(AccountTransactionRepository.class);
+		idempotencyRepository = mock(IdempotencyRecordRepository.class);
+		journal = mock(TransactionJournal.class);
+		meterRegistry = new SimpleMeterRegistry();
+		balanceEngine = new BalanceEngine(accountRepository, transactionRepository, idempotencyRepository,
+				mock(PlatformTransactionManager.class), journal, new Shards(new String[0]),
+				meterRegistry, 16, 1000);
+		Account account = new Account();
+		account.setId(1L);
+		account.setStatus("Active");
+		when(accountRepository.findById(1L)).thenReturn(Optional.of(account));
+		when(accountRepository.updateBalance(anyLong(), anyLong(), anyLong())).thenReturn(1);
+	}
+
+	@Test
+	public void testConcurrentDepositsAreNotLost() throws Exception {
+		int threads = 8;
+		int depositsPerThread = 500;
+		ExecutorService executor = Executors.newFixedThreadPool(threads);
+		CountDownLatch start = new CountDownLatch(1);
+		for (int i = 0; i < threads; i++) {
+			executor.submit(() -> {
+				start.await();
+				for (int j = 0; j < depositsPerThread; j++) {
+					balanceEngine.deposit(1L, 100L);
+				}
+				return null;
+			});
+		}
+		start.countDown();
+		executor.shutdown();
+		executor.awaitTermination(30, TimeUnit.SECONDS);
+
+		assertEquals(threads * depositsPerThread * 100L, balanceOf(1L));
+		verify(accountRepository, times(1)).findById(1L);
+	}
+
+	@Test
+	public void testWithdrawWithInsufficientFundsDoesNotPersist() throws Exception {
+		balanceEngine.deposit(1L, 1000L);
+		ResourceNotFoundException e = assertThrows(ResourceNotFoundException.class, () -> balanceEngine.withdraw(1L, 2000L));
+		assertEquals(ErrorCode.INSUFFICIENT_FUNDS, e.getErrorCode());
+		assertEquals(0, e.getStackTrace().length);
+		verify(accountRepository, never()).updateBalance(eq(1L), eq(-1000L), anyLong());
+		assertEquals(1000L, balanceOf(1L));
+	}
+
+	@Test
+	public void testNonPositiveAmountsAreRejected() throws Exception {
+		balanceEngine.deposit(1L, 1000L);
+
+		assertThrows(IllegalArgumentException.class, () -> balanceEngine.deposit(1L, 0L));
+		assertThrows(IllegalArgumentException.class, () -> balanceEngine.deposit(1L, -500L));
+		assertThrows(IllegalArgumentException.class, () -> balanceEngine.withdraw(1L, 0L));
+		assertThrows(IllegalArgumentException.class, () -> balanceEngine.withdraw(1L, -500L));
+		assertThrows(IllegalArgumentException.class, () -> balanceEngine.depositAll(1L, new long[] { 100L, -100L }));
+		verify(accountRepository, times(1)).updateBalance(eq(1L), anyLong(), anyLong());
+		assertEquals(1000L, balanceOf(1L));
+	}
+
+	@Test
+	public void testFailedPersistLeavesBalanceUnchanged() throws Exception {
+		when(accountRepository.updateBalance(eq(1L), anyLong(), anyLong())).thenThrow(new IllegalStateException("db down"))
+				.thenReturn(1);
+		assertThrows(IllegalStateException.class, () -> balanceEngine.deposit(1L, 1000L));
+		assertEquals(500L, balanceEngine.deposit(1L, 500L).getBalanceMinor());
+	}
+
+	@Test
+	public void testApplyBatchRejectsOnlyFailingOperations() throws Exception {
+		Account account = new Account();
+		account.setId(1L);
+		account.setVersion(3L);
+		when(accountRepository.findAllById(any())).thenReturn(Arrays.asList(account));
+
+		BatchResult batch = balanceEngine.applyBatch(Arrays.asList(
+				new BatchOperation(1L, OperationType.DEPOSIT, Money.valueOf("100.00")),
+				new BatchOperation(1L, OperationType.WITHDRAW, Money.valueOf("150.00")),
+				new BatchOperation(2L, OperationType.DEPOSIT, Money.valueOf("10.00")),
+				new BatchOperation(1L, OperationType.WITHDRAW, Money.valueOf("40.25"))));
+		List<BatchOperationResult> results = batch.getResults();
+
+		assertEquals(Money.valueOf("100"), results.get(0).getBalance());
+		assertFalse(results.get(1).isSuccess());
+		assertFalse(results.get(2).isSuccess());
+		assertEquals(Money.valueOf("59.75"), results.get(3).getBalance());
+		assertEquals(1, batch.getAccounts().size());
+		assertEquals(5975L, batch.getAccounts().get(0).getBalanceMinor());
+		assertEquals(3L, batch.getAccounts().get(0).getVersion());
+		assertEquals(5975L, balanceOf(1L));
+	}
+
+	@Test
+	public void testApplyBatchRejectsNonPositiveAmounts() throws Exception {
+		Account account = new Account();
+		account.setId(1L);
+		when(accountRepository.findAllById(any())).thenReturn(Arrays.asList(account));
+
+		List<BatchOperationResult> results = balanceEngine.applyBatch(Arrays.asList(
+				new BatchOperation(1L, OperationType.DEPOSIT, Money.valueOf("-500.00")),
+				new BatchOperation(1L, OperationType.WITHDRAW, Money.valueOf("-10.00")),
+				new BatchOperation(1L, OperationType.DEPOSIT, Money.valueOf("0.00")),
+				new BatchOperation(1L, OperationType.DEPOSIT, Money.valueOf("1.00")))).getResults();
+
+		assertFalse(results.get(0).isSuccess());
+		assertFalse(results.get(1).isSuccess());
+		assertFalse(results.get(2).isSuccess());
+		assertEquals(Money.valueOf("1.00"), results.get(3).getBalance());
+		assertEquals(100L, balanceOf(1L));
+	}
+
+	@Test
+	public void testDepositAllUpdatesBalanceOnce() throws Exception {
+		balanceEngine.deposit(1L, 1000L);
+
+		List<Account> snapshots = balanceEngine.depositAll(1L, new long[] { 100L, 200L, 300L });
+
+		assertEquals(1100L, snapshots.get(0).getBalanceMinor());
+		assertEquals(1600L, snapshots.get(2).getBalanceMinor());
+		verify(accountRepository, times(1)).updateBalance(1L, 1600L, 1L);
+		verify(accountRepository, never()).updateBalance(eq(1L), eq(1100L), anyLong());
+		verify(transactionRepository).saveAll(any());
+		assertEquals(16.0, meterRegistry.get(VolumeCounters.DEPOSIT_VOLUME).tag("channel", "single").counter().count());
+	}
+
+	@Test
+	public void testConflictingUpdateReloadsAccount() throws Exception {
+		balanceEngine.deposit(1L, 1000L);
+		when(accountRepository.updateBalance(1L, 1500L, 1L)).thenReturn(0);
+		Account changed = new Account(1L, "Savings", 3000L, "Active", null);
+		changed.setVersion(4L);
+		when(accountRepository.findById(1L)).thenReturn(Optional.of(changed));
+
+		assertThrows(ObjectOptimisticLockingFailureException.class, () -> balanceEngine.deposit(1L, 500L));
+		assertEquals(3500L, balanceEngine.deposit(1L, 500L).getBalanceMinor());
+		verify(accountRepository).updateBalance(1L, 3500L, 4L);
+	}
+
+	@Test
+	public void testWithdrawRecordsHistory() throws Exception {
+		balanceEngine.deposit(1L, 1000L);
+		balanceEngine.withdraw(1L, 250L);
+
+		ArgumentCaptor<AccountTransaction> history = ArgumentCaptor.forClass(AccountTransaction.class);
+		verify(transactionRepository, times(2)).save(history.capture());
+		AccountTransaction withdrawal = history.getAllValues().get(1);
+		assertEquals(OperationType.WITHDRAW, withdrawal.getType());
+		assertEquals(250L, withdrawal.getAmount());
+		assertEquals(750L, withdrawal.getBalance());
+	}
+
+	@Test
+	public void testDuplicateIdempotencyKeyLeavesBalanceUnchanged() throws Exception {
+		balanceEngine.deposit(1L, 1000L, "key-1");
+		when(idempotencyRepository.saveAndFlush(any())).thenThrow(new DataIntegrityViolationException("duplicate"));
+
+		assertThrows(DataIntegrityViolationException.class, () -> balanceEngine.deposit(1L, 1000L, "key-1"));
+		verify(accountRepository, times(1)).updateBalance(1L, 1000L, 0L);
+		verify(accountRepository, never()).updateBalance(eq(1L), eq(2000L), anyLong());
+		assertEquals(1000L, balanceOf(1L));
+	}
+
+	@Test
+	public void testCommittedMutationsAreCountedInVolume() throws Exception {
+		balanceEngine.deposit(1L, 1050L);
+		balanceEngine.withdraw(1L, 250L);
+		assertThrows(ResourceNotFoundException.class, () -> balanceEngine.withdraw(1L, 5000L));
+
+		assertEquals(10.5, meterRegistry.get(VolumeCounters.DEPOSIT_VOLUME).tag("channel", "single").counter().count());
+		assertEquals(2.5, meterRegistry.get(VolumeCounters.WITHDRAW_VOLUME).tag("channel", "single").counter().count());
+	}
+
+	@Test
+	public void testJournalFailureDoesNotFailCommittedMutation() throws Exception {
+		when(journal.append(anyLong(), any(), anyLong(), anyLong(), anyLong()))
+				.thenThrow(new UncheckedIOException("Cannot roll journal segment", new IOException("disk full")));
+
+		assertEquals(1050L, balanceEngine.deposit(1L, 1050L).getBalanceMinor());
+		assertEquals(800L, balanceEngine.withdraw(1L, 250L).getBalanceMinor());
+
+		assertEquals(2.0, meterRegistry.get("bank.journal.errors").counter().count());
+		assertEquals(10.5, meterRegistry.get(VolumeCounters.DEPOSIT_VOLUME).tag("channel", "single").counter().count());
+		assertEquals(2.5, meterRegistry.get(VolumeCounters.WITHDRAW_VOLUME).tag("channel", "single").counter().count());
+	}
+
+	@Test
+	public void testOpposingTransfersConserveMoneyWithoutDeadlock() throws Exception {
+		Account other = new Account();
+		other.setId(2L);
+		when(accountRepository.findById(2L)).thenReturn(Optional.of(other));
+		balanceEngine.deposit(1L, 100000L);
+		balanceEngine.deposit(2L, 100000L);
+
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+		for (int i = 0; i < 4; i++) {
+			boolean forward = i % 2 == 0;
+			executor.submit(() -> {
+				for (int j = 0; j < 500; j++) {
+					if (forward) {
+						balanceEngine.transfer(1L, 2L, 100L);
+					} else {
+						balanceEngine.transfer(2L, 1L, 100L);
+					}
+				}
+				return null;
+			});
+		}
+		executor.shutdown();
+		assertTrue(executor.awaitTermination(30, TimeUnit.SECONDS));
+
+		assertEquals(100000L, balanceOf(1L));
+		assertEquals(100000L, balanceOf(2L));
+	}
+
+	@Test
+	public void testFailedDepositOnOtherShardReversesWithdrawal() throws Exception {
+		Shards shards = new Shards(new String[] { "jdbc:h2:mem:shard1" });
+		BalanceEngine engine = new BalanceEngine(accountRepository, transactionRepository, idempotencyRepository,
+				mock(PlatformTransactionManager.class), mock(TransactionJournal.class), shards, meterRegistry, 16, 1000);
+		long otherShard = 2L;
+		while (shards.shardOf(otherShard) == shards.shardOf(1L)) {
+			otherShard++;
+		}
+		long toAccountId = otherShard;
+		when(accountRepository.findById(1L)).thenReturn(Optional.of(new Account(1L, "Savings", 1000L, "Active", null)));
+		when(accountRepository.findById(toAccountId))
+				.thenReturn(Optional.of(new Account(toAccountId, "Savings", 0L, "Active", null)));
+		when(accountRepository.updateBalance(eq(toAccountId), anyLong(), anyLong())).thenReturn(0);
+
+		assertThrows(ObjectOptimisticLockingFailureException.class, () -> engine.transfer(1L, toAccountId, 300L));
+
+		verify(accountRepository).updateBalance(1L, 700L, 0L);
+		verify(accountRepository).updateBalance(1L, 1000L, 1L);
+		shards.shutdown();
+	}
+
+	@Test
+	public void testFailedReversalOnOtherShardIsNotRetried() throws Exception {
+		Shards shards = new Shards(new String[] { "jdbc:h2:mem:shard1" });
+		BalanceEngine engine = new BalanceEngine(accountRepository, transactionRepository, idempotencyRepository,
+				mock(PlatformTransactionManager.class), mock(TransactionJournal.class), shards, meterRegistry, 16, 1000);
+		OptimisticRetry retry = new OptimisticRetry(meterRegistry, 3, Duration.ofMillis(1), Duration.ofMillis(2), 0.1,
+				100);
+		long otherShard = 2L;
+		while (shards.shardOf(otherShard) == shards.shardOf(1L)) {
+			otherShard++;
+		}
+		long toAccountId = otherShard;
+		when(accountRepository.findById(1L)).thenReturn(Optional.of(new Account(1L, "Savings", 1000L, "Active", null)));
+		when(accountRepository.findById(toAccountId))
+				.thenReturn(Optional.of(new Account(toAccountId, "Savings", 0L, "Active", null)));
+		when(accountRepository.updateBalance(eq(toAccountId), anyLong(), anyLong())).thenReturn(0);
+		when(accountRepository.updateBalance(1L, 1000L, 1L)).thenReturn(0);
+
+		TransferIncompleteException e = assertThrows(TransferIncompleteException.class,
+				() -> retry.execute(() -> engine.transfer(1L, toAccountId, 300L)));
+
+		assertEquals(1L, e.getFromAccountId());
+		assertEquals(300L, e.getAmount());
+		assertTrue(e.getCause() instanceof ObjectOptimisticLockingFailureException);
+		verify(accountRepository, times(1)).updateBalance(1L, 700L, 0L);
+		verify(accountRepository, times(1)).updateBalance(eq(toAccountId), anyLong(), anyLong());
+		shards.shutdown();
+	}
+
+	/**
+	 * Reads the in-memory balance of an account by depositing and subtracting one minor unit.
+	 */
+	private long balanceOf(Long accountId) throws Exception {
+		return balanceEngine.deposit(accountId, 1L).getBalanceMinor() - 1L;
+	}
+}
@@ -0,0 +1,122 @@
+package com.maybank.bankapp.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceException;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.maybank.bankapp.datasource.Shards;
+import com.maybank.bankapp.dto.DataFormat;
+import com.maybank.bankapp.dto.ImportSummary;
+import com.maybank.bankapp.entity.Account;
+import com.maybank.bankapp.entity.Customer;
+import com.maybank.bankapp.money.Money;
+
+public class CustomerImportServiceTest {
+
+	private EntityManager entityManager;
+	private CustomerImportService importService;
+
+	@BeforeEach
+	void setUp() {
+		AccountNumberGenerator accountNumberGenerator = mock(AccountNumberGenerator.class);
+		when(accountNumberGenerator.nextAccountNumber()).thenReturn(1000000008L, 1000000016L, 1000000024L);
+		entityManager = mock(EntityManager.class);
+		importService = new CustomerImportService(accountNumberGenerator, new Shards(new String[0]),
+				mock(CustomerReplicator.class), mock(PlatformTransactionManager.class),
+				new ObjectMapper(), 2, 10);
+		ReflectionTestUtils.setField(importService, "entityManager", entityManager);
+	}
+
+	@Test
+	public void testImportNdjson() throws Exception {
+		ImportSummary summary = importService.importCustomers(stream(
+				"{\"name\":\"Alice\",\"accounts\":[{\"type\":\"Savings\",\"balance\":10.50}]}\n"
+						+ "\n"
+						+ "{\"name\":\"Bob\"}\n"
+						+ "{\"name\":\"Carol\",\"accounts\":[{\"type\":\"Savings\",\"balance\":1.005}]}\n"
+						+ "not json\n"
+						+ "{\"name\":\"  \"}\n"
+						+ "{\"name\":\"Dan\",\"accounts\":[{\"type\":\"Current\"}]}\n"),
+				DataFormat.NDJSON);
+
+		assertEquals(3, summary.getCustomersImported());
+		assertEquals(2, summary.getAccountsImported());
+		assertEquals(3, summary.getRejected());
+		assertEquals(Arrays.asList(4L, 5L, 6L), Arrays.asList(summary.getRejectedRows().get(0).getLine(),
+				summary.getRejectedRows().get(1).getLine(), summary.getRejectedRows().get(2).getLine()));
+		verify(entityManager, times(2)).flush();
+		verify(entityManager, times(2)).clear();
+
+		ArgumentCaptor<Object> persisted = ArgumentCaptor.forClass(Object.class);
+		verify(entityManager, times(5)).persist(persisted.capture());
+		Account account = (Account) persisted.getAllValues().get(1);
+		assertEquals(1000000008L, account.getId());
+		assertEquals(Money.valueOf("10.50"), account.getBalance());
+		assertEquals("Alice", account.getCustomer().getName());
+	}
+
+	@Test
+	public void testImportCsv() throws Exception {
+		ImportSummary summary = importService.importCustomers(stream(
+				"\uFEFFname,accountType,balance\r\n"
+						+ "\"Lee, Ann\",Savings,100\r\n"
+						+ "Bob,,\r\n"
+						+ "Carol,,5.00\r\n"),
+				DataFormat.CSV);
+
+		assertEquals(2, summary.getCustomersImported());
+		assertEquals(1, summary.getAccountsImported());
+		assertEquals(1, summary.getRejected());
+		assertEquals(4L, summary.getRejectedRows().get(0).getLine());
+
+		ArgumentCaptor<Object> persisted = ArgumentCaptor.forClass(Object.class);
+		verify(entityManager, times(3)).persist(persisted.capture());
+		assertEquals("Lee, Ann", ((Customer) persisted.getAllValues().get(0)).getName());
+	}
+
+	@Test
+	public void testCsvWithoutNameColumn() {
+		assertThrows(IllegalArgumentException.class,
+				() -> importService.importCustomers(stream("type,balance\nSavings,1\n"), DataFormat.CSV));
+	}
+
+	@Test
+	public void testFailedChunkRejectsItsRows() throws Exception {
+		doThrow(new PersistenceException("db down")).doNothing().when(entityManager).flush();
+
+		ImportSummary summary = importService.importCustomers(
+				stream("{\"name\":\"A\"}\n{\"name\":\"B\"}\n{\"name\":\"C\"}\n"), DataFormat.NDJSON);
+
+		assertEquals(1, summary.getCustomersImported());
+		assertEquals(2, summary.getRejected());
+	}
+
+	@Test
+	public void testSplitCsv() {
+		assertEquals(Arrays.asList("a", "b \"c\"", ""), CustomerImportService.splitCsv("a,\"b \"\"c\"\"\","));
+		assertThrows(IllegalArgumentException.class, () -> CustomerImportService.splitCsv("\"open"));
+	}
+
+	private static InputStream stream(String content) {
+		return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+	}
+}
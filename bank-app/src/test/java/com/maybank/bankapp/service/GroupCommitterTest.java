@@ -0,0 +1,102 @@
+package com.maybank.bankapp.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.maybank.bankapp.entity.Account;
+import com.maybank.bankapp.exception.ResourceNotFoundException;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+public class GroupCommitterTest {
+
+	private BalanceEngine balanceEngine;
+	private SimpleMeterRegistry meterRegistry;
+
+	@BeforeEach
+	void setUp() throws Exception {
+		balanceEngine = mock(BalanceEngine.class);
+		meterRegistry = new SimpleMeterRegistry();
+		when(balanceEngine.depositAll(eq(1L), any())).thenAnswer(invocation -> {
+			long[] amounts = invocation.getArgument(1);
+			List<Account> snapshots = new ArrayList<>();
+			long balance = 0;
+			for (long amount : amounts) {
+				balance += amount;
+				snapshots.add(new Account(1L, "Savings", balance, "Active", null));
+			}
+			return snapshots;
+		});
+	}
+
+	@Test
+	public void testConcurrentDepositsAreCommittedTogether() throws Exception {
+		GroupCommitter groupCommitter = new GroupCommitter(balanceEngine, meterRegistry, true, Duration.ofSeconds(10), 4);
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+		List<Future<Account>> results = new ArrayList<>();
+		for (int i = 1; i <= 4; i++) {
+			long amount = i * 100L;
+			results.add(executor.submit(() -> groupCommitter.deposit(1L, amount)));
+		}
+
+		Set<Long> balances = new HashSet<>();
+		for (Future<Account> result : results) {
+			balances.add(result.get(5, TimeUnit.SECONDS).getBalanceMinor());
+		}
+		executor.shutdown();
+
+		assertEquals(4, balances.size());
+		assertTrue(balances.contains(1000L));
+		verify(balanceEngine, times(1)).depositAll(eq(1L), any());
+		assertEquals(4, meterRegistry.get("bank.group-commit.size").summary().totalAmount());
+	}
+
+	@Test
+	public void testLoneDepositIsCommittedAfterWindow() throws Exception {
+		GroupCommitter groupCommitter = new GroupCommitter(balanceEngine, meterRegistry, true, Duration.ofMillis(1), 100);
+
+		assertEquals(500L, groupCommitter.deposit(1L, 500L).getBalanceMinor());
+		assertEquals(700L, groupCommitter.deposit(1L, 700L).getBalanceMinor());
+		verify(balanceEngine, times(2)).depositAll(eq(1L), any());
+	}
+
+	@Test
+	public void testFailedGroupFailsItsDeposits() throws Exception {
+		when(balanceEngine.depositAll(eq(2L), any()))
+				.thenThrow(new ResourceNotFoundException("Account not found with id: 2"));
+		GroupCommitter groupCommitter = new GroupCommitter(balanceEngine, meterRegistry, true, Duration.ofMillis(1), 100);
+
+		assertThrows(ResourceNotFoundException.class, () -> groupCommitter.deposit(2L, 500L));
+	}
+
+	@Test
+	public void testDisabledGroupCommitDepositsOneAtATime() throws Exception {
+		GroupCommitter groupCommitter = new GroupCommitter(balanceEngine, meterRegistry, false, Duration.ofMillis(1), 100);
+
+		groupCommitter.deposit(1L, 500L);
+
+		verify(balanceEngine).deposit(1L, 500L);
+		verify(balanceEngine, never()).depositAll(any(), any());
+	}
+}
@@ -0,0 +1,100 @@
+package com.maybank.bankapp.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import com.maybank.bankapp.datasource.Shards;
+import com.maybank.bankapp.dto.OperationType;
+import com.maybank.bankapp.entity.Account;
+import com.maybank.bankapp.entity.IdempotencyRecord;
+import com.maybank.bankapp.exception.ErrorCode;
+import com.maybank.bankapp.exception.IdempotencyKeyReusedException;
+import com.maybank.bankapp.money.Money;
+import com.maybank.bankapp.repository.AccountRepository;
+import com.maybank.bankapp.repository.IdempotencyRecordRepository;
+
+public class IdempotencyServiceTest {
+
+	private IdempotencyRecordRepository idempotencyRepository;
+	private AccountRepository accountRepository;
+	private IdempotencyService idempotencyService;
+
+	@BeforeEach
+	void setUp() {
+		idempotencyRepository = mock(IdempotencyRecordRepository.class);
+		accountRepository = mock(AccountRepository.class);
+		idempotencyService = new IdempotencyService(idempotencyRepository, accountRepository,
+				new Shards(new String[0]), 100, Duration.ofHours(1), Duration.ZERO);
+	}
+
+	@Test
+	public void testRepeatedKeyIsAppliedOnce() throws Exception {
+		AtomicInteger applied = new AtomicInteger();
+		Account account = new Account(1L, "Savings", 1000L, "Active", null);
+		IdempotencyService.Mutation deposit = () -> {
+			applied.incrementAndGet();
+			return account;
+		};
+
+		Account first = idempotencyService.execute("key-1", 1L, OperationType.DEPOSIT, Money.valueOf("10.00"), deposit);
+		Account retry = idempotencyService.execute("key-1", 1L, OperationType.DEPOSIT, Money.valueOf("10.00"), deposit);
+
+		assertSame(first, retry);
+		assertEquals(1, applied.get());
+		verify(idempotencyRepository, never()).findById(any());
+	}
+
+	@Test
+	public void testSameKeyOnAnotherAccountIsAppliedSeparately() throws Exception {
+		Account first = new Account(1L, "Savings", 1000L, "Active", null);
+		Account second = new Account(2L, "Savings", 1000L, "Active", null);
+
+		assertSame(first, idempotencyService.execute("key-1", 1L, OperationType.DEPOSIT, Money.valueOf("10.00"),
+				() -> first));
+		assertSame(second, idempotencyService.execute("key-1", 2L, OperationType.WITHDRAW, Money.valueOf("5.00"),
+				() -> second));
+	}
+
+	@Test
+	public void testKeyReusedForDifferentRequestIsRejected() throws Exception {
+		Account account = new Account(1L, "Savings", 1000L, "Active", null);
+		idempotencyService.execute("key-1", 1L, OperationType.DEPOSIT, Money.valueOf("10.00"), () -> account);
+
+		IdempotencyKeyReusedException e = assertThrows(IdempotencyKeyReusedException.class,
+				() -> idempotencyService.execute("key-1", 1L, OperationType.WITHDRAW, Money.valueOf("10.00"), () -> account));
+		assertEquals(ErrorCode.IDEMPOTENCY_KEY_REUSED, e.getErrorCode());
+		assertEquals(0, e.getStackTrace().length);
+		assertThrows(IdempotencyKeyReusedException.class, () -> idempotencyService.execute("key-1", 1L,
+				OperationType.DEPOSIT, Money.valueOf("20.00"), () -> account));
+	}
+
+	@Test
+	public void testKeyRejectedByDatabaseIsReplayedFromStoredRecord() throws Exception {
+		when(idempotencyRepository.findById(new IdempotencyRecord.Key(1L, "key-1"))).thenReturn(Optional.of(new IdempotencyRecord("key-1", 1L,
+				OperationType.WITHDRAW, 250L, 750L, "Active", Instant.now())));
+		when(accountRepository.findById(1L))
+				.thenReturn(Optional.of(new Account(1L, "Savings", 500L, "Active", null)));
+
+		Account replayed = idempotencyService.execute("key-1", 1L, OperationType.WITHDRAW, Money.valueOf("2.50"), () -> {
+			throw new DataIntegrityViolationException("duplicate key");
+		});
+
+		assertEquals(750L, replayed.getBalanceMinor());
+		assertEquals("Savings", replayed.getType());
+	}
+}
@@ -0,0 +1,89 @@
+package com.maybank.bankapp.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+
+import com.maybank.bankapp.entity.Account;
+import com.maybank.bankapp.exception.ResourceNotFoundException;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+public class OptimisticRetryTest {
+
+	private SimpleMeterRegistry meterRegistry;
+
+	@BeforeEach
+	void setUp() {
+		meterRegistry = new SimpleMeterRegistry();
+	}
+
+	@Test
+	public void testConflictIsRetried() throws Exception {
+		OptimisticRetry optimisticRetry = retry(5, 10);
+		AtomicInteger attempts = new AtomicInteger();
+
+		String result = optimisticRetry.execute(() -> {
+			if (attempts.incrementAndGet() < 3) {
+				throw new ObjectOptimisticLockingFailureException(Account.class, 1L);
+			}
+			return "done";
+		});
+
+		assertEquals("done", result);
+		assertEquals(2, meterRegistry.get("bank.optimistic.conflicts").counter().count());
+		assertEquals(2, meterRegistry.get("bank.optimistic.retries").counter().count());
+	}
+
+	@Test
+	public void testAttemptsAreBounded() throws Exception {
+		OptimisticRetry optimisticRetry = retry(3, 10);
+		AtomicInteger attempts = new AtomicInteger();
+
+		assertThrows(ObjectOptimisticLockingFailureException.class, () -> optimisticRetry.execute(() -> {
+			attempts.incrementAndGet();
+			throw new ObjectOptimisticLockingFailureException(Account.class, 1L);
+		}));
+
+		assertEquals(3, attempts.get());
+		assertEquals(1, meterRegistry.get("bank.optimistic.exhausted").tag("reason", "attempts").counter().count());
+	}
+
+	@Test
+	public void testEmptyBudgetStopsRetries() throws Exception {
+		OptimisticRetry optimisticRetry = retry(5, 1);
+		AtomicInteger attempts = new AtomicInteger();
+
+		assertThrows(ObjectOptimisticLockingFailureException.class, () -> optimisticRetry.execute(() -> {
+			attempts.incrementAndGet();
+			throw new ObjectOptimisticLockingFailureException(Account.class, 1L);
+		}));
+
+		assertEquals(2, attempts.get());
+		assertEquals(1, meterRegistry.get("bank.optimistic.exhausted").tag("reason", "budget").counter().count());
+	}
+
+	@Test
+	public void testOtherFailuresAreNotRetried() throws Exception {
+		OptimisticRetry optimisticRetry = retry(5, 10);
+		AtomicInteger attempts = new AtomicInteger();
+
+		assertThrows(ResourceNotFoundException.class, () -> optimisticRetry.execute(() -> {
+			attempts.incrementAndGet();
+			throw new ResourceNotFoundException("Account not found with id: 1");
+		}));
+
+		assertEquals(1, attempts.get());
+	}
+
+	private OptimisticRetry retry(int maxAttempts, int budgetCapacity) {
+		return new OptimisticRetry(meterRegistry, maxAttempts, Duration.ofMillis(1), Duration.ofMillis(2), 0.1,
+				budgetCapacity);
+	}
+}
@@ -0,0 +1,70 @@
+package com.maybank.bankapp.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.maybank.bankapp.datasource.Shards;
+import com.maybank.bankapp.dto.DataFormat;
+import com.maybank.bankapp.dto.OperationType;
+import com.maybank.bankapp.dto.StatementLine;
+import com.maybank.bankapp.repository.AccountTransactionRepository;
+
+public class StatementServiceTest {
+
+	private static final Instant FROM = Instant.parse("2024-01-01T00:00:00Z");
+	private static final Instant TO = Instant.parse("2024-01-03T00:00:00Z");
+
+	private AccountTransactionRepository transactionRepository;
+	private StatementService statementService;
+
+	@BeforeEach
+	void setUp() {
+		transactionRepository = mock(AccountTransactionRepository.class);
+		ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule())
+				.disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+		statementService = new StatementService(transactionRepository, mock(PlatformTransactionManager.class),
+				new Shards(new String[0]), objectMapper);
+		when(transactionRepository.streamStatement(7L, FROM, TO)).thenReturn(Stream.of(
+				new StatementLine(1L, Instant.parse("2024-01-01T10:00:00Z"), OperationType.DEPOSIT, 10050, 10050),
+				new StatementLine(2L, Instant.parse("2024-01-02T11:30:00Z"), OperationType.WITHDRAW, 50, 10000)));
+	}
+
+	@Test
+	public void testWriteCsv() throws Exception {
+		ByteArrayOutputStream output = new ByteArrayOutputStream();
+		long lines = statementService.writeStatement(7L, LocalDate.of(2024, 1, 1), LocalDate.of(2024, 1, 2),
+				DataFormat.CSV, output);
+
+		assertEquals(2, lines);
+		assertEquals("id,time,type,amount,balance\n"
+				+ "1,2024-01-01T10:00:00Z,DEPOSIT,100.50,100.50\n"
+				+ "2,2024-01-02T11:30:00Z,WITHDRAW,0.50,100.00\n", output.toString(StandardCharsets.UTF_8.name()));
+	}
+
+	@Test
+	public void testWriteNdjson() throws Exception {
+		ByteArrayOutputStream output = new ByteArrayOutputStream();
+		statementService.writeStatement(7L, LocalDate.of(2024, 1, 1), LocalDate.of(2024, 1, 2), DataFormat.NDJSON,
+				output);
+
+		String[] lines = output.toString(StandardCharsets.UTF_8.name()).split("\n", -1);
+		assertEquals(3, lines.length);
+		assertEquals("{\"id\":1,\"time\":\"2024-01-01T10:00:00Z\",\"type\":\"DEPOSIT\",\"amount\":100.50,\"balance\":100.50}",
+				lines[0]);
+		assertEquals("", lines[2]);
+	}
+}